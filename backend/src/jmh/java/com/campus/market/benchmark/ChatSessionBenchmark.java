@@ -0,0 +1,66 @@
+package com.campus.market.benchmark;
+
+import com.campus.market.chat.ChatMessageRepository;
+import com.campus.market.chat.ChatService;
+import com.campus.market.chat.ChatSession;
+import com.campus.market.chat.ChatSessionRepository;
+import com.campus.market.chat.dto.ChatSessionDto;
+import com.campus.market.product.ProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 会话列表组装（ChatService.listSessions → toSessionDto），每页 20 个会话，其中一个是系统通知会话。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ChatSessionBenchmark {
+
+    private static final long CURRENT_USER = 1L;
+    private static final int SESSIONS = 20;
+
+    private ChatService chatService;
+
+    @Setup
+    public void setUp() {
+        List<ChatSession> sessions = new ArrayList<>(SESSIONS);
+        for (int i = 0; i < SESSIONS; i++) {
+            ChatSession session = new ChatSession();
+            session.setId((long) i + 1);
+            session.setBuyerId(CURRENT_USER);
+            session.setSellerId(i == 0 ? 0L : 1000L + i);
+            session.setProductId(i == 0 ? null : (long) i);
+            session.setLastMessage("还在吗？可以小刀吗");
+            session.setLastTime(LocalDateTime.of(2024, 3, 1, 12, 0).plusMinutes(i));
+            sessions.add(session);
+        }
+
+        ChatSessionRepository sessionRepository = Stubs.of(ChatSessionRepository.class, Map.of(
+                "findByBuyerIdOrSellerIdOrderByLastTimeDesc", args -> sessions));
+        ChatMessageRepository messageRepository = Stubs.of(ChatMessageRepository.class, Map.of(
+                "countBySessionIdAndSenderIdNotAndReadFalse", args -> 2L));
+        ProductRepository productRepository = Stubs.of(ProductRepository.class, Map.of(
+                "findById", args -> Optional.of(Fixtures.product((Long) args[0]))));
+
+        chatService = new ChatService(sessionRepository, messageRepository, Fixtures.userProfileRepository(),
+                productRepository, Fixtures.productService());
+    }
+
+    @Benchmark
+    public List<ChatSessionDto> listSessions() {
+        return chatService.listSessions(CURRENT_USER);
+    }
+}
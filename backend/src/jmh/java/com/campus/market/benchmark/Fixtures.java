@@ -0,0 +1,133 @@
+package com.campus.market.benchmark;
+
+import com.campus.market.favorite.FavoriteCountService;
+import com.campus.market.favorite.FavoriteRepository;
+import com.campus.market.product.CategoryCache;
+import com.campus.market.product.CategoryRepository;
+import com.campus.market.product.LatestProductFeed;
+import com.campus.market.product.PriceDropQueue;
+import com.campus.market.product.Product;
+import com.campus.market.product.ProductFacetService;
+import com.campus.market.product.ProductImage;
+import com.campus.market.product.ProductImageRepository;
+import com.campus.market.product.ProductRepository;
+import com.campus.market.product.ProductService;
+import com.campus.market.product.TrendingService;
+import com.campus.market.search.SavedSearchIndex;
+import com.campus.market.search.SavedSearchRepository;
+import com.campus.market.user.UserProfile;
+import com.campus.market.user.UserProfileRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 基准共用的测试数据与对象装配。
+ */
+final class Fixtures {
+
+    /** 每个商品的图片数 */
+    static final int IMAGES_PER_PRODUCT = 3;
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    private Fixtures() {
+    }
+
+    static Product product(long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setSellerId(1000 + id % 50);
+        product.setTitle("九成新 iPad Air 5 64G 附 Apple Pencil 二代 #" + id);
+        product.setDescription("自用一年，无磕碰，电池健康 95%，送保护壳和钢化膜，可校内面交。");
+        product.setCategoryId(1 + id % 8);
+        product.setPrice(new BigDecimal("2399.00"));
+        product.setOriginalPrice(new BigDecimal("4399.00"));
+        product.setStatus("ON_SALE");
+        product.setLocation("东区宿舍");
+        product.setViewCount(100 + id);
+        product.setCreatedAt(BASE_TIME.plusMinutes(id));
+        product.setUpdatedAt(BASE_TIME.plusMinutes(id));
+        return product;
+    }
+
+    static List<Product> products(int count) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            products.add(product(i));
+        }
+        return products;
+    }
+
+    static UserProfile profile(long userId) {
+        UserProfile profile = new UserProfile();
+        profile.setId(userId);
+        profile.setUserId(userId);
+        profile.setNickname("同学" + userId);
+        profile.setAvatarUrl("/uploads/avatar/" + userId + ".png");
+        profile.setCampus("主校区");
+        profile.setGrade("2022");
+        return profile;
+    }
+
+    static List<ProductImage> images(long productId) {
+        List<ProductImage> images = new ArrayList<>(IMAGES_PER_PRODUCT);
+        for (int i = 0; i < IMAGES_PER_PRODUCT; i++) {
+            ProductImage image = new ProductImage();
+            image.setId(productId * 10 + i);
+            image.setProductId(productId);
+            image.setUrl("/uploads/product/" + productId + "-" + i + ".jpg");
+            image.setSortOrder(i);
+            images.add(image);
+        }
+        return images;
+    }
+
+    static UserProfileRepository userProfileRepository() {
+        return Stubs.of(UserProfileRepository.class, Map.of(
+                "findByUserId", args -> Optional.of(profile((Long) args[0])),
+                "findByUserIdIn", args -> {
+                    List<UserProfile> profiles = new ArrayList<>();
+                    for (Object id : (Collection<?>) args[0]) {
+                        profiles.add(profile((Long) id));
+                    }
+                    return profiles;
+                }));
+    }
+
+    static ProductImageRepository productImageRepository() {
+        return Stubs.of(ProductImageRepository.class, Map.of(
+                "findByProductIdOrderBySortOrderAsc", args -> images((Long) args[0]),
+                "findFirstByProductIdIn", args -> {
+                    List<ProductImage> first = new ArrayList<>();
+                    for (Object id : (Collection<?>) args[0]) {
+                        first.add(images((Long) id).get(0));
+                    }
+                    return first;
+                }));
+    }
+
+    /**
+     * 只为 DTO 组装准备的 ProductService：图片和卖家资料来自内存桩，其余依赖为空实现。
+     */
+    static ProductService productService() {
+        ProductRepository productRepository = Stubs.empty(ProductRepository.class);
+        CategoryCache categoryCache = new CategoryCache(Stubs.empty(CategoryRepository.class));
+        return new ProductService(
+                productRepository,
+                categoryCache,
+                productImageRepository(),
+                userProfileRepository(),
+                new ProductFacetService(productRepository, categoryCache),
+                new TrendingService(360, 200),
+                new LatestProductFeed(64),
+                new SavedSearchIndex(Stubs.empty(SavedSearchRepository.class), 100),
+                new PriceDropQueue(),
+                new FavoriteCountService(Stubs.empty(FavoriteRepository.class), productRepository));
+    }
+}
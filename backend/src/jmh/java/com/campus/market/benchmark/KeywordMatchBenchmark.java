@@ -0,0 +1,84 @@
+package com.campus.market.benchmark;
+
+import com.campus.market.product.Product;
+import com.campus.market.search.SavedSearch;
+import com.campus.market.search.SavedSearchIndex;
+import com.campus.market.search.SavedSearchRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 新商品与已保存搜索的关键词匹配：反向索引（SavedSearchIndex）对比逐条扫描全部搜索。
+ * 索引的耗时应随命中的候选数变化，而不随已保存搜索总数线性增长。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class KeywordMatchBenchmark {
+
+    private static final String[] KEYWORDS = {
+            "ipad", "iphone", "switch", "耳机", "自行车", "台灯", "高数", "考研", "键盘", "显示器",
+            "airpods", "kindle", "吉他", "电饭煲", "羽毛球拍", "滑板", "相机", "书桌", "衣柜", "风扇"
+    };
+
+    @Param({"1000", "10000", "100000"})
+    public int savedSearches;
+
+    private SavedSearchIndex index;
+    private List<SavedSearch> searches;
+    private Product product;
+
+    @Setup
+    public void setUp() {
+        searches = new ArrayList<>(savedSearches);
+        for (int i = 0; i < savedSearches; i++) {
+            SavedSearch search = new SavedSearch();
+            search.setId((long) i + 1);
+            search.setUserId(10_000L + i);
+            // 每个关键词后缀一个编号，使绝大多数搜索与商品标题无关，贴近真实分布
+            search.setKeyword(KEYWORDS[i % KEYWORDS.length] + (i < KEYWORDS.length ? "" : " " + i));
+            if (i % 3 == 0) {
+                search.setMaxPrice(new BigDecimal(500 + i % 3000));
+            }
+            searches.add(search);
+        }
+        index = new SavedSearchIndex(Stubs.of(SavedSearchRepository.class, Map.of("findAll", args -> searches)),
+                Integer.MAX_VALUE);
+        index.rebuild();
+
+        product = Fixtures.product(1);
+        product.setSellerId(1L);
+    }
+
+    @Benchmark
+    public List<SavedSearchIndex.Match> percolateIndexed() {
+        index.percolate(product);
+        return index.drainPending();
+    }
+
+    @Benchmark
+    public int linearScan() {
+        String title = product.getTitle().toLowerCase(Locale.ROOT);
+        int matched = 0;
+        for (SavedSearch search : searches) {
+            if (title.contains(search.getKeyword().toLowerCase(Locale.ROOT))
+                    && (search.getMaxPrice() == null || product.getPrice().compareTo(search.getMaxPrice()) <= 0)) {
+                matched++;
+            }
+        }
+        return matched;
+    }
+}
@@ -0,0 +1,75 @@
+package com.campus.market.benchmark;
+
+import com.campus.market.common.api.ApiResponse;
+import com.campus.market.product.Product;
+import com.campus.market.product.ProductService;
+import com.campus.market.product.dto.ProductListItemDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 商品列表项组装与列表响应的 JSON 序列化。
+ *
+ * 仓库调用由内存桩直接返回，因此这里衡量的是纯 CPU / 分配开销；
+ * 真实环境下逐条组装每项还要多两次数据库往返，批量组装每页只多两次。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ProductMappingBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private ProductService productService;
+    private Product product;
+    private List<Product> page;
+    private ObjectMapper objectMapper;
+    private ApiResponse<Page<ProductListItemDto>> response;
+
+    @Setup
+    public void setUp() {
+        productService = Fixtures.productService();
+        product = Fixtures.product(1);
+        page = Fixtures.products(PAGE_SIZE);
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        response = ApiResponse.ok(new PageImpl<>(productService.toListItemDtos(page), PageRequest.of(0, PAGE_SIZE), 200));
+    }
+
+    @Benchmark
+    public ProductListItemDto toListItemDto() {
+        return productService.toListItemDto(product);
+    }
+
+    @Benchmark
+    public List<ProductListItemDto> toListItemDtoPerItem() {
+        List<ProductListItemDto> dtos = new ArrayList<>(page.size());
+        for (Product p : page) {
+            dtos.add(productService.toListItemDto(p));
+        }
+        return dtos;
+    }
+
+    @Benchmark
+    public List<ProductListItemDto> toListItemDtosBatched() {
+        return productService.toListItemDtos(page);
+    }
+
+    @Benchmark
+    public byte[] serializeListPage() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
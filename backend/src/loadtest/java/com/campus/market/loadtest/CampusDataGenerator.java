@@ -0,0 +1,335 @@
+package com.campus.market.loadtest;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * 模拟校园数据的批量生成器。
+ *
+ * 所有行都用 COPY ... FROM STDIN 写入，id 显式指定（从 1 连续编号），写完后再把各表的序列调到最大 id，
+ * 因此生成过程不需要回查数据库，百万级的消息也只需几秒。相同的配置和种子总是生成相同的数据。
+ *
+ * 商品状态由 id 决定：id 能被 10 整除的已售出（并有一条已完成订单），id 模 20 余 1 的已删除，其余在售。
+ */
+final class CampusDataGenerator {
+
+    /** 所有模拟用户的登录密码 */
+    static final String PASSWORD = "loadtest123";
+
+    private static final DateTimeFormatter TS = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    /** COPY 缓冲区超过该字节数时写出一次 */
+    private static final int FLUSH_CHARS = 1 << 20;
+    /** 生成数据的时间跨度（秒），所有时间落在 [NOW - SPAN, NOW) 内 */
+    private static final int SPAN_SECONDS = 90 * 24 * 3600;
+
+    private static final List<String> CATEGORIES = List.of(
+            "教材书籍", "数码电子", "生活用品", "运动户外", "服饰鞋包", "美妆个护", "乐器文娱", "其他");
+    private static final List<List<String>> ITEMS = List.of(
+            List.of("高等数学", "线性代数", "大学英语", "考研真题", "计算机网络", "数据结构", "概率论"),
+            List.of("机械键盘", "蓝牙耳机", "显示器", "平板电脑", "移动硬盘", "无线鼠标", "充电宝"),
+            List.of("台灯", "收纳箱", "电热水壶", "晾衣架", "床上桌", "小风扇", "保温杯"),
+            List.of("自行车", "羽毛球拍", "篮球", "瑜伽垫", "跳绳", "滑板", "登山包"),
+            List.of("卫衣", "运动鞋", "双肩包", "羽绒服", "帆布包", "牛仔裤", "围巾"),
+            List.of("面霜", "防晒霜", "洗面奶", "香水", "口红", "卷发棒", "化妆镜"),
+            List.of("吉他", "尤克里里", "电子琴", "桌游", "拍立得", "耳机架", "画板"),
+            List.of("雨伞", "闹钟", "绿植", "证件照相框", "手账本", "暖手宝", "工具箱"));
+    private static final List<String> KEYWORDS = ITEMS.stream().flatMap(List::stream).toList();
+    private static final List<String> CONDITIONS = List.of("全新", "九成新", "八成新", "轻微使用痕迹", "毕业清仓");
+    private static final List<String> LOCATIONS = List.of(
+            "东区宿舍", "西区宿舍", "图书馆", "一食堂", "二食堂", "教学楼A", "体育馆", "南门");
+    private static final List<String> CAMPUSES = List.of("主校区", "东校区", "南校区");
+    private static final List<String> GRADES = List.of("2021级", "2022级", "2023级", "2024级");
+    private static final List<String> MAJORS = List.of(
+            "计算机科学与技术", "软件工程", "数学与应用数学", "物理学", "经济学", "法学", "英语", "机械工程");
+    private static final List<String> PHRASES = List.of(
+            "你好，这个还在吗？", "在的，可以看看", "能便宜一点吗", "最低多少", "可以当面验货吗",
+            "明天下午有空吗", "图书馆门口见", "好的，没问题", "东西有什么问题吗", "谢谢，已收到");
+
+    private final LoadTestConfig config;
+    private final LocalDateTime now = LocalDateTime.now().withNano(0);
+    /** 每个商品的价格（分），订单快照需要与商品一致 */
+    private long[] priceCents;
+
+    CampusDataGenerator(LoadTestConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * 搜索场景使用的关键词，与商品标题出自同一词表。
+     */
+    static List<String> keywords() {
+        return KEYWORDS;
+    }
+
+    static int categoryCount() {
+        return CATEGORIES.size();
+    }
+
+    static boolean isOnSale(long productId) {
+        return !isSold(productId) && !isDeleted(productId);
+    }
+
+    static String username(long userId) {
+        return String.format("2024%06d", userId);
+    }
+
+    private static boolean isSold(long productId) {
+        return productId % 10 == 0;
+    }
+
+    private static boolean isDeleted(long productId) {
+        return productId % 20 == 1;
+    }
+
+    /**
+     * 在空库上生成全部数据。
+     */
+    void generate(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            PGConnection pg = connection.unwrap(PGConnection.class);
+            SplittableRandom random = new SplittableRandom(config.seed);
+
+            timed("category", () -> copyCategories(pg));
+            timed("user / user_profile", () -> copyUsers(pg, random.split()));
+            timed("product", () -> copyProducts(pg, random.split()));
+            timed("product_image", () -> copyImages(pg));
+            timed("chat_session / chat_message", () -> copyChats(pg, random.split()));
+            timed("orders", () -> copyOrders(pg));
+            timed("favorite", () -> copyFavorites(pg, random.split()));
+
+            try (Statement statement = connection.createStatement()) {
+                for (String table : List.of("\"user\"", "user_profile", "category", "product", "product_image",
+                        "chat_session", "chat_message", "orders", "favorite")) {
+                    statement.execute("SELECT setval(pg_get_serial_sequence('" + table.replace("'", "''")
+                            + "', 'id'), COALESCE((SELECT MAX(id) FROM " + table + "), 0) + 1, false)");
+                }
+                statement.execute("UPDATE product p SET favorite_count = f.cnt "
+                        + "FROM (SELECT product_id, COUNT(*) AS cnt FROM favorite GROUP BY product_id) f "
+                        + "WHERE p.id = f.product_id");
+                statement.execute("ANALYZE");
+            }
+        }
+    }
+
+    private void copyCategories(PGConnection pg) throws SQLException {
+        try (Copy copy = new Copy(pg, "category (id, name)")) {
+            for (int i = 0; i < CATEGORIES.size(); i++) {
+                copy.row(i + 1, CATEGORIES.get(i));
+            }
+        }
+    }
+
+    private void copyUsers(PGConnection pg, SplittableRandom random) throws SQLException {
+        // 所有用户共用一个哈希；强度取最低，登录本身不是压测对象
+        String passwordHash = new BCryptPasswordEncoder(4).encode(PASSWORD);
+        try (Copy users = new Copy(pg, "\"user\" (id, username, phone, password_hash, role, enabled, created_at, updated_at)")) {
+            for (long id = 1; id <= config.users; id++) {
+                String createdAt = time(random);
+                users.row(id, username(id), String.format("138%08d", id), passwordHash, "USER", "t", createdAt, createdAt);
+            }
+        }
+        try (Copy profiles = new Copy(pg, "user_profile (id, user_id, nickname, avatar_url, major, grade, campus, credit, bio, created_at, updated_at)")) {
+            for (long id = 1; id <= config.users; id++) {
+                String createdAt = time(random);
+                profiles.row(id, id, "同学" + id, "/uploads/loadtest/avatar_" + (id % 50) + ".jpg",
+                        pick(MAJORS, random), pick(GRADES, random), pick(CAMPUSES, random),
+                        600 + random.nextInt(200), null, createdAt, createdAt);
+            }
+        }
+    }
+
+    private void copyProducts(PGConnection pg, SplittableRandom random) throws SQLException {
+        int count = config.productCount();
+        priceCents = new long[count + 1];
+        try (Copy copy = new Copy(pg, "product (id, seller_id, title, description, category_id, price, original_price, "
+                + "status, location, view_count, created_at, updated_at)")) {
+            for (long id = 1; id <= count; id++) {
+                int category = random.nextInt(CATEGORIES.size());
+                String item = pick(ITEMS.get(category), random);
+                String condition = pick(CONDITIONS, random);
+                String location = pick(LOCATIONS, random);
+                long price = 100L * (5 + random.nextInt(995));
+                priceCents[(int) id] = price;
+                String status = isSold(id) ? "SOLD" : isDeleted(id) ? "DELETED" : "ON_SALE";
+                String createdAt = time(random);
+                copy.row(id, sellerOf(id), condition + item, item + "，" + condition + "，可在" + location + "自提。",
+                        category + 1, cents(price), cents(price * 2), status, location,
+                        random.nextInt(500), createdAt, createdAt);
+            }
+        }
+    }
+
+    private void copyImages(PGConnection pg) throws SQLException {
+        try (Copy copy = new Copy(pg, "product_image (id, product_id, url, sort_order)")) {
+            long imageId = 1;
+            for (long productId = 1; productId <= config.productCount(); productId++) {
+                for (int k = 0; k < config.imagesPerProduct; k++) {
+                    copy.row(imageId++, productId, "/uploads/loadtest/p" + productId + "_" + k + ".jpg", k);
+                }
+            }
+        }
+    }
+
+    /**
+     * 会话和消息分两遍写入（同一连接上不能同时进行两个 COPY），
+     * 消息内容和时间都由会话 id 推算，两遍得到的最后一条消息一致。
+     */
+    private void copyChats(PGConnection pg, SplittableRandom random) throws SQLException {
+        int products = config.productCount();
+        int stride = Math.max(1, products / Math.max(1, config.sessionsPerUser));
+        int messages = config.messagesPerSession;
+
+        long[] sessionStart = new long[config.users * config.sessionsPerUser + 1];
+        try (Copy copy = new Copy(pg, "chat_session (id, buyer_id, seller_id, product_id, last_message, last_time, created_at)")) {
+            long sessionId = 1;
+            for (long buyer = 1; buyer <= config.users; buyer++) {
+                for (int k = 0; k < config.sessionsPerUser; k++, sessionId++) {
+                    long productId = (buyer * 7919 + (long) k * stride) % products + 1;
+                    if (sellerOf(productId) == buyer) {
+                        productId = (productId - 1 + config.productsPerUser) % products + 1;
+                    }
+                    long start = random.nextInt(SPAN_SECONDS);
+                    sessionStart[(int) sessionId] = start;
+                    String lastMessage = messages > 0 ? message(sessionId, messages - 1) : null;
+                    String lastTime = messages > 0 ? messageTime(start, messages - 1) : null;
+                    copy.row(sessionId, buyer, sellerOf(productId), productId, lastMessage, lastTime, ts(start));
+                }
+            }
+        }
+        try (Copy copy = new Copy(pg, "chat_message (id, session_id, sender_id, type, content, is_read, created_at)")) {
+            long messageId = 1;
+            long sessionId = 1;
+            for (long buyer = 1; buyer <= config.users; buyer++) {
+                for (int k = 0; k < config.sessionsPerUser; k++, sessionId++) {
+                    long productId = (buyer * 7919 + (long) k * stride) % products + 1;
+                    if (sellerOf(productId) == buyer) {
+                        productId = (productId - 1 + config.productsPerUser) % products + 1;
+                    }
+                    long seller = sellerOf(productId);
+                    for (int m = 0; m < messages; m++) {
+                        // 最后两条保持未读，会话列表的未读数不为零
+                        copy.row(messageId++, sessionId, m % 2 == 0 ? buyer : seller, "TEXT", message(sessionId, m),
+                                m < messages - 2 ? "t" : "f", messageTime(sessionStart[(int) sessionId], m));
+                    }
+                }
+            }
+        }
+    }
+
+    private void copyOrders(PGConnection pg) throws SQLException {
+        try (Copy copy = new Copy(pg, "orders (id, buyer_id, seller_id, product_id, status, price_snapshot, meet_location, "
+                + "created_at, updated_at)")) {
+            long orderId = 1;
+            for (long productId = 10; productId <= config.productCount(); productId += 10) {
+                long seller = sellerOf(productId);
+                long buyer = seller % config.users + 1;
+                String createdAt = ts((productId * 104729) % SPAN_SECONDS);
+                copy.row(orderId++, buyer, seller, productId, "DONE", cents(priceCents[(int) productId]),
+                        LOCATIONS.get((int) (productId % LOCATIONS.size())), createdAt, createdAt);
+            }
+        }
+    }
+
+    private void copyFavorites(PGConnection pg, SplittableRandom random) throws SQLException {
+        int products = config.productCount();
+        int perUser = Math.min(config.favoritesPerUser, products);
+        try (Copy copy = new Copy(pg, "favorite (id, user_id, product_id, created_at)")) {
+            long favoriteId = 1;
+            for (long userId = 1; userId <= config.users; userId++) {
+                // 连续的一段商品 id，保证同一用户内不重复
+                int base = random.nextInt(products);
+                for (int k = 0; k < perUser; k++) {
+                    copy.row(favoriteId++, userId, (long) (base + k) % products + 1, time(random));
+                }
+            }
+        }
+    }
+
+    private long sellerOf(long productId) {
+        return (productId - 1) / config.productsPerUser + 1;
+    }
+
+    private static String message(long sessionId, int index) {
+        return PHRASES.get((int) ((sessionId * 31 + index) % PHRASES.size()));
+    }
+
+    private String messageTime(long sessionStart, int index) {
+        return ts(Math.min(SPAN_SECONDS - 1L, sessionStart + index * 120L));
+    }
+
+    private String time(SplittableRandom random) {
+        return ts(random.nextInt(SPAN_SECONDS));
+    }
+
+    private String ts(long offsetSeconds) {
+        return now.minusSeconds(SPAN_SECONDS - offsetSeconds).format(TS);
+    }
+
+    private static String cents(long cents) {
+        return cents / 100 + "." + String.format("%02d", cents % 100);
+    }
+
+    private static <T> T pick(List<T> values, SplittableRandom random) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private static void timed(String table, SqlAction action) throws SQLException {
+        long start = System.nanoTime();
+        action.run();
+        System.out.printf("  %-28s %6d ms%n", table, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @FunctionalInterface
+    private interface SqlAction {
+        void run() throws SQLException;
+    }
+
+    /**
+     * COPY 文本格式的写入器：列之间用制表符分隔，null 写作 \N，生成的文本中不含需要转义的字符。
+     */
+    private static final class Copy implements AutoCloseable {
+        private final CopyIn copyIn;
+        private final StringBuilder buffer = new StringBuilder(FLUSH_CHARS + 4096);
+
+        private Copy(PGConnection pg, String target) throws SQLException {
+            this.copyIn = pg.getCopyAPI().copyIn("COPY " + target + " FROM STDIN");
+        }
+
+        private void row(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    buffer.append('\t');
+                }
+                buffer.append(values[i] == null ? "\\N" : values[i]);
+            }
+            buffer.append('\n');
+            if (buffer.length() >= FLUSH_CHARS) {
+                flush();
+            }
+        }
+
+        private void flush() throws SQLException {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            buffer.setLength(0);
+        }
+
+        @Override
+        public void close() throws SQLException {
+            flush();
+            copyIn.endCopy();
+        }
+    }
+}
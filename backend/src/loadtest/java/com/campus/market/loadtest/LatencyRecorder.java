@@ -0,0 +1,146 @@
+package com.campus.market.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 按接口记录请求耗时。每个压测线程持有自己的实例，结束后再合并，记录时不需要加锁。
+ */
+final class LatencyRecorder {
+
+    private final Map<String, Samples> byEndpoint = new TreeMap<>();
+    private volatile boolean recording;
+
+    /**
+     * 预热结束后打开，之前的请求只执行不记录。
+     */
+    void startRecording() {
+        recording = true;
+    }
+
+    void record(String endpoint, long nanos, Outcome outcome) {
+        if (!recording) {
+            return;
+        }
+        Samples samples = byEndpoint.computeIfAbsent(endpoint, k -> new Samples());
+        if (outcome == Outcome.SHED) {
+            // 被限流的请求立即返回，不计入耗时与吞吐，单独计数
+            samples.shed++;
+            return;
+        }
+        samples.add(nanos);
+        if (outcome == Outcome.REJECTED) {
+            samples.rejected++;
+        } else if (outcome == Outcome.ERROR) {
+            samples.errors++;
+        }
+    }
+
+    /**
+     * 记录一次请求执行的 SQL 语句数（来自 X-Sql-Count 响应头）。
+     */
+    void recordSql(String endpoint, int statements) {
+        if (!recording) {
+            return;
+        }
+        Samples samples = byEndpoint.computeIfAbsent(endpoint, k -> new Samples());
+        samples.sqlRequests++;
+        samples.sqlStatements += statements;
+        samples.sqlMax = Math.max(samples.sqlMax, statements);
+    }
+
+    /**
+     * 各接口单次请求的最多 SQL 语句数，没有统计到的接口不在其中。
+     */
+    Map<String, Integer> maxSqlStatements() {
+        Map<String, Integer> result = new TreeMap<>();
+        byEndpoint.forEach((endpoint, samples) -> {
+            if (samples.sqlRequests > 0) {
+                result.put(endpoint, samples.sqlMax);
+            }
+        });
+        return result;
+    }
+
+    void mergeInto(LatencyRecorder target) {
+        byEndpoint.forEach((endpoint, samples) ->
+                target.byEndpoint.computeIfAbsent(endpoint, k -> new Samples()).addAll(samples));
+    }
+
+    /**
+     * 打印各接口的请求数、业务拒绝数、错误数、限流数、吞吐（次/秒）、耗时分位数（毫秒）和每次请求的 SQL 语句数。
+     */
+    void print(double seconds) {
+        System.out.printf("%-40s %8s %7s %6s %6s %9s %8s %8s %8s %8s %7s%n",
+                "endpoint", "count", "reject", "error", "shed", "req/s", "p50", "p99", "max", "sql avg", "sql max");
+        long total = 0;
+        for (Map.Entry<String, Samples> e : byEndpoint.entrySet()) {
+            Samples s = e.getValue();
+            long[] sorted = Arrays.copyOf(s.values, s.size);
+            Arrays.sort(sorted);
+            total += s.size;
+            System.out.printf("%-40s %8d %7d %6d %6d %9.1f %8.2f %8.2f %8.2f %8.1f %7d%n",
+                    e.getKey(), s.size, s.rejected, s.errors, s.shed, s.size / seconds,
+                    millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.99)),
+                    millis(sorted.length > 0 ? sorted[sorted.length - 1] : 0),
+                    s.sqlRequests > 0 ? (double) s.sqlStatements / s.sqlRequests : 0.0, s.sqlMax);
+        }
+        System.out.printf("%-40s %8d %7s %6s %6s %9.1f%n", "TOTAL", total, "", "", "", total / seconds);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    enum Outcome {
+        /** HTTP 2xx/304 且业务成功 */
+        OK,
+        /** 接口正常返回但业务失败（例如商品已被别人下单） */
+        REJECTED,
+        /** 非 2xx 状态码或请求异常 */
+        ERROR,
+        /** 被并发限流拒绝（503） */
+        SHED
+    }
+
+    private static final class Samples {
+        private long[] values = new long[1024];
+        private int size;
+        private long rejected;
+        private long errors;
+        private long shed;
+        private long sqlRequests;
+        private long sqlStatements;
+        private int sqlMax;
+
+        private void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private void addAll(Samples other) {
+            if (size + other.size > values.length) {
+                values = Arrays.copyOf(values, Math.max(values.length * 2, size + other.size));
+            }
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+            rejected += other.rejected;
+            errors += other.errors;
+            shed += other.shed;
+            sqlRequests += other.sqlRequests;
+            sqlStatements += other.sqlStatements;
+            sqlMax = Math.max(sqlMax, other.sqlMax);
+        }
+    }
+}
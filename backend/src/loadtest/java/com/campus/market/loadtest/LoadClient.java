@@ -0,0 +1,114 @@
+package com.campus.market.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一个模拟学生的 HTTP 客户端：携带自己的登录 token，把每次请求的耗时记到自己的 LatencyRecorder。
+ *
+ * endpoint 参数是统计用的接口名（路径变量写成 {id}），与实际请求的 path 分开传入。
+ */
+final class LoadClient {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private final String token;
+    private final LatencyRecorder recorder;
+
+    LoadClient(HttpClient http, String baseUrl, String token, LatencyRecorder recorder) {
+        this.http = http;
+        this.baseUrl = baseUrl;
+        this.token = token;
+        this.recorder = recorder;
+    }
+
+    /**
+     * 登录并返回 token，不计入统计。
+     */
+    static String login(HttpClient http, String baseUrl, String username, String password) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(
+                        Map.of("usernameOrPhone", username, "password", password))))
+                .build();
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        JsonNode body = MAPPER.readTree(response.body());
+        if (response.statusCode() != 200 || !body.path("success").asBoolean()) {
+            throw new IllegalStateException("登录失败: " + username + " -> " + response.body());
+        }
+        return body.path("data").path("token").asText();
+    }
+
+    JsonNode get(String endpoint, String path) {
+        return send(endpoint, HttpRequest.newBuilder(URI.create(baseUrl + path)).GET());
+    }
+
+    JsonNode post(String endpoint, String path, Object body) {
+        try {
+            String json = body == null ? "" : MAPPER.writeValueAsString(body);
+            return send(endpoint, HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(json)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 发送请求并返回响应中的 data 字段；业务失败、被限流或出错时返回 null。
+     */
+    private JsonNode send(String endpoint, HttpRequest.Builder builder) {
+        HttpRequest request = builder.timeout(TIMEOUT)
+                .header("Authorization", "Bearer " + token)
+                .build();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            long elapsed = System.nanoTime() - start;
+            int status = response.statusCode();
+            if (status == 304) {
+                recorder.record(endpoint, elapsed, LatencyRecorder.Outcome.OK);
+                return null;
+            }
+            if (status == 400) {
+                recorder.record(endpoint, elapsed, LatencyRecorder.Outcome.REJECTED);
+                return null;
+            }
+            if (status == 503) {
+                // 被限流拒绝：像真实客户端一样按 Retry-After 等待后再继续
+                recorder.record(endpoint, elapsed, LatencyRecorder.Outcome.SHED);
+                long retryAfter = response.headers().firstValueAsLong("Retry-After").orElse(0);
+                TimeUnit.SECONDS.sleep(retryAfter);
+                return null;
+            }
+            response.headers().firstValue("X-Sql-Count")
+                    .ifPresent(count -> recorder.recordSql(endpoint, Integer.parseInt(count)));
+            if (status / 100 != 2) {
+                recorder.record(endpoint, elapsed, LatencyRecorder.Outcome.ERROR);
+                return null;
+            }
+            JsonNode body = response.body().isEmpty() ? null : MAPPER.readTree(response.body());
+            boolean success = body != null && body.path("success").asBoolean();
+            recorder.record(endpoint, elapsed, success ? LatencyRecorder.Outcome.OK : LatencyRecorder.Outcome.REJECTED);
+            return success ? body.path("data") : null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            recorder.record(endpoint, System.nanoTime() - start, LatencyRecorder.Outcome.ERROR);
+            return null;
+        }
+    }
+}
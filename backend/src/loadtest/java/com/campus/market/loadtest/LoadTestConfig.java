@@ -0,0 +1,116 @@
+package com.campus.market.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 压测参数，全部来自系统属性（-Dloadtest.xxx），未设置时使用默认值。
+ *
+ * 通过 Maven 运行时 JVM 是单独启动的，系统属性要放进 loadtest.args：
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.args="-Dloadtest.users=5000 -Dloadtest.duration-seconds=120"
+ */
+final class LoadTestConfig {
+
+    /** 模拟用户数 */
+    final int users;
+    /** 每个用户发布的商品数 */
+    final int productsPerUser;
+    /** 每个商品的图片数 */
+    final int imagesPerProduct;
+    /** 每个用户作为买家的会话数 */
+    final int sessionsPerUser;
+    /** 每个会话的历史消息数 */
+    final int messagesPerSession;
+    /** 每个用户的收藏数 */
+    final int favoritesPerUser;
+    /** 随机数种子，相同参数下生成的数据完全一致 */
+    final long seed;
+
+    /** 并发的模拟学生数（每个一个线程，各自持有登录 token） */
+    final int concurrency;
+    /** 预热时长（秒），期间的请求不计入统计 */
+    final int warmupSeconds;
+    /** 计量时长（秒） */
+    final int durationSeconds;
+    /** 各场景的权重，按比例随机选择 */
+    final Map<Scenario, Integer> weights;
+
+    /** 是否检查压测期间各语句的执行计划，见 IndexUsageCheck */
+    final boolean indexCheck;
+    /** 行数低于该值的表不检查顺序扫描 */
+    final int indexCheckMinRows;
+    /** 顺序扫描预计返回的行数占全表比例低于该值时视为缺少索引 */
+    final double indexCheckMaxSelectivity;
+
+    /** 非空时连接这个已有的 PostgreSQL 库（需为空库），而不是启动嵌入式实例 */
+    final String jdbcUrl;
+    final String jdbcUser;
+    final String jdbcPassword;
+
+    /** 被测应用是否开启虚拟线程模式（spring.threads.virtual.enabled），需以 JDK 21 及以上运行 */
+    final boolean virtualThreads;
+
+    /** 被测应用是否开启自适应并发限流（market.concurrency-limit.enabled） */
+    final boolean concurrencyLimit;
+
+    /** 是否再准备一个同样数据的库作为只读副本，验证读写分离（见 market.datasource.replica-urls） */
+    final boolean replica;
+    /** 非空时以这个已有的空库作为副本，账号同 loadtest.jdbc-user；否则再启动一个嵌入式实例 */
+    final String replicaJdbcUrl;
+
+    private LoadTestConfig() {
+        users = intProp("users", 2000);
+        productsPerUser = intProp("products-per-user", 5);
+        imagesPerProduct = intProp("images-per-product", 3);
+        sessionsPerUser = intProp("sessions-per-user", 3);
+        messagesPerSession = intProp("messages-per-session", 20);
+        favoritesPerUser = intProp("favorites-per-user", 10);
+        seed = Long.getLong("loadtest.seed", 20240301L);
+
+        concurrency = intProp("concurrency", 32);
+        warmupSeconds = intProp("warmup-seconds", 15);
+        durationSeconds = intProp("duration-seconds", 60);
+        weights = new LinkedHashMap<>();
+        weights.put(Scenario.BROWSE, intProp("weight.browse", 40));
+        weights.put(Scenario.SEARCH, intProp("weight.search", 25));
+        weights.put(Scenario.DETAIL, intProp("weight.detail", 20));
+        weights.put(Scenario.CHAT, intProp("weight.chat", 10));
+        weights.put(Scenario.ORDER, intProp("weight.order", 5));
+
+        indexCheck = Boolean.parseBoolean(System.getProperty("loadtest.index-check", "true"));
+        indexCheckMinRows = intProp("index-check.min-rows", 1000);
+        indexCheckMaxSelectivity = Double.parseDouble(System.getProperty("loadtest.index-check.max-selectivity", "0.1"));
+
+        jdbcUrl = System.getProperty("loadtest.jdbc-url", "");
+        jdbcUser = System.getProperty("loadtest.jdbc-user", "postgres");
+        jdbcPassword = System.getProperty("loadtest.jdbc-password", "");
+
+        virtualThreads = Boolean.parseBoolean(System.getProperty("loadtest.virtual-threads", "false"));
+        concurrencyLimit = Boolean.parseBoolean(System.getProperty("loadtest.concurrency-limit", "true"));
+
+        replicaJdbcUrl = System.getProperty("loadtest.replica-jdbc-url", "");
+        replica = !replicaJdbcUrl.isBlank() || Boolean.parseBoolean(System.getProperty("loadtest.replica", "false"));
+    }
+
+    static LoadTestConfig fromSystemProperties() {
+        LoadTestConfig config = new LoadTestConfig();
+        if (config.users < 2) {
+            throw new IllegalArgumentException("loadtest.users 至少为 2");
+        }
+        if (config.virtualThreads && Runtime.version().feature() < 21) {
+            throw new IllegalArgumentException("loadtest.virtual-threads 需要以 JDK 21 及以上运行");
+        }
+        if (config.concurrency > config.users) {
+            throw new IllegalArgumentException("loadtest.concurrency 不能大于 loadtest.users");
+        }
+        return config;
+    }
+
+    int productCount() {
+        return users * productsPerUser;
+    }
+
+    private static int intProp(String name, int defaultValue) {
+        return Integer.getInteger("loadtest." + name, defaultValue);
+    }
+}
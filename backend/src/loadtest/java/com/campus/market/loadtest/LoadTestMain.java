@@ -0,0 +1,300 @@
+package com.campus.market.loadtest;
+
+import com.campus.market.CampusMarketApplication;
+import com.campus.market.monitor.IndexUsageCheck;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.postgresql.ds.PGSimpleDataSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 端到端压测入口：mvn -Ploadtest test-compile exec:exec
+ *
+ * 1. 启动嵌入式 PostgreSQL（或连接 loadtest.jdbc-url 指定的空库），执行应用的 Flyway 迁移脚本建表、建索引，
+ *    并执行 db/manual 下需由 DBA 执行的索引脚本；
+ * 2. 用 CampusDataGenerator 批量生成模拟校园数据；
+ * 3. 以随机端口启动 CampusMarketApplication，连接上面的库，并注册 IndexUsageCheck 检查各语句的执行计划；
+ *    loadtest.replica=true 时再准备一个同样数据的库作为只读副本，结束后报告主库与副本各自承担的事务数；
+ * 4. loadtest.concurrency 个模拟学生各自登录，按权重循环执行 Scenario，先预热再计量；
+ * 5. 输出每个接口的请求数、业务拒绝数、错误数、限流数、吞吐、p50/p99/max 耗时和每次请求的 SQL 语句数；
+ * 6. 对照 loadtest/sql-budget.properties 检查各接口单次请求的最多语句数，并报告缺少索引的顺序扫描，
+ *    任一检查未通过时以非零状态退出。
+ *
+ * 嵌入式 PostgreSQL 不能以 root 身份启动，在 root 环境下请改用 loadtest.jdbc-url 指向一个空库。
+ */
+public final class LoadTestMain {
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        List<EmbeddedPostgres> embedded = new ArrayList<>();
+        ConfigurableApplicationContext context = null;
+        boolean passed;
+        try {
+            Database primary = open(config, config.jdbcUrl, embedded);
+            System.out.println("数据库: " + primary.url);
+            Database replica = config.replica ? open(config, config.replicaJdbcUrl, embedded) : null;
+            if (replica != null) {
+                System.out.println("只读副本: " + replica.url);
+            }
+
+            System.out.printf("生成数据: %d 用户, %d 商品, %d 会话 x %d 消息, 每人 %d 收藏%n",
+                    config.users, config.productCount(), config.users * config.sessionsPerUser,
+                    config.messagesPerSession, config.favoritesPerUser);
+            long seedStart = System.nanoTime();
+            prepare(config, primary);
+            if (replica != null) {
+                // 同一随机种子生成的数据完全一致，副本与主库起点相同；压测中的写入只落在主库
+                prepare(config, replica);
+            }
+            System.out.printf("数据生成完成, 用时 %d ms%n", (System.nanoTime() - seedStart) / 1_000_000);
+
+            // 以命令行参数传入，优先级高于 application.yml
+            List<String> appArgs = new ArrayList<>(List.of(args));
+            appArgs.add("--spring.datasource.url=" + primary.url);
+            appArgs.add("--spring.datasource.username=" + primary.user);
+            appArgs.add("--spring.datasource.password=" + primary.password);
+            if (replica != null) {
+                appArgs.add("--market.datasource.replica-urls=" + replica.url);
+            }
+            appArgs.add("--spring.threads.virtual.enabled=" + config.virtualThreads);
+            appArgs.add("--market.concurrency-limit.enabled=" + config.concurrencyLimit);
+            appArgs.add("--server.port=0");
+            appArgs.add("--file.upload-dir=target/loadtest-uploads");
+            appArgs.add("--logging.level.root=WARN");
+            // 响应头返回每次请求的 SQL 语句数，用于报告和预算检查
+            appArgs.add("--market.sql-stats.dev-headers=true");
+            IndexUsageCheck indexUsageCheck = config.indexCheck
+                    ? new IndexUsageCheck(config.indexCheckMinRows, config.indexCheckMaxSelectivity, seqScanAllowlist())
+                    : null;
+            context = new SpringApplicationBuilder(CampusMarketApplication.class)
+                    .initializers(app -> {
+                        if (indexUsageCheck != null) {
+                            app.getBeanFactory().registerSingleton("indexUsageCheck", indexUsageCheck);
+                        }
+                    })
+                    .run(appArgs.toArray(new String[0]));
+            String port = context.getEnvironment().getProperty("local.server.port");
+            String baseUrl = "http://localhost:" + port;
+            System.out.println("应用已启动: " + baseUrl + (config.virtualThreads ? "（虚拟线程）" : "（平台线程）"));
+
+            long primaryBefore = transactions(primary);
+            long replicaBefore = replica != null ? transactions(replica) : 0;
+            LatencyRecorder total = run(config, baseUrl);
+            if (replica != null) {
+                System.out.printf("读写分离: 主库 %d 个事务, 副本 %d 个事务%n",
+                        transactions(primary) - primaryBefore, transactions(replica) - replicaBefore);
+            }
+            passed = checkSqlBudget(total);
+            if (indexUsageCheck != null) {
+                passed &= indexUsageCheck.report();
+            }
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+            for (EmbeddedPostgres postgres : embedded) {
+                postgres.close();
+            }
+        }
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    private static Properties seqScanAllowlist() throws IOException {
+        Properties allowlist = new Properties();
+        try (InputStream in = LoadTestMain.class.getResourceAsStream("/loadtest/seq-scan-allowlist.properties")) {
+            if (in != null) {
+                allowlist.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+            }
+        }
+        return allowlist;
+    }
+
+    /**
+     * 连接 jdbcUrl 指定的空库；为空时启动一个嵌入式 PostgreSQL，并加入 embedded 以便结束时关闭。
+     */
+    private static Database open(LoadTestConfig config, String jdbcUrl, List<EmbeddedPostgres> embedded)
+            throws IOException {
+        if (jdbcUrl.isBlank()) {
+            EmbeddedPostgres postgres = EmbeddedPostgres.builder()
+                    .setServerConfig("max_connections", "200")
+                    .start();
+            embedded.add(postgres);
+            return new Database(postgres.getJdbcUrl("postgres", "postgres"), "postgres", "",
+                    postgres.getPostgresDatabase());
+        }
+        PGSimpleDataSource external = new PGSimpleDataSource();
+        external.setUrl(jdbcUrl);
+        external.setUser(config.jdbcUser);
+        external.setPassword(config.jdbcPassword);
+        return new Database(jdbcUrl, config.jdbcUser, config.jdbcPassword, external);
+    }
+
+    private static void prepare(LoadTestConfig config, Database database) throws Exception {
+        Flyway.configure().dataSource(database.dataSource)
+                // 与 application.yml 一致：CONCURRENTLY 建索引不能与事务级迁移锁共存
+                .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+                .load().migrate();
+        // 生产环境由 DBA 单独执行的索引脚本，压测库同样需要，否则 IndexUsageCheck 会报告关键词搜索的顺序扫描
+        try (Connection connection = database.dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/manual/pg_trgm_title_index.sql"));
+        }
+        new CampusDataGenerator(config).generate(database.dataSource);
+    }
+
+    /**
+     * 库内累计提交与回滚的事务数，前后相减即压测期间落在该库的事务数。
+     */
+    private static long transactions(Database database) throws SQLException {
+        try (Connection connection = database.dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(
+                     "SELECT xact_commit + xact_rollback FROM pg_stat_database WHERE datname = current_database()")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private record Database(String url, String user, String password, DataSource dataSource) {
+    }
+
+    private static LatencyRecorder run(LoadTestConfig config, String baseUrl) throws Exception {
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        // 模拟学生均匀取自全部用户
+        List<LoadClient> clients = new ArrayList<>();
+        List<LatencyRecorder> recorders = new ArrayList<>();
+        List<Scenario.Student> students = new ArrayList<>();
+        SplittableRandom random = new SplittableRandom(config.seed);
+        int step = config.users / config.concurrency;
+        for (int i = 0; i < config.concurrency; i++) {
+            long userId = 1L + (long) i * step;
+            String token = LoadClient.login(http, baseUrl, CampusDataGenerator.username(userId), CampusDataGenerator.PASSWORD);
+            LatencyRecorder recorder = new LatencyRecorder();
+            recorders.add(recorder);
+            clients.add(new LoadClient(http, baseUrl, token, recorder));
+            students.add(new Scenario.Student(userId, config.productCount(), random.split()));
+        }
+
+        List<Scenario> pool = new ArrayList<>();
+        config.weights.forEach((scenario, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                pool.add(scenario);
+            }
+        });
+        if (pool.isEmpty()) {
+            throw new IllegalArgumentException("所有场景的权重都为 0");
+        }
+
+        System.out.printf("并发 %d, 预热 %d s, 计量 %d s, 场景权重 %s%n",
+                config.concurrency, config.warmupSeconds, config.durationSeconds, config.weights);
+        long measureStart = System.nanoTime() + TimeUnit.SECONDS.toNanos(config.warmupSeconds);
+        long deadline = measureStart + TimeUnit.SECONDS.toNanos(config.durationSeconds);
+
+        ExecutorService executor = Executors.newFixedThreadPool(config.concurrency + 1);
+        // 计量期过半时抓取一次运行指标，记录满载时的线程池 / 连接池占用
+        Future<String> saturation = executor.submit(() -> {
+            TimeUnit.NANOSECONDS.sleep(measureStart + (deadline - measureStart) / 2 - System.nanoTime());
+            return scrapeSaturation(http, baseUrl);
+        });
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < config.concurrency; i++) {
+            LoadClient client = clients.get(i);
+            LatencyRecorder recorder = recorders.get(i);
+            Scenario.Student student = students.get(i);
+            futures.add(executor.submit(() -> {
+                boolean recording = false;
+                long now;
+                while ((now = System.nanoTime()) < deadline) {
+                    if (!recording && now >= measureStart) {
+                        recorder.startRecording();
+                        recording = true;
+                    }
+                    pool.get(student.random.nextInt(pool.size())).run(client, student);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        LatencyRecorder total = new LatencyRecorder();
+        recorders.forEach(recorder -> recorder.mergeInto(total));
+        System.out.println();
+        total.print(config.durationSeconds);
+        System.out.println();
+        System.out.println("计量期中点的线程池 / 连接池快照:");
+        System.out.print(saturation.get());
+        return total;
+    }
+
+    private static String scrapeSaturation(HttpClient http, String baseUrl) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/system/metrics")).GET().build();
+        String body = http.send(request, HttpResponse.BodyHandlers.ofString()).body();
+        StringBuilder out = new StringBuilder();
+        body.lines()
+                .filter(line -> line.startsWith("tomcat_") || line.startsWith("jdbc_")
+                        || line.startsWith("executor_") || line.startsWith("http_server_requests_in_flight")
+                        || line.startsWith("http_concurrency_") || line.startsWith("http_requests_shed"))
+                .forEach(line -> out.append("  ").append(line).append('\n'));
+        return out.toString();
+    }
+
+    /**
+     * 预算文件中每行形如 GET\ /api/products/{id}=5，键为 Scenario 中的接口名（properties 格式，空格需转义）。
+     */
+    private static boolean checkSqlBudget(LatencyRecorder total) throws IOException {
+        Properties budget = new Properties();
+        try (InputStream in = LoadTestMain.class.getResourceAsStream("/loadtest/sql-budget.properties")) {
+            if (in == null) {
+                return true;
+            }
+            budget.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+        boolean ok = true;
+        for (Map.Entry<String, Integer> e : total.maxSqlStatements().entrySet()) {
+            String limit = budget.getProperty(e.getKey());
+            if (limit != null && e.getValue() > Integer.parseInt(limit.trim())) {
+                System.out.printf("超出 SQL 预算: %s 单次请求最多 %d 条语句, 预算 %s%n", e.getKey(), e.getValue(), limit.trim());
+                ok = false;
+            }
+        }
+        System.out.println(ok ? "SQL 预算检查通过" : "SQL 预算检查未通过");
+        return ok;
+    }
+}
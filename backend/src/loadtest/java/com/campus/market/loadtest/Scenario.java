@@ -0,0 +1,113 @@
+package com.campus.market.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * 压测场景。每次迭代由模拟学生按权重挑一个场景执行，一个场景包含前端一次典型操作会发出的几个请求。
+ */
+enum Scenario {
+
+    /** 逛首页和列表翻页 */
+    BROWSE {
+        @Override
+        void run(LoadClient client, Student student) {
+            client.get("GET /api/home", "/api/home");
+            String sort = student.random.nextInt(4) == 0 ? "popular" : "latest";
+            int pages = 1 + student.random.nextInt(3);
+            for (int page = 0; page < pages; page++) {
+                client.get("GET /api/products?sort=" + sort, "/api/products?sort=" + sort + "&page=" + page + "&size=20");
+            }
+        }
+    },
+
+    /** 关键词搜索，部分请求带分类和价格筛选 */
+    SEARCH {
+        @Override
+        void run(LoadClient client, Student student) {
+            String keyword = student.pick(CampusDataGenerator.keywords());
+            StringBuilder query = new StringBuilder("/api/products?size=20&keyword=")
+                    .append(URLEncoder.encode(keyword, StandardCharsets.UTF_8));
+            String endpoint = "GET /api/products?keyword";
+            if (student.random.nextBoolean()) {
+                query.append("&categoryId=").append(1 + student.random.nextInt(CampusDataGenerator.categoryCount()))
+                        .append("&maxPrice=").append(50 + student.random.nextInt(500));
+                endpoint = "GET /api/products?keyword+filters";
+            }
+            client.get(endpoint, query.toString());
+        }
+    },
+
+    /** 打开商品详情并上报浏览 */
+    DETAIL {
+        @Override
+        void run(LoadClient client, Student student) {
+            long productId = student.onSaleProduct();
+            client.get("GET /api/products/{id}", "/api/products/" + productId);
+            client.post("POST /api/products/{id}/view", "/api/products/" + productId + "/view", null);
+        }
+    },
+
+    /** 查看会话列表，打开一个会话并回复一条消息 */
+    CHAT {
+        @Override
+        void run(LoadClient client, Student student) {
+            JsonNode sessions = client.get("GET /api/chats", "/api/chats");
+            if (sessions == null || !sessions.isArray() || sessions.isEmpty()) {
+                return;
+            }
+            long sessionId = sessions.get(student.random.nextInt(sessions.size())).path("id").asLong();
+            client.get("GET /api/chats/{id}/messages", "/api/chats/" + sessionId + "/messages");
+            client.post("POST /api/chats/{id}/messages", "/api/chats/" + sessionId + "/messages",
+                    Map.of("type", "TEXT", "content", "压测消息 " + student.random.nextInt(1_000_000)));
+        }
+    },
+
+    /** 下单并查看自己的订单；商品已被别人下单时记为业务拒绝 */
+    ORDER {
+        @Override
+        void run(LoadClient client, Student student) {
+            long productId = student.onSaleProduct();
+            client.post("POST /api/orders", "/api/orders", Map.of("productId", productId));
+            client.get("GET /api/orders/me", "/api/orders/me");
+        }
+    };
+
+    abstract void run(LoadClient client, Student student);
+
+    /**
+     * 一个模拟学生的状态，只由所属线程访问。
+     */
+    static final class Student {
+        final long userId;
+        final SplittableRandom random;
+        private final int productCount;
+
+        Student(long userId, int productCount, SplittableRandom random) {
+            this.userId = userId;
+            this.productCount = productCount;
+            this.random = random;
+        }
+
+        <T> T pick(List<T> values) {
+            return values.get(random.nextInt(values.size()));
+        }
+
+        /**
+         * 随机取一个初始状态为在售的商品（压测过程中可能已被下单）。
+         */
+        long onSaleProduct() {
+            while (true) {
+                long id = 1 + random.nextInt(productCount);
+                if (CampusDataGenerator.isOnSale(id)) {
+                    return id;
+                }
+            }
+        }
+    }
+}
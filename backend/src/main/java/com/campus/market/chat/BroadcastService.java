@@ -0,0 +1,201 @@
+package com.campus.market.chat;
+
+import com.campus.market.chat.dto.BroadcastNotificationRequest;
+import com.campus.market.chat.dto.BroadcastStatusDto;
+import com.campus.market.common.exception.BusinessException;
+import com.campus.market.user.UserProfileRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 系统通知广播服务。
+ *
+ * 广播在后台单线程执行：按 user_id 升序分页（keyset）扫描符合条件的用户，每页在一个事务内执行三条集合式 SQL
+ * （INSERT ... SELECT 补建系统会话、INSERT ... SELECT 写入消息、UPDATE ... FROM 更新会话最后一条消息），
+ * 页与页之间暂停一小段时间，避免长时间占满数据库。进度保存在内存中，可按任务 id 查询。
+ */
+@Service
+public class BroadcastService {
+
+    private static final Logger log = LoggerFactory.getLogger(BroadcastService.class);
+
+    private static final Long SYSTEM_USER_ID = 0L;
+    private static final int MAX_CONTENT_LENGTH = 2000;
+    /** chat_session.last_message 列长度 */
+    private static final int LAST_MESSAGE_MAX_LENGTH = 200;
+    /** 内存中保留的最近任务数 */
+    private static final int RETAINED_JOBS = 20;
+
+    private final UserProfileRepository userProfileRepository;
+    private final ChatSessionRepository chatSessionRepository;
+    private final ChatMessageRepository chatMessageRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor broadcastExecutor;
+    private final int pageSize;
+    private final long pageDelayMs;
+
+    private final Map<String, Job> jobs = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Job> eldest) {
+            return size() > RETAINED_JOBS;
+        }
+    });
+
+    public BroadcastService(UserProfileRepository userProfileRepository,
+                            ChatSessionRepository chatSessionRepository,
+                            ChatMessageRepository chatMessageRepository,
+                            TransactionTemplate transactionTemplate,
+                            @Qualifier("broadcastExecutor") Executor broadcastExecutor,
+                            @Value("${market.broadcast.page-size:1000}") int pageSize,
+                            @Value("${market.broadcast.page-delay-ms:200}") long pageDelayMs) {
+        this.userProfileRepository = userProfileRepository;
+        this.chatSessionRepository = chatSessionRepository;
+        this.chatMessageRepository = chatMessageRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.broadcastExecutor = broadcastExecutor;
+        this.pageSize = pageSize;
+        this.pageDelayMs = pageDelayMs;
+    }
+
+    /**
+     * 提交一次广播，立即返回任务进度；实际发送在后台进行。
+     */
+    public BroadcastStatusDto start(BroadcastNotificationRequest request) {
+        if (request == null || request.getContent() == null || request.getContent().isBlank()) {
+            throw new BusinessException("内容不能为空");
+        }
+        if (request.getContent().length() > MAX_CONTENT_LENGTH) {
+            throw new BusinessException("内容过长");
+        }
+        String campus = normalize(request.getCampus());
+        String grade = normalize(request.getGrade());
+
+        Job job = new Job(UUID.randomUUID().toString(), request.getContent(), campus, grade);
+        job.total = userProfileRepository.countByCampusAndGrade(campus, grade);
+        jobs.put(job.id, job);
+        try {
+            broadcastExecutor.execute(() -> run(job));
+        } catch (TaskRejectedException ex) {
+            jobs.remove(job.id);
+            throw new BusinessException("广播任务排队已满，请稍后再试");
+        }
+        return job.toDto();
+    }
+
+    public BroadcastStatusDto getStatus(String id) {
+        Job job = jobs.get(id);
+        if (job == null) {
+            throw new BusinessException("广播任务不存在");
+        }
+        return job.toDto();
+    }
+
+    private void run(Job job) {
+        job.status = "RUNNING";
+        job.startedAt = LocalDateTime.now();
+        String lastMessage = job.content.length() > LAST_MESSAGE_MAX_LENGTH
+                ? job.content.substring(0, LAST_MESSAGE_MAX_LENGTH) : job.content;
+        long after = 0L;
+        try {
+            while (true) {
+                List<Long> userIds = userProfileRepository.findUserIdsAfter(after, job.campus, job.grade, pageSize);
+                if (userIds.isEmpty()) {
+                    break;
+                }
+                long from = after;
+                long to = userIds.get(userIds.size() - 1);
+                Integer sent = transactionTemplate.execute(status -> writePage(job, from, to, lastMessage));
+                job.processed.addAndGet(userIds.size());
+                job.sent.addAndGet(sent != null ? sent : 0);
+                after = to;
+                if (userIds.size() < pageSize) {
+                    break;
+                }
+                if (pageDelayMs > 0) {
+                    Thread.sleep(pageDelayMs);
+                }
+            }
+            job.status = "COMPLETED";
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            job.error = "任务被中断";
+            job.status = "FAILED";
+        } catch (RuntimeException ex) {
+            log.warn("广播任务 {} 失败，已发送 {} 条", job.id, job.sent.get(), ex);
+            job.error = ex.getMessage();
+            job.status = "FAILED";
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+        }
+    }
+
+    private int writePage(Job job, long fromUserId, long toUserId, String lastMessage) {
+        LocalDateTime now = LocalDateTime.now();
+        chatSessionRepository.insertMissingSystemSessionsForRange(fromUserId, toUserId, job.campus, job.grade,
+                SYSTEM_USER_ID, now);
+        int sent = chatMessageRepository.insertSystemMessageForRange(fromUserId, toUserId, job.campus, job.grade,
+                SYSTEM_USER_ID, job.content, now);
+        chatSessionRepository.updateLastMessageForRange(fromUserId, toUserId, job.campus, job.grade,
+                SYSTEM_USER_ID, lastMessage, now);
+        return sent;
+    }
+
+    private static String normalize(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim();
+    }
+
+    private static final class Job {
+        private final String id;
+        private final String content;
+        private final String campus;
+        private final String grade;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong sent = new AtomicLong();
+        private volatile long total;
+        private volatile String status = "QUEUED";
+        private volatile String error;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+
+        private Job(String id, String content, String campus, String grade) {
+            this.id = id;
+            this.content = content;
+            this.campus = campus;
+            this.grade = grade;
+        }
+
+        private BroadcastStatusDto toDto() {
+            BroadcastStatusDto dto = new BroadcastStatusDto();
+            dto.setId(id);
+            dto.setStatus(status);
+            dto.setCampus(campus);
+            dto.setGrade(grade);
+            dto.setTotal(total);
+            dto.setProcessed(processed.get());
+            dto.setSent(sent.get());
+            dto.setError(error);
+            dto.setCreatedAt(createdAt);
+            dto.setStartedAt(startedAt);
+            dto.setFinishedAt(finishedAt);
+            return dto;
+        }
+    }
+}
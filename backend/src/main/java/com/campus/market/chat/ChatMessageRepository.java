@@ -1,11 +1,18 @@
 package com.campus.market.chat;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Mapper
@@ -25,6 +32,28 @@ public interface ChatMessageRepository extends BaseMapper<ChatMessage> {
         return selectList(wrapper);
     }
 
+    /**
+     * 一组会话中对方发来的未读消息数（按会话分组），没有未读消息的会话不在结果中。
+     */
+    default Map<Long, Long> countUnreadGroupBySessionId(Collection<Long> sessionIds, Long readerId) {
+        if (sessionIds == null || sessionIds.isEmpty()) {
+            return Map.of();
+        }
+        QueryWrapper<ChatMessage> wrapper = new QueryWrapper<>();
+        wrapper.select("session_id", "COUNT(*) AS cnt")
+                .in("session_id", sessionIds)
+                .eq("is_read", false);
+        if (readerId != null) {
+            wrapper.ne("sender_id", readerId);
+        }
+        wrapper.groupBy("session_id");
+        Map<Long, Long> counts = new HashMap<>();
+        for (Map<String, Object> row : selectMaps(wrapper)) {
+            counts.put(((Number) row.get("session_id")).longValue(), ((Number) row.get("cnt")).longValue());
+        }
+        return counts;
+    }
+
     default long countBySessionIdAndSenderIdNotAndReadFalse(Long sessionId, Long senderId) {
         if (sessionId == null) {
             return 0L;
@@ -38,6 +67,39 @@ public interface ChatMessageRepository extends BaseMapper<ChatMessage> {
         return selectCount(wrapper);
     }
 
+    /**
+     * 把会话中对方发来的未读消息一次性标记为已读。
+     *
+     * @return 被标记的消息数
+     */
+    default int markReadBySessionId(Long sessionId, Long readerId) {
+        if (sessionId == null || readerId == null) {
+            return 0;
+        }
+        LambdaUpdateWrapper<ChatMessage> wrapper = Wrappers.lambdaUpdate(ChatMessage.class)
+                .set(ChatMessage::getRead, true)
+                .eq(ChatMessage::getSessionId, sessionId)
+                .eq(ChatMessage::getRead, false)
+                .ne(ChatMessage::getSenderId, readerId);
+        return update(null, wrapper);
+    }
+
+    /**
+     * 多行插入消息，定义见 mapper/chat/ChatMessageRepository.xml。
+     */
+    int insertBatch(@Param("messages") List<ChatMessage> messages);
+
+    /**
+     * 向 user_id 落在 (fromUserId, toUserId] 且符合筛选条件的用户的系统会话各插入一条消息（INSERT ... SELECT）。
+     */
+    int insertSystemMessageForRange(@Param("fromUserId") Long fromUserId,
+                                    @Param("toUserId") Long toUserId,
+                                    @Param("campus") String campus,
+                                    @Param("grade") String grade,
+                                    @Param("systemUserId") Long systemUserId,
+                                    @Param("content") String content,
+                                    @Param("now") LocalDateTime now);
+
     default int update(ChatMessage message) {
         return updateById(message);
     }
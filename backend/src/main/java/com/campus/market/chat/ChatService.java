@@ -16,7 +16,10 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
@@ -33,6 +36,11 @@ import java.util.stream.Collectors;
 @Transactional
 public class ChatService {
 
+    /** 批量系统消息每条 SQL 覆盖的用户数 */
+    private static final int SYSTEM_MESSAGE_BATCH_SIZE = 500;
+    /** chat_session.last_message 列长度 */
+    private static final int LAST_MESSAGE_MAX_LENGTH = 200;
+
     private final ChatSessionRepository chatSessionRepository;
     private final ChatMessageRepository chatMessageRepository;
     private final UserProfileRepository userProfileRepository;
@@ -54,10 +62,13 @@ public class ChatService {
     @Transactional(readOnly = true)
     public List<ChatSessionDto> listSessions(Long userId) {
         List<ChatSession> sessions = chatSessionRepository.findByBuyerIdOrSellerIdOrderByLastTimeDesc(userId, userId);
-        return sessions.stream().map(session -> toSessionDto(session, userId)).collect(Collectors.toList());
+        return toSessionDtos(sessions, userId);
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * 会话消息列表，同时把对方发来的消息标记为已读，因此是读写事务（走主库）。
+     */
+    @Transactional
     public List<ChatMessageDto> listMessages(Long sessionId, Long userId) {
         ChatSession session = chatSessionRepository.findById(sessionId)
                 .orElseThrow(() -> new BusinessException("会话不存在"));
@@ -67,13 +78,15 @@ public class ChatService {
 
         List<ChatMessage> messages = chatMessageRepository.findBySessionIdOrderByCreatedAtAsc(sessionId);
 
-        // 将对方发送的消息标记为已读
-        messages.stream()
-                .filter(m -> !Objects.equals(m.getSenderId(), userId) && !Boolean.TRUE.equals(m.getRead()))
-                .forEach(m -> {
-                    m.setRead(true);
-                    chatMessageRepository.update(m);
-                });
+        // 将对方发送的消息标记为已读：一条 UPDATE，返回结果同步改为已读
+        boolean hasUnread = messages.stream()
+                .anyMatch(m -> !Objects.equals(m.getSenderId(), userId) && !Boolean.TRUE.equals(m.getRead()));
+        if (hasUnread) {
+            chatMessageRepository.markReadBySessionId(sessionId, userId);
+            messages.stream()
+                    .filter(m -> !Objects.equals(m.getSenderId(), userId))
+                    .forEach(m -> m.setRead(true));
+        }
 
         return messages.stream().map(this::toMessageDto).collect(Collectors.toList());
     }
@@ -128,7 +141,7 @@ public class ChatService {
             session = s;
         }
 
-        return toSessionDto(session, userId);
+        return toSessionDtos(List.of(session), userId).get(0);
     }
 
     public void sendOrderEventMessage(Long buyerId, Long sellerId, Long productId, Long senderId, String content) {
@@ -283,44 +296,126 @@ public class ChatService {
         return toMessageDto(message);
     }
 
-    private ChatSessionDto toSessionDto(ChatSession session, Long currentUserId) {
-        ChatSessionDto dto = new ChatSessionDto();
-        dto.setId(session.getId());
-        dto.setProductId(session.getProductId());
-        dto.setLastMessage(session.getLastMessage());
-        dto.setLastTime(session.getLastTime());
-
-        Long partnerId = Objects.equals(session.getBuyerId(), currentUserId)
-                ? session.getSellerId()
-                : session.getBuyerId();
-        dto.setPartnerId(partnerId);
-
-        UserProfile profile = userProfileRepository.findByUserId(partnerId).orElse(null);
-        if (profile != null) {
-            dto.setPartnerName(profile.getNickname());
-            dto.setPartnerAvatar(profile.getAvatarUrl());
-        } else if (Objects.equals(partnerId, 0L)) {
-            // 系统通知会话：没有真实用户资料时，统一使用固定的系统名称和头像
-            dto.setPartnerName("系统通知");
-            dto.setPartnerAvatar("https://api.dicebear.com/7.x/bottts/svg?seed=system-notice");
+    /**
+     * 批量发送系统消息：userId -> 消息内容。
+     *
+     * 与逐个调用 sendSystemMessageToUser 不同，每批用户只执行固定几条 SQL：
+     * 补建缺失的系统会话、查出会话 id、多行插入消息、批量更新会话的最后一条消息。
+     * 不校验用户是否存在，调用方应传入来自业务表（如收藏表）的有效用户。
+     *
+     * @return 实际写入的消息数
+     */
+    public int sendSystemMessages(Map<Long, String> contentByUser) {
+        if (contentByUser == null || contentByUser.isEmpty()) {
+            return 0;
         }
+        Long systemUserId = 0L;
+        List<Long> userIds = contentByUser.entrySet().stream()
+                .filter(e -> e.getKey() != null && e.getValue() != null && !e.getValue().isBlank())
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+
+        int sent = 0;
+        for (int from = 0; from < userIds.size(); from += SYSTEM_MESSAGE_BATCH_SIZE) {
+            List<Long> batch = userIds.subList(from, Math.min(from + SYSTEM_MESSAGE_BATCH_SIZE, userIds.size()));
+            LocalDateTime now = LocalDateTime.now();
+
+            chatSessionRepository.insertMissingSystemSessions(batch, systemUserId, now);
+            Map<Long, ChatSession> sessionByUser = new HashMap<>();
+            for (ChatSession session : chatSessionRepository.findByBuyerIdInAndSellerIdAndProductIdIsNull(batch, systemUserId)) {
+                // 历史数据里同一用户可能有多个系统会话，统一写入 id 最小的那个
+                sessionByUser.merge(session.getBuyerId(), session,
+                        (a, b) -> a.getId() <= b.getId() ? a : b);
+            }
 
-        long unread = chatMessageRepository.countBySessionIdAndSenderIdNotAndReadFalse(session.getId(), currentUserId);
-        dto.setUnreadCount(unread);
+            List<ChatMessage> messages = new ArrayList<>(batch.size());
+            List<ChatSession> touched = new ArrayList<>(batch.size());
+            for (Long userId : batch) {
+                ChatSession session = sessionByUser.get(userId);
+                if (session == null) {
+                    continue;
+                }
+                String content = contentByUser.get(userId);
+                ChatMessage message = new ChatMessage();
+                message.setSessionId(session.getId());
+                message.setSenderId(systemUserId);
+                message.setType("TEXT");
+                message.setContent(content);
+                message.setCreatedAt(now);
+                messages.add(message);
+
+                session.setLastMessage(content.length() > LAST_MESSAGE_MAX_LENGTH
+                        ? content.substring(0, LAST_MESSAGE_MAX_LENGTH) : content);
+                session.setLastTime(now);
+                touched.add(session);
+            }
+            if (!messages.isEmpty()) {
+                chatMessageRepository.insertBatch(messages);
+                chatSessionRepository.updateLastMessages(touched);
+                sent += messages.size();
+            }
+        }
+        return sent;
+    }
 
+    /**
+     * 批量转换会话：对方资料、未读数、商品摘要各用一条 IN 查询取回，而不是每个会话各查一遍。
+     */
+    private List<ChatSessionDto> toSessionDtos(List<ChatSession> sessions, Long currentUserId) {
+        if (sessions.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> sessionIds = sessions.stream().map(ChatSession::getId).collect(Collectors.toList());
+        List<Long> partnerIds = sessions.stream().map(session -> partnerOf(session, currentUserId))
+                .filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        List<Long> productIds = sessions.stream().map(ChatSession::getProductId)
+                .filter(Objects::nonNull).distinct().collect(Collectors.toList());
+
+        Map<Long, UserProfile> profiles = userProfileRepository.findByUserIdIn(partnerIds).stream()
+                .collect(Collectors.toMap(UserProfile::getUserId, profile -> profile, (a, b) -> a));
+        Map<Long, Long> unreadCounts = chatMessageRepository.countUnreadGroupBySessionId(sessionIds, currentUserId);
         // 通过 productRepository 和 productService 填充商品相关摘要信息
-        if (session.getProductId() != null) {
-            Product product = productRepository.findById(session.getProductId()).orElse(null);
+        Map<Long, ProductListItemDto> products = productService.toListItemDtos(productRepository.findAllById(productIds))
+                .stream().collect(Collectors.toMap(ProductListItemDto::getId, dto -> dto));
+
+        List<ChatSessionDto> dtoList = new ArrayList<>(sessions.size());
+        for (ChatSession session : sessions) {
+            ChatSessionDto dto = new ChatSessionDto();
+            dto.setId(session.getId());
+            dto.setProductId(session.getProductId());
+            dto.setLastMessage(session.getLastMessage());
+            dto.setLastTime(session.getLastTime());
+
+            Long partnerId = partnerOf(session, currentUserId);
+            dto.setPartnerId(partnerId);
+
+            UserProfile profile = partnerId != null ? profiles.get(partnerId) : null;
+            if (profile != null) {
+                dto.setPartnerName(profile.getNickname());
+                dto.setPartnerAvatar(profile.getAvatarUrl());
+            } else if (Objects.equals(partnerId, 0L)) {
+                // 系统通知会话：没有真实用户资料时，统一使用固定的系统名称和头像
+                dto.setPartnerName("系统通知");
+                dto.setPartnerAvatar("https://api.dicebear.com/7.x/bottts/svg?seed=system-notice");
+            }
+
+            dto.setUnreadCount(unreadCounts.getOrDefault(session.getId(), 0L));
+
+            ProductListItemDto product = session.getProductId() != null ? products.get(session.getProductId()) : null;
             if (product != null) {
                 dto.setProductTitle(product.getTitle());
-
-                ProductListItemDto productListItemDto = productService.toListItemDto(product);
-                dto.setProductThumbnail(productListItemDto.getThumbnail());
-                dto.setProductPrice(productListItemDto.getPrice());
+                dto.setProductThumbnail(product.getThumbnail());
+                dto.setProductPrice(product.getPrice());
             }
+            dtoList.add(dto);
         }
+        return dtoList;
+    }
 
-        return dto;
+    private static Long partnerOf(ChatSession session, Long currentUserId) {
+        return Objects.equals(session.getBuyerId(), currentUserId)
+                ? session.getSellerId()
+                : session.getBuyerId();
     }
 
     private ChatMessageDto toMessageDto(ChatMessage message) {
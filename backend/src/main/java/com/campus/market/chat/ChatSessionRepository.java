@@ -4,7 +4,10 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -55,6 +58,50 @@ public interface ChatSessionRepository extends BaseMapper<ChatSession> {
         return Optional.ofNullable(selectOne(wrapper));
     }
 
+    default List<ChatSession> findByBuyerIdInAndSellerIdAndProductIdIsNull(Collection<Long> buyerIds, Long sellerId) {
+        if (buyerIds == null || buyerIds.isEmpty() || sellerId == null) {
+            return List.of();
+        }
+        LambdaQueryWrapper<ChatSession> wrapper = Wrappers.lambdaQuery(ChatSession.class)
+                .in(ChatSession::getBuyerId, buyerIds)
+                .eq(ChatSession::getSellerId, sellerId)
+                .isNull(ChatSession::getProductId);
+        return selectList(wrapper);
+    }
+
+    /**
+     * 为尚无系统会话的用户批量建会话，定义见 mapper/chat/ChatSessionRepository.xml。
+     */
+    int insertMissingSystemSessions(@Param("userIds") Collection<Long> userIds,
+                                    @Param("systemUserId") Long systemUserId,
+                                    @Param("now") LocalDateTime now);
+
+    /**
+     * 批量更新会话的 last_message / last_time，只使用实体的 id、lastMessage、lastTime。
+     */
+    int updateLastMessages(@Param("sessions") List<ChatSession> sessions);
+
+    /**
+     * 为 user_id 落在 (fromUserId, toUserId] 且符合校区 / 年级筛选、尚无系统会话的用户补建会话。
+     */
+    int insertMissingSystemSessionsForRange(@Param("fromUserId") Long fromUserId,
+                                            @Param("toUserId") Long toUserId,
+                                            @Param("campus") String campus,
+                                            @Param("grade") String grade,
+                                            @Param("systemUserId") Long systemUserId,
+                                            @Param("now") LocalDateTime now);
+
+    /**
+     * 更新同一范围内用户系统会话的 last_message / last_time。
+     */
+    int updateLastMessageForRange(@Param("fromUserId") Long fromUserId,
+                                  @Param("toUserId") Long toUserId,
+                                  @Param("campus") String campus,
+                                  @Param("grade") String grade,
+                                  @Param("systemUserId") Long systemUserId,
+                                  @Param("lastMessage") String lastMessage,
+                                  @Param("now") LocalDateTime now);
+
     default int update(ChatSession session) {
         return updateById(session);
     }
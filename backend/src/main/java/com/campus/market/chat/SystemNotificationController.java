@@ -1,9 +1,13 @@
 package com.campus.market.chat;
 
+import com.campus.market.chat.dto.BroadcastNotificationRequest;
+import com.campus.market.chat.dto.BroadcastStatusDto;
 import com.campus.market.chat.dto.ChatMessageDto;
 import com.campus.market.chat.dto.SystemNotificationRequest;
 import com.campus.market.common.api.ApiResponse;
 import com.campus.market.common.exception.BusinessException;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -14,9 +18,11 @@ import org.springframework.web.bind.annotation.RestController;
 public class SystemNotificationController {
 
     private final ChatService chatService;
+    private final BroadcastService broadcastService;
 
-    public SystemNotificationController(ChatService chatService) {
+    public SystemNotificationController(ChatService chatService, BroadcastService broadcastService) {
         this.chatService = chatService;
+        this.broadcastService = broadcastService;
     }
 
     @PostMapping("/notifications")
@@ -29,4 +35,17 @@ public class SystemNotificationController {
         }
         return ApiResponse.ok(chatService.sendSystemMessageToUser(request.getUserId(), request.getContent()));
     }
+
+    /**
+     * 向全部用户（或按校区 / 年级筛选的用户）广播系统通知，仅管理员可用；后台执行，返回任务进度。
+     */
+    @PostMapping("/notifications/broadcast")
+    public ApiResponse<BroadcastStatusDto> broadcast(@RequestBody BroadcastNotificationRequest request) {
+        return ApiResponse.ok(broadcastService.start(request));
+    }
+
+    @GetMapping("/notifications/broadcast/{id}")
+    public ApiResponse<BroadcastStatusDto> broadcastStatus(@PathVariable String id) {
+        return ApiResponse.ok(broadcastService.getStatus(id));
+    }
 }
@@ -0,0 +1,18 @@
+package com.campus.market.chat.dto;
+
+import lombok.Data;
+
+/**
+ * 广播系统通知请求体。
+ *
+ * content 为通知内容；campus / grade 为可选筛选条件（对应用户资料中的校区、年级），都为空时发送给全部用户。
+ */
+@Data
+public class BroadcastNotificationRequest {
+
+    private String content;
+
+    private String campus;
+
+    private String grade;
+}
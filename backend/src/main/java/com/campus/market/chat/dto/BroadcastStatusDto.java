@@ -0,0 +1,27 @@
+package com.campus.market.chat.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 广播任务进度。
+ *
+ * status 取值：QUEUED / RUNNING / COMPLETED / FAILED；total 为开始时符合条件的用户数（估计值），
+ * processed 为已扫描的用户数，sent 为实际写入的消息数。
+ */
+@Data
+public class BroadcastStatusDto {
+
+    private String id;
+    private String status;
+    private String campus;
+    private String grade;
+    private long total;
+    private long processed;
+    private long sent;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
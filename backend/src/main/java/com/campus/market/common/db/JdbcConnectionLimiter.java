@@ -0,0 +1,95 @@
+package com.campus.market.common.db;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 连接池前的信号量：同时持有连接的线程数不超过 permits，其余按到达顺序排队，超过 timeoutMillis 仍拿不到许可则失败。
+ *
+ * 虚拟线程模式下请求线程不再受 Tomcat 线程池约束，成千上万个请求会同时挤向连接池；在这里公平排队，
+ * 等待上限和排队人数都可控、可观测。许可在连接关闭时归还。
+ */
+public class JdbcConnectionLimiter extends DelegatingDataSource {
+
+    private final int permits;
+    private final long timeoutMillis;
+    private final Semaphore semaphore;
+
+    public JdbcConnectionLimiter(DataSource target, int permits, long timeoutMillis) {
+        super(target);
+        this.permits = permits;
+        this.timeoutMillis = timeoutMillis;
+        this.semaphore = new Semaphore(permits, true);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return releaseOnClose(obtainTargetDataSource().getConnection());
+        } catch (SQLException | RuntimeException ex) {
+            semaphore.release();
+            throw ex;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return releaseOnClose(obtainTargetDataSource().getConnection(username, password));
+        } catch (SQLException | RuntimeException ex) {
+            semaphore.release();
+            throw ex;
+        }
+    }
+
+    public int permits() {
+        return permits;
+    }
+
+    public int available() {
+        return semaphore.availablePermits();
+    }
+
+    public int waiting() {
+        return semaphore.getQueueLength();
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!semaphore.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(
+                        "等待数据库连接超时（" + timeoutMillis + " ms，排队 " + waiting() + "）");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("等待数据库连接时被中断", ex);
+        }
+    }
+
+    private Connection releaseOnClose(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getTargetException();
+                    } finally {
+                        if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+                            semaphore.release();
+                        }
+                    }
+                });
+    }
+}
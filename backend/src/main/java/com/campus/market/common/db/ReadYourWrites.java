@@ -0,0 +1,109 @@
+package com.campus.market.common.db;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 读己之写：用户发起写请求后的一段时间内，其请求中的只读事务仍走主库，避免副本复制延迟导致读不到刚写入的数据。
+ *
+ * 只在配置了副本（market.datasource.replica-urls）时记录。请求线程上的标记由 ReadYourWritesInterceptor 设置，
+ * 提交到业务线程池的任务通过 propagate 带上提交方的标记。
+ */
+@Component
+public class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private final boolean enabled;
+    private final long windowNanos;
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    public ReadYourWrites(@Value("${market.datasource.replica-urls:}") String replicaUrls,
+                          @Value("${market.datasource.read-your-writes-ms:5000}") long windowMillis) {
+        this.enabled = !replicaUrls.isBlank();
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+    }
+
+    /**
+     * 当前线程的只读事务是否应使用主库。
+     */
+    public static boolean pinnedToPrimary() {
+        return Boolean.TRUE.equals(PINNED.get());
+    }
+
+    /**
+     * 包装任务，使其在执行线程上沿用提交线程的主库标记。
+     */
+    public static Runnable propagate(Runnable task) {
+        if (!pinnedToPrimary()) {
+            return task;
+        }
+        return () -> {
+            Boolean previous = PINNED.get();
+            PINNED.set(Boolean.TRUE);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    /**
+     * 在主库上执行 action 中的只读查询，用于读取结果会回填共享内存状态、不能接受复制延迟的场景。
+     * 只在连接尚未取得时生效（对外的 DataSource 在第一条语句时才取连接）。
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        Boolean previous = PINNED.get();
+        PINNED.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    boolean enabled() {
+        return enabled;
+    }
+
+    void recordWrite(String user) {
+        lastWrites.put(user, System.nanoTime());
+    }
+
+    boolean recentlyWrote(String user) {
+        Long last = lastWrites.get(user);
+        return last != null && System.nanoTime() - last < windowNanos;
+    }
+
+    static void pin() {
+        PINNED.set(Boolean.TRUE);
+    }
+
+    static void unpin() {
+        PINNED.remove();
+    }
+
+    /**
+     * 清理窗口已过的记录。
+     */
+    @Scheduled(fixedDelayString = "${market.datasource.read-your-writes-ms:5000}")
+    public void purge() {
+        long now = System.nanoTime();
+        lastWrites.values().removeIf(last -> now - last >= windowNanos);
+    }
+
+    private static void restore(Boolean previous) {
+        if (previous == null) {
+            PINNED.remove();
+        } else {
+            PINNED.set(previous);
+        }
+    }
+}
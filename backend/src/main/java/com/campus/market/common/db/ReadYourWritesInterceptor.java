@@ -0,0 +1,67 @@
+package com.campus.market.common.db;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.security.Principal;
+import java.util.Set;
+
+/**
+ * 按登录用户维护 read-your-writes 窗口：POST / PUT / PATCH / DELETE 请求视为写入，
+ * 请求开始和结束时各记录一次（窗口从写入提交后算起）；窗口内该用户的所有请求都固定使用主库。
+ * 标注了 SkipReadYourWrites 的接口不开启窗口。
+ */
+@Component
+public class ReadYourWritesInterceptor implements HandlerInterceptor {
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final ReadYourWrites readYourWrites;
+
+    public ReadYourWritesInterceptor(ReadYourWrites readYourWrites) {
+        this.readYourWrites = readYourWrites;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String user = user(request);
+        if (user == null) {
+            return true;
+        }
+        if (isWrite(request, handler)) {
+            readYourWrites.recordWrite(user);
+        }
+        if (readYourWrites.recentlyWrote(user)) {
+            ReadYourWrites.pin();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        ReadYourWrites.unpin();
+        String user = user(request);
+        if (user != null && isWrite(request, handler)) {
+            readYourWrites.recordWrite(user);
+        }
+    }
+
+    private String user(HttpServletRequest request) {
+        if (!readYourWrites.enabled()) {
+            return null;
+        }
+        Principal principal = request.getUserPrincipal();
+        return principal != null ? principal.getName() : null;
+    }
+
+    private static boolean isWrite(HttpServletRequest request, Object handler) {
+        if (handler instanceof HandlerMethod method && method.hasMethodAnnotation(SkipReadYourWrites.class)) {
+            return false;
+        }
+        return !READ_METHODS.contains(request.getMethod());
+    }
+}
@@ -0,0 +1,189 @@
+package com.campus.market.common.db;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 只读事务使用的数据源：在健康的副本之间轮询分配连接。
+ *
+ * 副本取连接失败时立即标记为不可用并尝试下一个，全部不可用或当前请求处在 read-your-writes 窗口内时直接使用主库。
+ * 定时健康检查会重新探测所有副本，复制延迟超过 maxLagMillis 的副本同样暂停使用，追上后自动恢复。
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    /**
+     * 复制状态：是否为备库、WAL 接收进程是否在运行及其状态、已接收的 WAL 是否全部回放、距最后一次回放事务的毫秒数、
+     * 当前账号能否查看接收进程详情。pg_stat_wal_receiver 的 pid 对所有账号可见，status 需要 pg_read_all_stats
+     * （或 pg_monitor）角色，没有时为 NULL。
+     */
+    private static final String LAG_SQL = """
+            SELECT pg_is_in_recovery(),
+                   (SELECT pid FROM pg_stat_wal_receiver) IS NOT NULL,
+                   (SELECT status FROM pg_stat_wal_receiver),
+                   pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn(),
+                   EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000,
+                   pg_has_role('pg_read_all_stats', 'MEMBER')
+            """;
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final long maxLagMillis;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicaPools, long maxLagMillis) {
+        this.primary = primary;
+        this.replicas = replicaPools.stream().map(Replica::new).toList();
+        this.maxLagMillis = maxLagMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!ReadYourWrites.pinnedToPrimary()) {
+            int size = replicas.size();
+            int start = Math.floorMod(next.getAndIncrement(), size);
+            for (int i = 0; i < size; i++) {
+                Replica replica = replicas.get((start + i) % size);
+                if (!replica.healthy) {
+                    continue;
+                }
+                try {
+                    return replica.connections.getConnection();
+                } catch (SQLException ex) {
+                    markDown(replica, ex.getMessage());
+                }
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("副本连接使用配置中的账号");
+    }
+
+    /**
+     * 探测每个副本能否连接以及复制延迟。
+     */
+    @Scheduled(fixedDelayString = "${market.datasource.health-check-interval-ms:5000}")
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.connections.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(LAG_SQL)) {
+                rs.next();
+                if (!replica.privilegeChecked) {
+                    replica.privilegeChecked = true;
+                    if (!rs.getBoolean(6)) {
+                        log.warn("副本 {} 的连接账号没有 pg_read_all_stats（或 pg_monitor）角色，无法查看 WAL 接收状态，"
+                                + "只能按接收进程是否存在判断；建议执行 GRANT pg_monitor TO <账号>", replica.name());
+                    }
+                }
+                long lag = lagMillis(rs);
+                replica.lagMillis = lag;
+                if (lag > maxLagMillis) {
+                    markDown(replica, "复制延迟 " + lag + " ms");
+                } else if (!replica.healthy) {
+                    replica.healthy = true;
+                    log.info("副本 {} 恢复可用，复制延迟 {} ms", replica.name(), lag);
+                }
+            } catch (SQLException ex) {
+                markDown(replica, ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 复制延迟（毫秒）。非备库为 0；WAL 接收进程在运行、且已接收的 WAL 全部回放完时为 0。
+     * 无权查看接收状态（status 为 NULL）时只要接收进程存在即视为在流复制，避免主库空闲时把所有副本判为不可用。
+     * 接收进程不存在或处于其他状态时已接收与已回放的位置同样可能相等，但数据可能早已落后，
+     * 这时按最后一次回放事务距今的时间计算，没有回放过任何事务时视为无限延迟。
+     */
+    private static long lagMillis(ResultSet rs) throws SQLException {
+        if (!rs.getBoolean(1)) {
+            return 0;
+        }
+        String status = rs.getString(3);
+        boolean streaming = rs.getBoolean(2) && (status == null || "streaming".equals(status));
+        if (streaming && rs.getBoolean(4)) {
+            return 0;
+        }
+        double age = rs.getDouble(5);
+        return rs.wasNull() ? Long.MAX_VALUE : (long) age;
+    }
+
+    /**
+     * 在副本连接池前再套一层（如虚拟线程模式下的 JdbcConnectionLimiter），需在开始分配连接之前调用。
+     */
+    public void wrapReplicas(Function<HikariDataSource, DataSource> wrapper) {
+        replicas.forEach(replica -> replica.connections = wrapper.apply(replica.pool));
+    }
+
+    public List<Replica> replicas() {
+        return replicas;
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+    }
+
+    private static void markDown(Replica replica, String reason) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            log.warn("副本 {} 暂停使用：{}", replica.name(), reason);
+        }
+    }
+
+    /**
+     * 一个副本的连接池与最近一次健康检查的结果；首次检查通过前不参与分配。
+     */
+    public static final class Replica {
+
+        private final HikariDataSource pool;
+        /** 取连接的入口：连接池本身，或 wrapReplicas 套上的包装 */
+        private volatile DataSource connections;
+        private volatile boolean healthy;
+        private volatile long lagMillis;
+        /** 是否已检查过连接账号的监控角色（只提示一次） */
+        private volatile boolean privilegeChecked;
+
+        private Replica(HikariDataSource pool) {
+            this.pool = pool;
+            this.connections = pool;
+        }
+
+        public String name() {
+            return pool.getPoolName();
+        }
+
+        public HikariDataSource pool() {
+            return pool;
+        }
+
+        public DataSource connections() {
+            return connections;
+        }
+
+        public boolean healthy() {
+            return healthy;
+        }
+
+        public long lagMillis() {
+            return lagMillis;
+        }
+    }
+}
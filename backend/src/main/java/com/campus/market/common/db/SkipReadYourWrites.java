@@ -0,0 +1,16 @@
+package com.campus.market.common.db;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标在写接口上：该请求的写入不需要让用户立即读回（如浏览计数），不开启 read-your-writes 窗口。
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SkipReadYourWrites {
+}
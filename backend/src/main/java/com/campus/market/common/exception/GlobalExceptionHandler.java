@@ -2,6 +2,8 @@ package com.campus.market.common.exception;
 
 import com.campus.market.common.api.ApiResponse;
 import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -11,6 +13,8 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
     @ExceptionHandler(BusinessException.class)
     public ResponseEntity<ApiResponse<?>> handleBusiness(BusinessException ex) {
         return new ResponseEntity<>(ApiResponse.fail(ex.getMessage()), HttpStatus.BAD_REQUEST);
@@ -32,7 +36,7 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiResponse<?>> handleOther(Exception ex) {
-        ex.printStackTrace();
+        log.error("未处理的异常", ex);
         // 调试阶段返回具体错误信息，生产环境应改为"服务器内部错误"
         return new ResponseEntity<>(ApiResponse.fail("服务器内部错误: " + ex.toString()), HttpStatus.INTERNAL_SERVER_ERROR);
     }
@@ -0,0 +1,134 @@
+package com.campus.market.common.web;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按耗时自适应的并发上限（思路同 Envoy adaptive concurrency 的梯度算法）。
+ *
+ * 两个阶段交替进行：
+ * - 测量基准：上限保持不变，取这段时间内新接收请求耗时的 p10 作为无排队耗时 minRtt（排队先拉长的是高分位）；
+ * - 正常调整：每攒够一批样本取其 p90，按 gradient = minRtt * 1.25 / p90（限制在 0.5 ~ 2 之间）调整，
+ *   新上限 = 上限 * gradient + sqrt(上限)。耗时超过基准说明开始排队，上限收缩；接近基准时缓慢增长。
+ *
+ * 上限从 initialLimit 开始，只有实测耗时超出基准时才向 minLimit 收缩；测量基准时不压低上限，
+ * 避免启动后及每次重新测量期间按 minLimit 拒绝请求。每隔一段时间重新测量一次基准，跟上数据量、部署环境的变化。
+ * 在途请求不到上限一半时不再增长，避免低负载下上限无限制地抬高。min == max 时即为固定上限。
+ */
+public final class AdaptiveLimit {
+
+    /** 测量基准时采集的样本数 */
+    private static final int MIN_RTT_SAMPLES = 50;
+    /** 正常调整时每批的样本数 */
+    private static final int WINDOW_SAMPLES = 25;
+    /** 基准之上允许的耗时余量 */
+    private static final double BUFFER = 0.25;
+    /** 重新测量基准的间隔 */
+    private static final long MIN_RTT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private volatile int limit;
+
+    // 以下状态只在 synchronized 的 sample 中读写
+    private final long[] samples = new long[Math.max(MIN_RTT_SAMPLES, WINDOW_SAMPLES)];
+    private int sampleCount;
+    private boolean measuring;
+    private long phaseStart;
+    private long minRtt;
+
+    public AdaptiveLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        startMeasuring(System.nanoTime());
+    }
+
+    public static AdaptiveLimit fixed(int limit) {
+        return new AdaptiveLimit(limit, limit, limit);
+    }
+
+    /**
+     * 占用一个名额；已达上限时返回 false 并计入拒绝数。
+     */
+    public boolean tryAcquire() {
+        if (inFlight.incrementAndGet() > limit) {
+            inFlight.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 释放名额。startNanos 为请求开始处理的时间；请求异常结束时 sample 传 false，耗时不作为样本。
+     */
+    public void release(long startNanos, boolean sample) {
+        int current = inFlight.getAndDecrement();
+        if (sample && minLimit < maxLimit) {
+            sample(startNanos, System.nanoTime(), current);
+        }
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    private synchronized void sample(long start, long end, int inFlightAtSample) {
+        // 阶段切换前接收的请求耗时反映的是上一阶段的并发，丢弃
+        if (start < phaseStart) {
+            return;
+        }
+        samples[sampleCount++] = end - start;
+        if (measuring) {
+            if (sampleCount == MIN_RTT_SAMPLES) {
+                minRtt = Math.max(1, percentile(0.1));
+                measuring = false;
+                resetPhase(end);
+            }
+            return;
+        }
+        if (sampleCount < WINDOW_SAMPLES) {
+            return;
+        }
+        long windowRtt = Math.max(1, percentile(0.9));
+        sampleCount = 0;
+        double gradient = Math.max(0.5, Math.min(2.0, minRtt * (1 + BUFFER) / windowRtt));
+        int current = limit;
+        long next = Math.round(current * gradient + Math.sqrt(current));
+        if (next < current || inFlightAtSample >= current / 2) {
+            limit = (int) Math.max(minLimit, Math.min(maxLimit, next));
+        }
+        if (end - phaseStart >= MIN_RTT_INTERVAL_NANOS) {
+            startMeasuring(end);
+        }
+    }
+
+    private void startMeasuring(long now) {
+        measuring = true;
+        resetPhase(now);
+    }
+
+    private void resetPhase(long now) {
+        phaseStart = now;
+        sampleCount = 0;
+    }
+
+    private long percentile(double p) {
+        long[] sorted = Arrays.copyOf(samples, sampleCount);
+        Arrays.sort(sorted);
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,124 @@
+package com.campus.market.common.web;
+
+import com.campus.market.common.api.ApiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 按接口类别的自适应并发限流，放在 JwtAuthenticationFilter 之前，被拒绝的请求连加载用户的查询也省掉。
+ *
+ * 浏览、聊天、其他写操作三类各自按耗时估算并发上限（见 AdaptiveLimit），超出的请求立即返回 503 和 Retry-After，
+ * 不再排队等连接池，已接收的请求耗时因此保持有界。登录注册与下单各有固定的预留名额，不随其他类别的耗时收缩；
+ * 其他类别在排队时主动让出连接池，这两类就能继续拿到连接。运行指标接口不限流。
+ */
+@Component
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    /**
+     * 接口类别。
+     */
+    public enum Route {
+        /** /api/auth/**，预留 */
+        AUTH,
+        /** 下单、取消等订单写操作，预留 */
+        ORDER_WRITE,
+        /** 其他写操作 */
+        WRITE,
+        /** 聊天相关的读操作 */
+        CHAT,
+        /** 其他读操作 */
+        BROWSE
+    }
+
+    private final boolean enabled;
+    private final int retryAfterSeconds;
+    private final ObjectMapper objectMapper;
+    private final Map<Route, AdaptiveLimit> limits = new EnumMap<>(Route.class);
+
+    public ConcurrencyLimitFilter(ObjectMapper objectMapper,
+                                  @Value("${market.concurrency-limit.enabled:true}") boolean enabled,
+                                  @Value("${market.concurrency-limit.initial-limit:20}") int initialLimit,
+                                  @Value("${market.concurrency-limit.min-limit:5}") int minLimit,
+                                  @Value("${market.concurrency-limit.max-limit:200}") int maxLimit,
+                                  @Value("${market.concurrency-limit.reserved-limit:20}") int reservedLimit,
+                                  @Value("${market.concurrency-limit.retry-after-seconds:1}") int retryAfterSeconds) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.retryAfterSeconds = retryAfterSeconds;
+        limits.put(Route.AUTH, AdaptiveLimit.fixed(reservedLimit));
+        limits.put(Route.ORDER_WRITE, AdaptiveLimit.fixed(reservedLimit));
+        for (Route route : new Route[]{Route.WRITE, Route.CHAT, Route.BROWSE}) {
+            limits.put(route, new AdaptiveLimit(initialLimit, minLimit, maxLimit));
+        }
+    }
+
+    /**
+     * 各类别的当前上限、在途数与累计拒绝数，供运行指标输出；未启用时为空。
+     */
+    public Map<Route, AdaptiveLimit> limits() {
+        return enabled ? Collections.unmodifiableMap(limits) : Map.of();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return !enabled || !path.startsWith("/api/") || path.startsWith("/api/system/metrics");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        AdaptiveLimit limit = limits.get(route(request));
+        if (!limit.tryAcquire()) {
+            reject(response);
+            return;
+        }
+        long start = System.nanoTime();
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, response);
+            completed = true;
+        } finally {
+            limit.release(start, completed);
+        }
+    }
+
+    private static Route route(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (path.startsWith("/api/auth/")) {
+            return Route.AUTH;
+        }
+        boolean read = READ_METHODS.contains(request.getMethod());
+        if (!read) {
+            return path.startsWith("/api/orders") ? Route.ORDER_WRITE : Route.WRITE;
+        }
+        return path.startsWith("/api/chats") ? Route.CHAT : Route.BROWSE;
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), ApiResponse.fail("当前访问人数较多，请稍后重试"));
+    }
+}
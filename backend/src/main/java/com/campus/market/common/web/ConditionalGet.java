@@ -0,0 +1,33 @@
+package com.campus.market.common.web;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * 基于版本号的条件 GET 辅助方法。
+ *
+ * 由调用方先计算一个廉价的版本号（如 updated_at），与请求头 If-None-Match 比较：
+ * 命中时直接返回 304，不再组装 DTO；未命中时写入 ETag 并继续正常处理。
+ */
+public final class ConditionalGet {
+
+    private ConditionalGet() {
+    }
+
+    /**
+     * @param version 资源版本号，为 null 时不做条件请求
+     * @return true 表示客户端缓存仍然有效，调用方应直接返回 null
+     */
+    public static boolean notModified(ServletWebRequest request, String prefix, String version) {
+        if (version == null) {
+            return false;
+        }
+        HttpServletResponse response = request.getResponse();
+        if (response != null) {
+            // 允许浏览器缓存但每次都要携带 ETag 重新验证（覆盖 Spring Security 默认的 no-store）
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        }
+        return request.checkNotModified("W/\"" + prefix + "-" + version + "\"");
+    }
+}
@@ -0,0 +1,84 @@
+package com.campus.market.config;
+
+import com.campus.market.common.db.ReadYourWrites;
+import com.campus.market.monitor.SqlStatementContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 业务线程池配置。
+ */
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * 聚合接口并发查询使用的有界线程池；所有线程都忙时由调用线程自己执行，起到背压作用。
+     * ThreadPoolExecutor 只有在队列满后才会创建超出核心数的线程，因此默认不设队列（SynchronousQueue）：
+     * 任务直接交给空闲线程或新建线程，达到 max-size 后立即回落到调用线程，不会先在队列里长时间排队。
+     * 任务沿用提交请求的 SQL 统计上下文（并发执行的查询也计入该请求）和 read-your-writes 主库标记。
+     */
+    @Bean(name = "fanOutExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskExecutor fanOutExecutor(@Value("${market.fan-out.core-size:8}") int coreSize,
+                                                 @Value("${market.fan-out.max-size:32}") int maxSize,
+                                                 @Value("${market.fan-out.queue-capacity:0}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("fan-out-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setTaskDecorator(task -> SqlStatementContext.propagate(ReadYourWrites.propagate(task)));
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 虚拟线程模式下的 fanOutExecutor：每个任务一个虚拟线程，不再池化；同时执行的任务数仍以 max-size 为上限，
+     * 超出时提交方阻塞等待，与平台线程模式的背压效果一致。
+     */
+    @Bean(name = "fanOutExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public SimpleAsyncTaskExecutor virtualFanOutExecutor(@Value("${market.fan-out.max-size:32}") int maxSize) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("fan-out-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(maxSize);
+        executor.setTaskDecorator(task -> SqlStatementContext.propagate(ReadYourWrites.propagate(task)));
+        return executor;
+    }
+
+    /**
+     * 全员广播使用的单线程执行器：广播任务依次执行，避免多个广播同时压数据库。
+     */
+    @Bean(name = "broadcastExecutor")
+    public ThreadPoolTaskExecutor broadcastExecutor(@Value("${market.broadcast.queue-capacity:10}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("broadcast-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 慢查询 EXPLAIN 使用的单线程执行器，不设队列：上一次 EXPLAIN 未结束时新的采样直接放弃。
+     */
+    @Bean(name = "explainExecutor")
+    public ThreadPoolTaskExecutor explainExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("explain-");
+        executor.initialize();
+        return executor;
+    }
+}
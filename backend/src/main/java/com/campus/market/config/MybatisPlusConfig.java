@@ -1,6 +1,12 @@
 package com.campus.market.config;
 
+import com.baomidou.mybatisplus.annotation.DbType;
 import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
+import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import com.campus.market.monitor.SlowQueryInterceptor;
+import com.campus.market.monitor.SlowQueryLog;
+import com.campus.market.monitor.SqlStatementInterceptor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -9,8 +15,27 @@ public class MybatisPlusConfig {
 
     @Bean
     public MybatisPlusInterceptor mybatisPlusInterceptor() {
-        // 暂不注册具体 InnerInterceptor，先保证编译与运行正常；
-        // 如需更精细的分页/多租户等功能，可在此处按需追加。
-        return new MybatisPlusInterceptor();
+        MybatisPlusInterceptor interceptor = new MybatisPlusInterceptor();
+        // 分页插件：selectPage 才会真正追加 LIMIT/OFFSET 并执行 COUNT，
+        // 否则会把全部匹配行取回内存、total 恒为 0
+        interceptor.addInnerInterceptor(new PaginationInnerInterceptor(DbType.POSTGRE_SQL));
+        return interceptor;
+    }
+
+    /**
+     * 按请求统计 SQL 语句数、行数与耗时，见 SqlStatementFilter。
+     */
+    @Bean
+    public SqlStatementInterceptor sqlStatementInterceptor() {
+        return new SqlStatementInterceptor();
+    }
+
+    /**
+     * 执行时间达到 market.slow-query.threshold-ms 的语句记入慢查询日志，见 SlowQueryLog。
+     */
+    @Bean
+    public SlowQueryInterceptor slowQueryInterceptor(SlowQueryLog slowQueryLog,
+                                                     @Value("${market.slow-query.threshold-ms:200}") long thresholdMillis) {
+        return new SlowQueryInterceptor(slowQueryLog, thresholdMillis);
     }
 }
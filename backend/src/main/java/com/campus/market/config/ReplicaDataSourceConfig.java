@@ -0,0 +1,72 @@
+package com.campus.market.config;
+
+import com.campus.market.common.db.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 读写分离，仅在配置了 market.datasource.replica-urls 时生效，否则沿用 Spring Boot 自动配置的单个连接池。
+ *
+ * 对外的 DataSource 是主库连接池外包一层 LazyConnectionDataSourceProxy：真正取连接推迟到第一条语句，
+ * 此时事务管理器已经设置了只读标记，@Transactional(readOnly = true) 的事务从 ReplicaRoutingDataSource 取副本连接，
+ * 其余一律走主库。
+ */
+@Configuration
+@ConditionalOnProperty("market.datasource.replica-urls")
+public class ReplicaDataSourceConfig {
+
+    /** 副本取连接的等待上限（毫秒），副本异常时尽快回退主库 */
+    private static final long REPLICA_CONNECTION_TIMEOUT_MS = 2000;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                                             DataSourceProperties properties,
+                                                             @Value("${market.datasource.replica-urls}") List<String> urls,
+                                                             @Value("${market.datasource.replica-pool-size:10}") int poolSize,
+                                                             @Value("${market.datasource.max-lag-ms:2000}") long maxLagMillis) {
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (String url : urls) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("replica-" + (pools.size() + 1));
+            pool.setJdbcUrl(url.trim());
+            pool.setUsername(properties.determineUsername());
+            pool.setPassword(properties.determinePassword());
+            pool.setMaximumPoolSize(poolSize);
+            pool.setReadOnly(true);
+            pool.setConnectionTimeout(REPLICA_CONNECTION_TIMEOUT_MS);
+            // 副本不可用时应用照常启动，由健康检查决定何时启用
+            pool.setInitializationFailTimeout(-1);
+            pools.add(pool);
+        }
+        return new ReplicaRoutingDataSource(primary, pools, maxLagMillis);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 ReplicaRoutingDataSource replicaRoutingDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(replicaRoutingDataSource);
+        return dataSource;
+    }
+}
@@ -0,0 +1,12 @@
+package com.campus.market.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 启用 @Scheduled 定时任务（内存统计的定期校准等）。线程数见 spring.task.scheduling.pool.size。
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
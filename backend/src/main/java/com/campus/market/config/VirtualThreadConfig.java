@@ -0,0 +1,52 @@
+package com.campus.market.config;
+
+import com.campus.market.common.db.JdbcConnectionLimiter;
+import com.campus.market.common.db.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 虚拟线程模式：spring.threads.virtual.enabled=true 且运行在 JDK 21 及以上时生效。
+ *
+ * Tomcat 请求处理、@Scheduled 任务由 Spring Boot 切换到虚拟线程，fanOutExecutor 见 ExecutorConfig；
+ * 这里给每个 Hikari 连接池套上 JdbcConnectionLimiter，避免大量虚拟线程同时争抢连接；
+ * 读写分离的副本连接池不是 bean，由 ReplicaRoutingDataSource.wrapReplicas 同样套上。
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    /** 未配置 maximum-pool-size 时 Hikari 在连接池启动时才取的默认值，此时读到的还是 -1 */
+    private static final int HIKARI_DEFAULT_POOL_SIZE = 10;
+
+    /**
+     * permits、timeout 不大于 0 时分别取连接池的 maximumPoolSize 和 connectionTimeout。
+     */
+    @Bean
+    public static BeanPostProcessor jdbcConnectionLimiterPostProcessor(
+            @Value("${market.jdbc-limiter.permits:0}") int permits,
+            @Value("${market.jdbc-limiter.acquire-timeout-ms:0}") long timeoutMillis) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof ReplicaRoutingDataSource routing) {
+                    routing.wrapReplicas(this::limit);
+                    return bean;
+                }
+                return bean instanceof HikariDataSource pool ? limit(pool) : bean;
+            }
+
+            private JdbcConnectionLimiter limit(HikariDataSource pool) {
+                int poolSize = pool.getMaximumPoolSize() > 0 ? pool.getMaximumPoolSize() : HIKARI_DEFAULT_POOL_SIZE;
+                return new JdbcConnectionLimiter(pool,
+                        permits > 0 ? permits : poolSize,
+                        timeoutMillis > 0 ? timeoutMillis : pool.getConnectionTimeout());
+            }
+        };
+    }
+}
@@ -1,7 +1,10 @@
 package com.campus.market.config;
 
+import com.campus.market.common.db.ReadYourWritesInterceptor;
+import com.campus.market.monitor.EndpointLatencyInterceptor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -14,6 +17,21 @@ public class WebConfig implements WebMvcConfigurer {
     @Value("${file.upload-dir:uploads}")
     private String uploadDir;
 
+    private final EndpointLatencyInterceptor endpointLatencyInterceptor;
+    private final ReadYourWritesInterceptor readYourWritesInterceptor;
+
+    public WebConfig(EndpointLatencyInterceptor endpointLatencyInterceptor,
+                     ReadYourWritesInterceptor readYourWritesInterceptor) {
+        this.endpointLatencyInterceptor = endpointLatencyInterceptor;
+        this.readYourWritesInterceptor = readYourWritesInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(endpointLatencyInterceptor).addPathPatterns("/api/**");
+        registry.addInterceptor(readYourWritesInterceptor).addPathPatterns("/api/**");
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         Path uploadPath = Paths.get(uploadDir).toAbsolutePath().normalize();
@@ -2,7 +2,7 @@ package com.campus.market.favorite;
 
 import com.campus.market.common.api.ApiResponse;
 import com.campus.market.common.exception.BusinessException;
-import com.campus.market.product.dto.ProductListItemDto;
+import com.campus.market.favorite.dto.FavoritePageDto;
 import com.campus.market.user.User;
 import com.campus.market.user.UserRepository;
 import org.springframework.web.bind.annotation.*;
@@ -23,14 +23,25 @@ public class FavoriteController {
     }
 
     @GetMapping
-    public ApiResponse<List<ProductListItemDto>> listMyFavorites(Principal principal) {
+    public ApiResponse<FavoritePageDto> listMyFavorites(@RequestParam(required = false) String cursor,
+                                                        @RequestParam(defaultValue = "20") int size,
+                                                        Principal principal) {
         if (principal == null) {
             throw new BusinessException("未登录");
         }
         User user = userRepository.findByUsername(principal.getName())
                 .orElseThrow(() -> new BusinessException("用户不存在"));
-        List<ProductListItemDto> list = favoriteService.listMyFavorites(user.getId());
-        return ApiResponse.ok(list);
+        return ApiResponse.ok(favoriteService.listMyFavorites(user.getId(), cursor, size));
+    }
+
+    @GetMapping("/ids")
+    public ApiResponse<List<Long>> listMyFavoriteIds(Principal principal) {
+        if (principal == null) {
+            throw new BusinessException("未登录");
+        }
+        User user = userRepository.findByUsername(principal.getName())
+                .orElseThrow(() -> new BusinessException("用户不存在"));
+        return ApiResponse.ok(favoriteService.listMyFavoriteIds(user.getId()));
     }
 
     @PostMapping("/{productId}")
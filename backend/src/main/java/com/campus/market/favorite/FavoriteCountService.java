@@ -0,0 +1,163 @@
+package com.campus.market.favorite;
+
+import com.campus.market.common.tx.AfterCommit;
+import com.campus.market.product.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 商品收藏数服务。
+ *
+ * 每个商品一个 LongAdder（内部按线程分段累加，热门商品被集中收藏时不会争用同一个计数器），
+ * 收藏 / 取消收藏在事务提交后增减；列表和详情直接读内存，不查 favorite 表。
+ * 变化过的商品定期批量回写到 product.favorite_count，供 sort=popular 在 SQL 中排序；
+ * 启动时和每隔一段时间先用一条 UPDATE 校正该列，再用一次 GROUP BY 重建内存计数。
+ *
+ * 重建期间提交的收藏变化同时记进 pending，GROUP BY 完成后补到新计数上再替换，不会丢失；
+ * 替换时持写锁，增减计数持读锁，彼此之间不互斥。
+ */
+@Service
+public class FavoriteCountService {
+
+    private static final Logger log = LoggerFactory.getLogger(FavoriteCountService.class);
+
+    /** 每条回写 SQL 覆盖的商品数 */
+    private static final int PERSIST_BATCH_SIZE = 500;
+
+    private final FavoriteRepository favoriteRepository;
+    private final ProductRepository productRepository;
+
+    private volatile Map<Long, LongAdder> counts = new ConcurrentHashMap<>();
+    /** 重建期间的增减，非重建期间为 null */
+    private volatile Map<Long, LongAdder> pending;
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    public FavoriteCountService(FavoriteRepository favoriteRepository, ProductRepository productRepository) {
+        this.favoriteRepository = favoriteRepository;
+        this.productRepository = productRepository;
+    }
+
+    public long count(Long productId) {
+        if (productId == null) {
+            return 0L;
+        }
+        LongAdder adder = counts.get(productId);
+        return adder != null ? Math.max(adder.sum(), 0L) : 0L;
+    }
+
+    public void onAdded(Long productId) {
+        change(productId, 1);
+    }
+
+    public void onRemoved(Long productId) {
+        change(productId, -1);
+    }
+
+    private void change(Long productId, long delta) {
+        if (productId == null) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            swapLock.readLock().lock();
+            try {
+                counts.computeIfAbsent(productId, id -> new LongAdder()).add(delta);
+                Map<Long, LongAdder> journal = pending;
+                if (journal != null) {
+                    journal.computeIfAbsent(productId, id -> new LongAdder()).add(delta);
+                }
+            } finally {
+                swapLock.readLock().unlock();
+            }
+            dirty.add(productId);
+        });
+    }
+
+    /**
+     * 把变化过的商品收藏数批量写回 product.favorite_count。
+     */
+    @Scheduled(fixedDelayString = "${market.favorite-count.persist-interval-ms:60000}")
+    public void persist() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Long, Long>> batch = new ArrayList<>(PERSIST_BATCH_SIZE);
+        for (Long productId : dirty) {
+            dirty.remove(productId);
+            batch.add(new AbstractMap.SimpleImmutableEntry<>(productId, count(productId)));
+            if (batch.size() == PERSIST_BATCH_SIZE) {
+                write(batch);
+                batch = new ArrayList<>(PERSIST_BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    private void write(List<Map.Entry<Long, Long>> batch) {
+        try {
+            productRepository.updateFavoriteCounts(batch);
+        } catch (RuntimeException ex) {
+            // 写失败的商品重新标记，下次再试
+            batch.forEach(e -> dirty.add(e.getKey()));
+            log.warn("回写商品收藏数失败，{} 个商品将在下次重试", batch.size(), ex);
+        }
+    }
+
+    /**
+     * 校正 product.favorite_count 并从 favorite 表重建内存计数，启动后立即执行，之后定期校准。
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${market.favorite-count.reload-interval-ms:3600000}")
+    public void reload() {
+        try {
+            productRepository.reconcileFavoriteCounts();
+        } catch (RuntimeException ex) {
+            log.warn("校正 product.favorite_count 失败", ex);
+        }
+        // 在 GROUP BY 取快照之前开始记录，快照之后提交的变化都会记进 pending
+        swap(() -> pending = new ConcurrentHashMap<>());
+        try {
+            Map<Long, LongAdder> fresh = new ConcurrentHashMap<>();
+            for (Map<String, Object> row : favoriteRepository.countGroupByProductId()) {
+                Object productId = row.get("product_id");
+                Object cnt = row.get("cnt");
+                if (productId != null && cnt != null) {
+                    LongAdder adder = new LongAdder();
+                    adder.add(((Number) cnt).longValue());
+                    fresh.put(((Number) productId).longValue(), adder);
+                }
+            }
+            swap(() -> {
+                pending.forEach((productId, delta) ->
+                        fresh.computeIfAbsent(productId, id -> new LongAdder()).add(delta.sum()));
+                counts = fresh;
+                pending = null;
+            });
+        } catch (RuntimeException ex) {
+            swap(() -> pending = null);
+            log.warn("重建商品收藏数失败，沿用现有计数", ex);
+        }
+    }
+
+    private void swap(Runnable action) {
+        swapLock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.campus.market.favorite;
+
+import com.campus.market.common.tx.AfterCommit;
+import com.campus.market.product.dto.ProductDto;
+import com.campus.market.product.dto.ProductListItemDto;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 用户收藏商品 id 集合缓存。
+ *
+ * 每个用户的收藏以升序 long[] 保存（不装箱，查找用二分），按最近使用淘汰，最多缓存固定数量的用户。
+ * 收藏 / 取消收藏在事务提交后使对应用户的缓存失效；加载期间若发生过失效，加载结果不写入缓存，
+ * 避免把提交前读到的旧集合放回去。
+ */
+@Component
+public class FavoriteIdCache {
+
+    private static final long[] EMPTY = new long[0];
+
+    private final FavoriteRepository favoriteRepository;
+    private final Map<Long, long[]> cache;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public FavoriteIdCache(FavoriteRepository favoriteRepository,
+                           @Value("${market.favorite-cache.max-users:10000}") int maxUsers) {
+        this.favoriteRepository = favoriteRepository;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, long[]> eldest) {
+                return size() > maxUsers;
+            }
+        };
+    }
+
+    public boolean contains(Long userId, Long productId) {
+        if (userId == null || productId == null) {
+            return false;
+        }
+        return Arrays.binarySearch(idsOf(userId), productId) >= 0;
+    }
+
+    public List<Long> ids(Long userId) {
+        if (userId == null) {
+            return List.of();
+        }
+        return Arrays.stream(idsOf(userId)).boxed().collect(Collectors.toList());
+    }
+
+    /**
+     * 收藏集合的指纹，用于拼接按用户区分的 ETag。
+     */
+    public String fingerprint(Long userId) {
+        long[] ids = idsOf(userId);
+        return ids.length + "." + Integer.toHexString(Arrays.hashCode(ids));
+    }
+
+    /**
+     * 为列表项标记是否已收藏；userId 为空时原样返回。
+     *
+     * 列表项可能来自共享的内存缓存（如首页最新发布），因此标记在副本上进行。
+     */
+    public List<ProductListItemDto> mark(Long userId, List<ProductListItemDto> items) {
+        if (userId == null || items == null || items.isEmpty()) {
+            return items;
+        }
+        long[] ids = idsOf(userId);
+        List<ProductListItemDto> marked = new ArrayList<>(items.size());
+        for (ProductListItemDto item : items) {
+            ProductListItemDto copy = new ProductListItemDto();
+            BeanUtils.copyProperties(item, copy);
+            copy.setFavorited(item.getId() != null && Arrays.binarySearch(ids, item.getId()) >= 0);
+            marked.add(copy);
+        }
+        return marked;
+    }
+
+    public Page<ProductListItemDto> mark(Long userId, Page<ProductListItemDto> page) {
+        if (userId == null || page == null) {
+            return page;
+        }
+        List<ProductListItemDto> marked = mark(userId, page.getContent());
+        return new PageImpl<>(marked, page.getPageable(), page.getTotalElements());
+    }
+
+    /**
+     * 为商品详情标记是否已收藏；userId 为空时原样返回。详情同样可能来自共享缓存，标记在副本上进行。
+     */
+    public ProductDto mark(Long userId, ProductDto detail) {
+        if (userId == null || detail == null) {
+            return detail;
+        }
+        ProductDto copy = new ProductDto();
+        BeanUtils.copyProperties(detail, copy);
+        copy.setFavorited(contains(userId, detail.getId()));
+        return copy;
+    }
+
+    /**
+     * 当前事务提交后使该用户的缓存失效。
+     */
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            invalidations.incrementAndGet();
+            synchronized (cache) {
+                cache.remove(userId);
+            }
+        });
+    }
+
+    private long[] idsOf(Long userId) {
+        synchronized (cache) {
+            long[] cached = cache.get(userId);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        long stamp = invalidations.get();
+        List<Long> productIds = favoriteRepository.findProductIdsByUserId(userId);
+        long[] ids = productIds.isEmpty() ? EMPTY : productIds.stream().mapToLong(Long::longValue).sorted().toArray();
+        synchronized (cache) {
+            if (invalidations.get() == stamp) {
+                cache.put(userId, ids);
+            }
+        }
+        return ids;
+    }
+}
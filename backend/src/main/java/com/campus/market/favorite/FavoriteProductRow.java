@@ -0,0 +1,21 @@
+package com.campus.market.favorite;
+
+import com.campus.market.product.Product;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 收藏列表联表查询的一行：收藏记录的分页键 + 被收藏的商品。
+ */
+@Getter
+@Setter
+public class FavoriteProductRow {
+
+    private Long favoriteId;
+
+    private LocalDateTime favoritedAt;
+
+    private Product product;
+}
@@ -1,13 +1,19 @@
 package com.campus.market.favorite;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Mapper
 public interface FavoriteRepository extends BaseMapper<Favorite> {
@@ -22,6 +28,45 @@ public interface FavoriteRepository extends BaseMapper<Favorite> {
         return selectList(wrapper);
     }
 
+    default List<Long> findProductIdsByUserId(Long userId) {
+        if (userId == null) {
+            return Collections.emptyList();
+        }
+        LambdaQueryWrapper<Favorite> wrapper = Wrappers.lambdaQuery(Favorite.class)
+                .select(Favorite::getProductId)
+                .eq(Favorite::getUserId, userId);
+        return selectObjs(wrapper).stream()
+                .map(id -> ((Number) id).longValue())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 按 (收藏时间, id) 倒序的 keyset 分页，联表取出未删除的商品；cursor 为空时取第一页。
+     * SQL 见 mapper/favorite/FavoriteRepository.xml。
+     */
+    List<FavoriteProductRow> findPageByUserId(@Param("userId") Long userId,
+                                              @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                              @Param("cursorId") Long cursorId,
+                                              @Param("limit") int limit);
+
+    /**
+     * 按商品统计收藏数，返回列 product_id、cnt。
+     */
+    default List<Map<String, Object>> countGroupByProductId() {
+        QueryWrapper<Favorite> wrapper = new QueryWrapper<>();
+        wrapper.select("product_id", "COUNT(*) AS cnt").groupBy("product_id");
+        return selectMaps(wrapper);
+    }
+
+    default List<Favorite> findByProductIdIn(Collection<Long> productIds) {
+        if (productIds == null || productIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        LambdaQueryWrapper<Favorite> wrapper = Wrappers.lambdaQuery(Favorite.class)
+                .in(Favorite::getProductId, productIds);
+        return selectList(wrapper);
+    }
+
     default Optional<Favorite> findByUserIdAndProductId(Long userId, Long productId) {
         if (userId == null || productId == null) {
             return Optional.empty();
@@ -32,6 +77,25 @@ public interface FavoriteRepository extends BaseMapper<Favorite> {
         return Optional.ofNullable(selectOne(wrapper));
     }
 
+    /**
+     * 收藏（已存在、商品不存在或已删除时不做任何事），依赖 (user_id, product_id) 唯一约束，定义见 mapper/favorite/FavoriteRepository.xml。
+     *
+     * @return 实际插入的行数，0 表示原本已收藏或商品不可收藏
+     */
+    int insertIgnore(@Param("userId") Long userId,
+                     @Param("productId") Long productId,
+                     @Param("createdAt") LocalDateTime createdAt);
+
+    default int deleteByUserIdAndProductId(Long userId, Long productId) {
+        if (userId == null || productId == null) {
+            return 0;
+        }
+        LambdaQueryWrapper<Favorite> wrapper = Wrappers.lambdaQuery(Favorite.class)
+                .eq(Favorite::getUserId, userId)
+                .eq(Favorite::getProductId, productId);
+        return delete(wrapper);
+    }
+
     default int delete(Favorite favorite) {
         if (favorite == null || favorite.getId() == null) {
             return 0;
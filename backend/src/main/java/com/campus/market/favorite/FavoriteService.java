@@ -1,6 +1,7 @@
 package com.campus.market.favorite;
 
 import com.campus.market.common.exception.BusinessException;
+import com.campus.market.favorite.dto.FavoritePageDto;
 import com.campus.market.product.Product;
 import com.campus.market.product.ProductRepository;
 import com.campus.market.product.ProductService;
@@ -8,54 +9,102 @@ import com.campus.market.product.dto.ProductListItemDto;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Collections;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class FavoriteService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final FavoriteRepository favoriteRepository;
     private final ProductRepository productRepository;
     private final ProductService productService;
+    private final FavoriteIdCache favoriteIdCache;
+    private final FavoriteCountService favoriteCountService;
 
     public FavoriteService(FavoriteRepository favoriteRepository,
                            ProductRepository productRepository,
-                           ProductService productService) {
+                           ProductService productService,
+                           FavoriteIdCache favoriteIdCache,
+                           FavoriteCountService favoriteCountService) {
         this.favoriteRepository = favoriteRepository;
         this.productRepository = productRepository;
         this.productService = productService;
+        this.favoriteIdCache = favoriteIdCache;
+        this.favoriteCountService = favoriteCountService;
     }
 
+    /**
+     * 分页查询我的收藏，按收藏时间倒序。
+     *
+     * 使用 (created_at, id) 游标做 keyset 分页，一条联表查询取出本页商品（已删除商品在 SQL 中过滤），
+     * 缩略图和卖家资料只为本页商品批量查询。
+     *
+     * @param cursor 上一页返回的 nextCursor，为空时取第一页
+     */
     @Transactional(readOnly = true)
-    public List<ProductListItemDto> listMyFavorites(Long userId) {
-        List<Favorite> favorites = favoriteRepository.findByUserId(userId);
-        if (favorites.isEmpty()) {
-            return Collections.emptyList();
+    public FavoritePageDto listMyFavorites(Long userId, String cursor, int size) {
+        int limit = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        LocalDateTime cursorCreatedAt = null;
+        Long cursorId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int sep = decoded.lastIndexOf('|');
+                cursorCreatedAt = LocalDateTime.parse(decoded.substring(0, sep));
+                cursorId = Long.parseLong(decoded.substring(sep + 1));
+            } catch (RuntimeException ex) {
+                throw new BusinessException("cursor 无效");
+            }
+        }
+
+        // 多取一条用于判断是否还有下一页
+        List<FavoriteProductRow> rows = favoriteRepository.findPageByUserId(userId, cursorCreatedAt, cursorId, limit + 1);
+        boolean hasMore = rows.size() > limit;
+        if (hasMore) {
+            rows = rows.subList(0, limit);
         }
 
-        List<Long> productIds = favorites.stream()
-                .map(Favorite::getProductId)
-                .toList();
+        List<ProductListItemDto> items = productService.toListItemDtos(
+                rows.stream().map(FavoriteProductRow::getProduct).collect(Collectors.toList()));
+        items.forEach(dto -> dto.setFavorited(true));
 
-        List<Product> products = productRepository.findAllById(productIds);
-        Map<Long, Product> productMap = products.stream()
-                .collect(Collectors.toMap(Product::getId, p -> p));
+        FavoritePageDto page = new FavoritePageDto();
+        page.setItems(items);
+        page.setHasMore(hasMore);
+        if (hasMore) {
+            FavoriteProductRow last = rows.get(rows.size() - 1);
+            String raw = last.getFavoritedAt() + "|" + last.getFavoriteId();
+            page.setNextCursor(Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8)));
+        }
+        return page;
+    }
 
-        return favorites.stream()
-                .map(f -> productMap.get(f.getProductId()))
-                .filter(Objects::nonNull)
-                // 过滤掉已删除的商品
-                .filter(p -> !"DELETED".equals(p.getStatus()))
-                .map(productService::toListItemDto)
-                .collect(Collectors.toList());
+    /**
+     * 我收藏的全部商品 id（来自收藏集合缓存），供前端标记收藏状态。
+     */
+    @Transactional(readOnly = true)
+    public List<Long> listMyFavoriteIds(Long userId) {
+        return favoriteIdCache.ids(userId);
     }
 
+    /**
+     * 收藏商品，重复收藏直接忽略。
+     *
+     * 商品存在性、删除状态和重复收藏都由一条条件插入判断；只有未插入时才区分原因，用于返回错误提示。
+     */
     public void addFavorite(Long userId, Long productId) {
-        if (favoriteRepository.findByUserIdAndProductId(userId, productId).isPresent()) {
+        if (favoriteRepository.insertIgnore(userId, productId, LocalDateTime.now()) > 0) {
+            favoriteIdCache.invalidate(userId);
+            favoriteCountService.onAdded(productId);
+            return;
+        }
+        if (favoriteIdCache.contains(userId, productId)) {
             return;
         }
         Product product = productRepository.findById(productId)
@@ -63,16 +112,15 @@ public class FavoriteService {
         if ("DELETED".equals(product.getStatus())) {
             throw new BusinessException("商品已被删除");
         }
-
-        Favorite favorite = new Favorite();
-        favorite.setUserId(userId);
-        favorite.setProductId(productId);
-        favorite.prePersist();
-        favoriteRepository.insert(favorite);
     }
 
+    /**
+     * 取消收藏，未收藏时直接忽略。
+     */
     public void removeFavorite(Long userId, Long productId) {
-        favoriteRepository.findByUserIdAndProductId(userId, productId)
-                .ifPresent(favoriteRepository::delete);
+        if (favoriteRepository.deleteByUserIdAndProductId(userId, productId) > 0) {
+            favoriteIdCache.invalidate(userId);
+            favoriteCountService.onRemoved(productId);
+        }
     }
 }
@@ -0,0 +1,103 @@
+package com.campus.market.favorite;
+
+import com.campus.market.chat.ChatService;
+import com.campus.market.product.PriceDropQueue;
+import com.campus.market.product.Product;
+import com.campus.market.product.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 收藏商品降价提醒。
+ *
+ * 定期取出 PriceDropQueue 中的降价事件，与商品当前价格比较（窗口内涨回去的不再提醒），
+ * 一次查出这些商品的全部收藏者，按用户合并成一条消息，再通过 ChatService.sendSystemMessages 批量写入。
+ */
+@Component
+public class PriceDropNotifier {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceDropNotifier.class);
+
+    /** 单条消息最多列出的商品数 */
+    private static final int MAX_ITEMS_PER_MESSAGE = 10;
+
+    private final PriceDropQueue priceDropQueue;
+    private final FavoriteRepository favoriteRepository;
+    private final ProductRepository productRepository;
+    private final ChatService chatService;
+
+    public PriceDropNotifier(PriceDropQueue priceDropQueue,
+                             FavoriteRepository favoriteRepository,
+                             ProductRepository productRepository,
+                             ChatService chatService) {
+        this.priceDropQueue = priceDropQueue;
+        this.favoriteRepository = favoriteRepository;
+        this.productRepository = productRepository;
+        this.chatService = chatService;
+    }
+
+    @Scheduled(fixedDelayString = "${market.price-drop.notify-interval-ms:60000}")
+    public void flush() {
+        Map<Long, BigDecimal> previousPrices = priceDropQueue.drain();
+        if (previousPrices.isEmpty()) {
+            return;
+        }
+        try {
+            Map<Long, Product> dropped = productRepository.findAllById(new ArrayList<>(previousPrices.keySet())).stream()
+                    .filter(p -> "ON_SALE".equals(p.getStatus()))
+                    .filter(p -> p.getPrice() != null && p.getPrice().compareTo(previousPrices.get(p.getId())) < 0)
+                    .collect(Collectors.toMap(Product::getId, Function.identity()));
+            if (dropped.isEmpty()) {
+                return;
+            }
+
+            Map<Long, List<Product>> byUser = new LinkedHashMap<>();
+            for (Favorite favorite : favoriteRepository.findByProductIdIn(dropped.keySet())) {
+                Product product = dropped.get(favorite.getProductId());
+                // 卖家收藏自己的商品时不提醒
+                if (product != null && !Objects.equals(product.getSellerId(), favorite.getUserId())) {
+                    byUser.computeIfAbsent(favorite.getUserId(), k -> new ArrayList<>()).add(product);
+                }
+            }
+
+            Map<Long, String> contentByUser = new LinkedHashMap<>();
+            byUser.forEach((userId, products) -> contentByUser.put(userId, buildMessage(products, previousPrices)));
+            int sent = chatService.sendSystemMessages(contentByUser);
+            log.debug("已发送降价提醒 {} 条，涉及商品 {} 件", sent, dropped.size());
+        } catch (RuntimeException ex) {
+            log.warn("发送降价提醒失败，本批 {} 件商品的提醒已丢弃", previousPrices.size(), ex);
+        }
+    }
+
+    private String buildMessage(List<Product> products, Map<Long, BigDecimal> previousPrices) {
+        StringBuilder sb = new StringBuilder();
+        if (products.size() == 1) {
+            sb.append("你收藏的商品降价了：");
+        } else {
+            sb.append("你收藏的 ").append(products.size()).append(" 件商品降价了：");
+        }
+        int shown = Math.min(products.size(), MAX_ITEMS_PER_MESSAGE);
+        for (int i = 0; i < shown; i++) {
+            Product product = products.get(i);
+            sb.append("\n· ").append(product.getTitle())
+                    .append(" ¥").append(previousPrices.get(product.getId()).toPlainString())
+                    .append(" → ¥").append(product.getPrice().toPlainString())
+                    .append("（商品 #").append(product.getId()).append("）");
+        }
+        if (products.size() > shown) {
+            sb.append("\n……等共 ").append(products.size()).append(" 件");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,19 @@
+package com.campus.market.favorite.dto;
+
+import com.campus.market.product.dto.ProductListItemDto;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 收藏列表的一页：按收藏时间倒序，nextCursor 为下一页的游标，没有更多时为 null。
+ */
+@Data
+public class FavoritePageDto {
+
+    private List<ProductListItemDto> items;
+
+    private String nextCursor;
+
+    private boolean hasMore;
+}
@@ -0,0 +1,275 @@
+package com.campus.market.file;
+
+import com.campus.market.common.exception.BusinessException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 可断点续传的分片上传服务。
+ *
+ * 协议分三步：
+ * - init：登记文件大小，在临时目录预分配同样大小的文件，返回 uploadId
+ * - 写分片：按 offset 把请求体通过 FileChannel 定位写入预分配文件，不经过 Multipart 落盘再复制
+ * - complete：确认全部字节已写入后，将临时文件移动到正式目录并返回访问 URL
+ *
+ * 服务端只记录“从 0 开始连续写入”的已确认偏移量，客户端断线后查询该偏移量即可从断点继续上传。
+ * 每个用户同时进行的上传任务数和预分配的总字节数都有上限，避免反复 init 占满磁盘。
+ * 上传任务只保存在内存中，过期任务与重启后遗留的临时文件由定时任务清理。
+ */
+@Service
+public class ChunkedUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(ChunkedUploadService.class);
+
+    private static final Duration SESSION_TTL = Duration.ofHours(24);
+
+    private final FileStorageService fileStorageService;
+    private final long maxFileSize;
+    private final int chunkSize;
+    private final int maxSessionsPerOwner;
+    private final long maxReservedBytesPerOwner;
+
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    public ChunkedUploadService(FileStorageService fileStorageService,
+                                @Value("${file.chunked.max-file-size:52428800}") long maxFileSize,
+                                @Value("${file.chunked.chunk-size:1048576}") int chunkSize,
+                                @Value("${file.chunked.max-sessions-per-owner:5}") int maxSessionsPerOwner,
+                                @Value("${file.chunked.max-reserved-bytes-per-owner:209715200}") long maxReservedBytesPerOwner) {
+        this.fileStorageService = fileStorageService;
+        this.maxFileSize = maxFileSize;
+        this.chunkSize = chunkSize;
+        this.maxSessionsPerOwner = maxSessionsPerOwner;
+        this.maxReservedBytesPerOwner = maxReservedBytesPerOwner;
+    }
+
+    /**
+     * 初始化一次分片上传：校验大小和该用户的未完成任务配额，并预分配临时文件。
+     */
+    public ChunkedUploadStatus init(String owner, InitUploadRequest request) throws IOException {
+        if (request == null || request.getTotalSize() == null || request.getTotalSize() <= 0) {
+            throw new BusinessException("totalSize 必须大于 0");
+        }
+        if (request.getTotalSize() > maxFileSize) {
+            throw new BusinessException("文件过大");
+        }
+        purgeExpired();
+
+        String uploadId = UUID.randomUUID().toString();
+        Path partFile = fileStorageService.partialDir().resolve(uploadId + ".part");
+        UploadSession session = new UploadSession(uploadId, owner,
+                fileStorageService.normalizeType(request.getType()),
+                request.getFilename(), request.getTotalSize(), partFile);
+        reserve(session);
+        try (RandomAccessFile raf = new RandomAccessFile(partFile.toFile(), "rw")) {
+            raf.setLength(request.getTotalSize());
+        } catch (IOException ex) {
+            sessions.remove(uploadId);
+            Files.deleteIfExists(partFile);
+            throw ex;
+        }
+        return session.toStatus(chunkSize);
+    }
+
+    /**
+     * 查询上传进度，客户端据此从已确认的偏移量继续上传。
+     */
+    public ChunkedUploadStatus status(String owner, String uploadId) {
+        return requireSession(owner, uploadId).toStatus(chunkSize);
+    }
+
+    /**
+     * 在指定偏移量写入一个分片。
+     *
+     * offset 不能超过已确认偏移量（允许重传已确认的部分），否则中间会出现空洞。
+     * 分片长度以实际读到的字节数为准（分块传输时没有 Content-Length），最多读取一个分片大小，
+     * 且不超过文件剩余部分；请求体超出该范围时拒绝。
+     *
+     * @param declaredLength 请求头中的 Content-Length，未知时为 -1，仅用于提前拒绝
+     */
+    public ChunkedUploadStatus writeChunk(String owner, String uploadId, long offset,
+                                          long declaredLength, InputStream body) throws IOException {
+        UploadSession session = requireSession(owner, uploadId);
+        if (declaredLength == 0) {
+            throw new BusinessException("分片内容为空");
+        }
+        if (declaredLength > chunkSize) {
+            throw new BusinessException("分片过大");
+        }
+
+        synchronized (session) {
+            if (offset < 0 || offset > session.acknowledged) {
+                throw new BusinessException("分片偏移量不连续，请从 " + session.acknowledged + " 继续上传");
+            }
+            long limit = Math.min(chunkSize, session.totalSize - offset);
+            if (declaredLength > limit) {
+                throw new BusinessException("分片超出文件大小");
+            }
+
+            long written = 0;
+            ReadableByteChannel src = Channels.newChannel(body);
+            try (FileChannel channel = FileChannel.open(session.partFile, StandardOpenOption.WRITE)) {
+                while (written < limit) {
+                    long n = channel.transferFrom(src, offset + written, limit - written);
+                    if (n <= 0) {
+                        break;
+                    }
+                    written += n;
+                }
+            }
+            if (written == 0) {
+                throw new BusinessException("分片内容为空");
+            }
+            // 读满上限后请求体仍有数据：分片超出单片大小或文件剩余部分，整片不予确认
+            if (written == limit && body.read() != -1) {
+                throw new BusinessException(limit < chunkSize ? "分片超出文件大小" : "分片过大");
+            }
+
+            // 仅把连续写入的部分计入已确认偏移量；连接中断时只确认实际收到的字节
+            session.acknowledged = Math.max(session.acknowledged, offset + written);
+            session.touchedAt = Instant.now();
+            return session.toStatus(chunkSize);
+        }
+    }
+
+    /**
+     * 完成上传：所有字节写满后把临时文件移到正式目录。
+     */
+    public UploadResponse complete(String owner, String uploadId) throws IOException {
+        UploadSession session = requireSession(owner, uploadId);
+        synchronized (session) {
+            if (session.acknowledged < session.totalSize) {
+                throw new BusinessException("文件尚未上传完整");
+            }
+            String url = fileStorageService.storeCompleted(session.partFile, session.type, session.filename);
+            sessions.remove(uploadId);
+            return new UploadResponse(url);
+        }
+    }
+
+    /**
+     * 取消上传并删除临时文件。
+     */
+    public void abort(String owner, String uploadId) throws IOException {
+        UploadSession session = requireSession(owner, uploadId);
+        synchronized (session) {
+            sessions.remove(uploadId);
+            Files.deleteIfExists(session.partFile);
+        }
+    }
+
+    /**
+     * 登记新任务；同一用户未完成的任务数或预分配的总字节数超出上限时拒绝。
+     */
+    private synchronized void reserve(UploadSession session) {
+        int count = 0;
+        long reserved = 0;
+        for (UploadSession existing : sessions.values()) {
+            if (Objects.equals(existing.owner, session.owner)) {
+                count++;
+                reserved += existing.totalSize;
+            }
+        }
+        if (count >= maxSessionsPerOwner) {
+            throw new BusinessException("未完成的上传任务过多，请先完成或取消已有任务");
+        }
+        if (reserved + session.totalSize > maxReservedBytesPerOwner) {
+            throw new BusinessException("未完成上传的文件总大小超出上限，请先完成或取消已有任务");
+        }
+        sessions.put(session.uploadId, session);
+    }
+
+    private UploadSession requireSession(String owner, String uploadId) {
+        UploadSession session = uploadId != null ? sessions.get(uploadId) : null;
+        if (session == null) {
+            throw new BusinessException("上传任务不存在或已过期");
+        }
+        if (!Objects.equals(session.owner, owner)) {
+            throw new BusinessException("无权操作该上传任务");
+        }
+        return session;
+    }
+
+    /**
+     * 清理超过有效期仍未完成的上传任务，避免临时文件长期占用磁盘。
+     */
+    private void purgeExpired() {
+        Instant deadline = Instant.now().minus(SESSION_TTL);
+        sessions.values().removeIf(session -> {
+            if (session.touchedAt.isAfter(deadline)) {
+                return false;
+            }
+            try {
+                Files.deleteIfExists(session.partFile);
+            } catch (IOException ignored) {
+                // 删除失败不影响新任务
+            }
+            return true;
+        });
+    }
+
+    /**
+     * 定期清理过期任务；同时删除没有对应任务、且超过有效期未修改的临时文件（服务重启后内存中的任务已丢失）。
+     */
+    @Scheduled(fixedDelayString = "${file.chunked.purge-interval-ms:3600000}")
+    public void purgeAbandoned() {
+        purgeExpired();
+        Instant deadline = Instant.now().minus(SESSION_TTL);
+        try (DirectoryStream<Path> parts = Files.newDirectoryStream(fileStorageService.partialDir(), "*.part")) {
+            for (Path part : parts) {
+                String uploadId = part.getFileName().toString().replace(".part", "");
+                if (!sessions.containsKey(uploadId)
+                        && Files.getLastModifiedTime(part).toInstant().isBefore(deadline)) {
+                    Files.deleteIfExists(part);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("清理分片上传临时文件失败: {}", e.getMessage());
+        }
+    }
+
+    private static final class UploadSession {
+        private final String uploadId;
+        private final String owner;
+        private final String type;
+        private final String filename;
+        private final long totalSize;
+        private final Path partFile;
+        private volatile long acknowledged;
+        private volatile Instant touchedAt = Instant.now();
+
+        private UploadSession(String uploadId, String owner, String type, String filename, long totalSize, Path partFile) {
+            this.uploadId = uploadId;
+            this.owner = owner;
+            this.type = type;
+            this.filename = filename;
+            this.totalSize = totalSize;
+            this.partFile = partFile;
+        }
+
+        private ChunkedUploadStatus toStatus(int chunkSize) {
+            return new ChunkedUploadStatus(uploadId, totalSize, acknowledged, chunkSize,
+                    acknowledged >= totalSize);
+        }
+    }
+}
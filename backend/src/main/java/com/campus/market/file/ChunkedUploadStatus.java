@@ -0,0 +1,17 @@
+package com.campus.market.file;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 分片上传进度：offset 为服务端已确认的连续字节数，客户端从该位置继续上传。
+ */
+@Data
+@AllArgsConstructor
+public class ChunkedUploadStatus {
+    private String uploadId;
+    private long totalSize;
+    private long offset;
+    private int chunkSize;
+    private boolean finished;
+}
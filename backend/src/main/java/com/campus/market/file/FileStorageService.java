@@ -16,13 +16,20 @@ import java.util.UUID;
 public class FileStorageService {
 
     private final Path uploadDir;
+    private final Path partialDir;
     
     // 允许的文件类型分类
     private static final Set<String> ALLOWED_TYPES = Set.of("avatars", "products", "chat");
 
-    public FileStorageService(@Value("${file.upload-dir:uploads}") String uploadDir) throws IOException {
+    public FileStorageService(@Value("${file.upload-dir:uploads}") String uploadDir,
+                              @Value("${file.chunked.partial-dir:uploads-partial}") String partialDir) throws IOException {
         this.uploadDir = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.partialDir = Paths.get(partialDir).toAbsolutePath().normalize();
+        if (this.partialDir.startsWith(this.uploadDir)) {
+            throw new IllegalStateException("分片上传临时目录不能位于 " + this.uploadDir + " 之下，否则未完成的文件会被公开访问");
+        }
         Files.createDirectories(this.uploadDir);
+        Files.createDirectories(this.partialDir);
     }
 
     /**
@@ -36,27 +43,66 @@ public class FileStorageService {
             throw new IllegalArgumentException("文件为空");
         }
         
-        // 验证类型，默认存到 products
-        if (type == null || !ALLOWED_TYPES.contains(type)) {
-            type = "products";
-        }
+        type = normalizeType(type);
 
         // 确保子目录存在
         Path typeDir = uploadDir.resolve(type);
         Files.createDirectories(typeDir);
 
-        String originalName = file.getOriginalFilename();
-        String ext = "";
-        if (originalName != null && originalName.contains(".")) {
-            ext = originalName.substring(originalName.lastIndexOf('.'));
-        }
-        String filename = UUID.randomUUID() + ext;
+        String filename = UUID.randomUUID() + extensionOf(file.getOriginalFilename());
         Path target = typeDir.resolve(filename);
 
         Files.copy(file.getInputStream(), target, StandardCopyOption.REPLACE_EXISTING);
 
         return "/uploads/" + type + "/" + filename;
     }
+
+    /**
+     * 将已写满的临时文件直接移动到目标类型目录下（同一文件系统内为 rename，不再复制数据）。
+     * @param source 临时文件
+     * @param type 文件类型
+     * @param originalName 原始文件名，用于保留扩展名
+     * @return 文件访问 URL
+     */
+    public String storeCompleted(Path source, String type, String originalName) throws IOException {
+        type = normalizeType(type);
+        Path typeDir = uploadDir.resolve(type);
+        Files.createDirectories(typeDir);
+
+        String filename = UUID.randomUUID() + extensionOf(originalName);
+        Files.move(source, typeDir.resolve(filename), StandardCopyOption.REPLACE_EXISTING);
+
+        return "/uploads/" + type + "/" + filename;
+    }
+
+    /**
+     * 分片上传的临时目录。不能位于 /uploads/** 对外提供的目录下；与上传根目录处于同一文件系统时，完成上传只需 rename。
+     */
+    public Path partialDir() throws IOException {
+        Files.createDirectories(partialDir);
+        return partialDir;
+    }
+
+    /**
+     * 验证类型，默认存到 products
+     */
+    public String normalizeType(String type) {
+        if (type == null || !ALLOWED_TYPES.contains(type)) {
+            return "products";
+        }
+        return type;
+    }
+
+    private String extensionOf(String originalName) {
+        if (originalName != null && originalName.contains(".")) {
+            String ext = originalName.substring(originalName.lastIndexOf('.'));
+            // 扩展名只保留字母数字，避免把路径分隔符带进文件名
+            if (ext.matches("\\.[A-Za-z0-9]{1,10}")) {
+                return ext;
+            }
+        }
+        return "";
+    }
     
     /**
      * 存储文件（默认存到 products 目录）
@@ -1,21 +1,32 @@
 package com.campus.market.file;
 
 import com.campus.market.common.api.ApiResponse;
+import com.campus.market.common.exception.BusinessException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.security.Principal;
 
 @RestController
 public class FileUploadController {
 
     private final FileStorageService fileStorageService;
+    private final ChunkedUploadService chunkedUploadService;
 
-    public FileUploadController(FileStorageService fileStorageService) {
+    public FileUploadController(FileStorageService fileStorageService,
+                                ChunkedUploadService chunkedUploadService) {
         this.fileStorageService = fileStorageService;
+        this.chunkedUploadService = chunkedUploadService;
     }
 
     /**
@@ -31,4 +42,58 @@ public class FileUploadController {
         String url = fileStorageService.store(file, type);
         return ApiResponse.ok(new UploadResponse(url));
     }
+
+    /**
+     * 分片上传：初始化，返回 uploadId 与建议的分片大小
+     */
+    @PostMapping("/api/files/uploads")
+    public ApiResponse<ChunkedUploadStatus> initUpload(@RequestBody InitUploadRequest request,
+                                                       Principal principal) throws IOException {
+        return ApiResponse.ok(chunkedUploadService.init(requireOwner(principal), request));
+    }
+
+    /**
+     * 分片上传：查询已确认的偏移量，用于断点续传
+     */
+    @GetMapping("/api/files/uploads/{uploadId}")
+    public ApiResponse<ChunkedUploadStatus> uploadStatus(@PathVariable String uploadId, Principal principal) {
+        return ApiResponse.ok(chunkedUploadService.status(requireOwner(principal), uploadId));
+    }
+
+    /**
+     * 分片上传：请求体为原始二进制分片，写入到 offset 指定的位置
+     */
+    @PutMapping("/api/files/uploads/{uploadId}")
+    public ApiResponse<ChunkedUploadStatus> uploadChunk(@PathVariable String uploadId,
+                                                        @RequestParam long offset,
+                                                        HttpServletRequest request,
+                                                        Principal principal) throws IOException {
+        return ApiResponse.ok(chunkedUploadService.writeChunk(requireOwner(principal), uploadId, offset,
+                request.getContentLengthLong(), request.getInputStream()));
+    }
+
+    /**
+     * 分片上传：全部分片写入后完成上传，返回文件访问 URL
+     */
+    @PostMapping("/api/files/uploads/{uploadId}/complete")
+    public ApiResponse<UploadResponse> completeUpload(@PathVariable String uploadId,
+                                                      Principal principal) throws IOException {
+        return ApiResponse.ok(chunkedUploadService.complete(requireOwner(principal), uploadId));
+    }
+
+    /**
+     * 分片上传：放弃上传并清理临时文件
+     */
+    @DeleteMapping("/api/files/uploads/{uploadId}")
+    public ApiResponse<Void> abortUpload(@PathVariable String uploadId, Principal principal) throws IOException {
+        chunkedUploadService.abort(requireOwner(principal), uploadId);
+        return ApiResponse.ok(null);
+    }
+
+    private String requireOwner(Principal principal) {
+        if (principal == null) {
+            throw new BusinessException("未登录");
+        }
+        return principal.getName();
+    }
 }
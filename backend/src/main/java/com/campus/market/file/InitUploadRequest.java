@@ -0,0 +1,18 @@
+package com.campus.market.file;
+
+import lombok.Data;
+
+/**
+ * 分片上传初始化请求体。
+ *
+ * type 同普通上传：avatars / products / chat；filename 仅用于保留扩展名。
+ */
+@Data
+public class InitUploadRequest {
+
+    private String type;
+
+    private String filename;
+
+    private Long totalSize;
+}
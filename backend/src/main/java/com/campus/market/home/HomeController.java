@@ -0,0 +1,30 @@
+package com.campus.market.home;
+
+import com.campus.market.common.api.ApiResponse;
+import com.campus.market.home.dto.HomeDto;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.security.Principal;
+
+/**
+ * 首页聚合接口：一次返回首页 / 商城页首屏所需的全部数据，匿名可访问。
+ */
+@RestController
+public class HomeController {
+
+    private final HomeService homeService;
+
+    public HomeController(HomeService homeService) {
+        this.homeService = homeService;
+    }
+
+    @GetMapping("/api/home")
+    public ApiResponse<HomeDto> home(@RequestParam(defaultValue = "8") int latestLimit,
+                                     @RequestParam(defaultValue = "20") int size,
+                                     Principal principal) {
+        String username = principal != null ? principal.getName() : null;
+        return ApiResponse.ok(homeService.load(username, latestLimit, size));
+    }
+}
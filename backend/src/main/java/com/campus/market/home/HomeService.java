@@ -0,0 +1,106 @@
+package com.campus.market.home;
+
+import com.campus.market.auth.dto.AuthResponse;
+import com.campus.market.favorite.FavoriteIdCache;
+import com.campus.market.home.dto.HomeDto;
+import com.campus.market.product.ProductReadCoalescer;
+import com.campus.market.product.ProductService;
+import com.campus.market.product.dto.CategoryDto;
+import com.campus.market.product.dto.ProductListItemDto;
+import com.campus.market.user.User;
+import com.campus.market.user.UserProfile;
+import com.campus.market.user.UserProfileRepository;
+import com.campus.market.user.UserRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * 首页聚合服务。
+ *
+ * 首页 / 商城页加载时原本要分别请求最新发布、分类、商品列表和当前用户，
+ * 这里把几路互不依赖的查询提交到有界线程池并发执行，总耗时取决于最慢的一路而不是各路之和。
+ * 首页只需要最新发布，商城页只需要分类和商品列表，页面用 latestLimit / size 为 0 跳过不需要的部分。
+ */
+@Service
+public class HomeService {
+
+    private final ProductService productService;
+    private final ProductReadCoalescer productReadCoalescer;
+    private final UserRepository userRepository;
+    private final UserProfileRepository userProfileRepository;
+    private final FavoriteIdCache favoriteIdCache;
+    private final Executor fanOutExecutor;
+
+    public HomeService(ProductService productService,
+                       ProductReadCoalescer productReadCoalescer,
+                       UserRepository userRepository,
+                       UserProfileRepository userProfileRepository,
+                       FavoriteIdCache favoriteIdCache,
+                       @Qualifier("fanOutExecutor") Executor fanOutExecutor) {
+        this.productService = productService;
+        this.productReadCoalescer = productReadCoalescer;
+        this.userRepository = userRepository;
+        this.userProfileRepository = userProfileRepository;
+        this.favoriteIdCache = favoriteIdCache;
+        this.fanOutExecutor = fanOutExecutor;
+    }
+
+    /**
+     * @param username    当前登录用户名，未登录时为 null
+     * @param latestLimit 最新发布条数，不大于 0 时不查询（latest 为空列表）
+     * @param size        商品列表首页条数，不大于 0 时不查询（products 为 null）
+     */
+    public HomeDto load(String username, int latestLimit, int size) {
+        CompletableFuture<List<ProductListItemDto>> latest = latestLimit > 0
+                ? async(() -> productReadCoalescer.getLatest(latestLimit))
+                : CompletableFuture.completedFuture(List.of());
+        CompletableFuture<Page<ProductListItemDto>> products = size > 0
+                ? async(() -> productService.list(null, null, null, null, "latest", 0, size))
+                : CompletableFuture.completedFuture(null);
+        CompletableFuture<AuthResponse> me = username != null
+                ? async(() -> loadMe(username))
+                : CompletableFuture.completedFuture(null);
+        // 分类来自内存缓存，直接在当前线程读取
+        List<CategoryDto> categories = productService.getCategories();
+
+        HomeDto dto = new HomeDto();
+        dto.setCategories(categories);
+        dto.setMe(join(me));
+        Long userId = dto.getMe() != null ? dto.getMe().getUserId() : null;
+        dto.setLatest(favoriteIdCache.mark(userId, join(latest)));
+        dto.setProducts(favoriteIdCache.mark(userId, join(products)));
+        return dto;
+    }
+
+    private AuthResponse loadMe(String username) {
+        User user = userRepository.findByUsername(username).orElse(null);
+        if (user == null) {
+            return null;
+        }
+        UserProfile profile = userProfileRepository.findByUserId(user.getId()).orElse(null);
+        String nickname = profile != null ? profile.getNickname() : user.getUsername();
+        return new AuthResponse(null, user.getId(), user.getUsername(), nickname);
+    }
+
+    private <T> CompletableFuture<T> async(Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(supplier, fanOutExecutor);
+    }
+
+    private <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw ex;
+        }
+    }
+}
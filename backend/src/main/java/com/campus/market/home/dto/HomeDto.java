@@ -0,0 +1,21 @@
+package com.campus.market.home.dto;
+
+import com.campus.market.auth.dto.AuthResponse;
+import com.campus.market.product.dto.CategoryDto;
+import com.campus.market.product.dto.ProductListItemDto;
+import lombok.Data;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * 首页聚合数据：一次请求返回最新发布、分类、商品列表首页以及当前登录用户（未登录时为 null）。
+ */
+@Data
+public class HomeDto {
+
+    private AuthResponse me;
+    private List<ProductListItemDto> latest;
+    private List<CategoryDto> categories;
+    private Page<ProductListItemDto> products;
+}
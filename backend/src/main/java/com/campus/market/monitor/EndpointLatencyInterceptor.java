@@ -0,0 +1,44 @@
+package com.campus.market.monitor;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * 记录每个控制器方法的耗时（从进入拦截器到响应处理完毕，含异常处理），结果写入 EndpointLatencyMetrics。
+ * 只统计映射到控制器方法的请求，静态资源不计入。
+ */
+@Component
+public class EndpointLatencyInterceptor implements HandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = EndpointLatencyInterceptor.class.getName() + ".start";
+
+    private final EndpointLatencyMetrics metrics;
+
+    public EndpointLatencyInterceptor(EndpointLatencyMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+            metrics.requestStarted();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        if (!(handler instanceof HandlerMethod method) || !(request.getAttribute(START_ATTRIBUTE) instanceof Long start)) {
+            return;
+        }
+        metrics.requestFinished();
+        boolean error = ex != null || response.getStatus() >= 500;
+        metrics.record(method.getBeanType().getSimpleName(), method.getMethod().getName(),
+                System.nanoTime() - start, error);
+    }
+}
@@ -0,0 +1,122 @@
+package com.campus.market.monitor;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按控制器方法统计接口耗时。
+ *
+ * 每个方法一个 HdrHistogram Recorder（微秒精度，2 位有效数字，上限 60 秒），写入无锁；
+ * 定时任务每隔 market.metrics.window-ms 取出一次区间直方图作为“上一窗口”，分位数按上一窗口计算，
+ * 多个抓取方同时读取也不会互相影响。请求数、耗时总和、错误数为启动以来的累计值。
+ *
+ * 同时维护正在处理的请求数，以及上一窗口的 5xx 占比。
+ */
+@Component
+public class EndpointLatencyMetrics {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.SECONDS.toMicros(60);
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder windowRequests = new LongAdder();
+    private final LongAdder windowErrors = new LongAdder();
+    private volatile double lastWindowErrorRatio;
+
+    void requestStarted() {
+        inFlight.incrementAndGet();
+    }
+
+    void requestFinished() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * 记录一次请求；endpoint 形如 "ProductController.list"，状态码 >= 500 计为错误。
+     */
+    void record(String controller, String method, long nanos, boolean error) {
+        Endpoint e = endpoints.computeIfAbsent(controller + "." + method, k -> new Endpoint(controller, method));
+        e.recorder.recordValue(Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 0), HIGHEST_TRACKABLE_MICROS));
+        e.count.increment();
+        e.sumNanos.add(nanos);
+        windowRequests.increment();
+        if (error) {
+            e.errors.increment();
+            windowErrors.increment();
+        }
+    }
+
+    /**
+     * 结束当前窗口：区间直方图成为新的“上一窗口”，并计算该窗口的错误占比。
+     */
+    @Scheduled(fixedDelayString = "${market.metrics.window-ms:60000}")
+    public void rotate() {
+        for (Endpoint e : endpoints.values()) {
+            e.lastWindow = e.recorder.getIntervalHistogram();
+        }
+        long requests = windowRequests.sumThenReset();
+        long errors = windowErrors.sumThenReset();
+        lastWindowErrorRatio = requests > 0 ? (double) errors / requests : 0;
+    }
+
+    void write(MetricsText text) {
+        Map<String, Endpoint> sorted = new TreeMap<>(endpoints);
+
+        text.header("http_server_requests_seconds", "summary",
+                "Controller method latency; quantiles cover the last window, count and sum are cumulative.");
+        for (Endpoint e : sorted.values()) {
+            Histogram window = e.lastWindow;
+            for (double q : QUANTILES) {
+                double seconds = window != null ? window.getValueAtPercentile(q * 100) / 1e6 : 0;
+                text.sample("http_server_requests_seconds", seconds,
+                        "controller", e.controller, "method", e.method, "quantile", Double.toString(q));
+            }
+            text.sample("http_server_requests_seconds_count", e.count.sum(),
+                    "controller", e.controller, "method", e.method);
+            text.sample("http_server_requests_seconds_sum", e.sumNanos.sum() / 1e9,
+                    "controller", e.controller, "method", e.method);
+        }
+
+        text.header("http_server_requests_max_seconds", "gauge", "Slowest request of the last window.");
+        for (Endpoint e : sorted.values()) {
+            Histogram window = e.lastWindow;
+            text.sample("http_server_requests_max_seconds", window != null ? window.getMaxValue() / 1e6 : 0,
+                    "controller", e.controller, "method", e.method);
+        }
+
+        text.header("http_server_errors_total", "counter", "Requests answered with a 5xx status.");
+        for (Endpoint e : sorted.values()) {
+            text.sample("http_server_errors_total", e.errors.sum(), "controller", e.controller, "method", e.method);
+        }
+
+        text.header("http_server_requests_in_flight", "gauge", "Requests currently inside a controller method.");
+        text.sample("http_server_requests_in_flight", inFlight.get());
+        text.header("http_server_error_ratio", "gauge", "Share of 5xx responses in the last window.");
+        text.sample("http_server_error_ratio", lastWindowErrorRatio);
+    }
+
+    private static final class Endpoint {
+        private final String controller;
+        private final String method;
+        private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 2);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sumNanos = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private volatile Histogram lastWindow;
+
+        private Endpoint(String controller, String method) {
+            this.controller = controller;
+            this.method = method;
+        }
+    }
+}
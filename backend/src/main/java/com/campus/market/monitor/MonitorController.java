@@ -0,0 +1,62 @@
+package com.campus.market.monitor;
+
+import com.campus.market.common.api.ApiResponse;
+import com.campus.market.monitor.dto.SlowQueryDto;
+import com.campus.market.monitor.dto.SqlEndpointStatsDto;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 运行指标查询接口。文本格式的汇总指标允许本机抓取，其余仅管理员可用。
+ */
+@RestController
+@RequestMapping("/api/system/metrics")
+public class MonitorController {
+
+    private final SqlStatementMetrics sqlStatementMetrics;
+    private final EndpointLatencyMetrics endpointLatencyMetrics;
+    private final PoolMetrics poolMetrics;
+    private final SlowQueryLog slowQueryLog;
+
+    public MonitorController(SqlStatementMetrics sqlStatementMetrics,
+                             EndpointLatencyMetrics endpointLatencyMetrics,
+                             PoolMetrics poolMetrics,
+                             SlowQueryLog slowQueryLog) {
+        this.sqlStatementMetrics = sqlStatementMetrics;
+        this.endpointLatencyMetrics = endpointLatencyMetrics;
+        this.poolMetrics = poolMetrics;
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    /**
+     * Prometheus 文本格式：接口耗时分位数、错误率、在途请求、线程池 / 连接池饱和度与 SQL 语句计数。
+     */
+    @GetMapping(produces = MetricsText.CONTENT_TYPE)
+    public String scrape() {
+        MetricsText text = new MetricsText();
+        endpointLatencyMetrics.write(text);
+        poolMetrics.write(text);
+        sqlStatementMetrics.write(text);
+        slowQueryLog.write(text);
+        return text.toString();
+    }
+
+    /**
+     * 各接口的 SQL 语句统计，按平均语句数降序。
+     */
+    @GetMapping("/sql")
+    public ApiResponse<List<SqlEndpointStatsDto>> sql() {
+        return ApiResponse.ok(sqlStatementMetrics.snapshot());
+    }
+
+    /**
+     * 最近的慢语句（新的在前），采样到的附带 EXPLAIN (ANALYZE, BUFFERS) 执行计划。
+     */
+    @GetMapping("/slow-queries")
+    public ApiResponse<List<SlowQueryDto>> slowQueries() {
+        return ApiResponse.ok(slowQueryLog.snapshot());
+    }
+}
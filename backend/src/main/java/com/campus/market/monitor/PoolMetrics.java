@@ -0,0 +1,168 @@
+package com.campus.market.monitor;
+
+import com.campus.market.common.db.JdbcConnectionLimiter;
+import com.campus.market.common.db.ReplicaRoutingDataSource;
+import com.campus.market.common.web.AdaptiveLimit;
+import com.campus.market.common.web.ConcurrencyLimitFilter;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.apache.catalina.connector.Connector;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.ToIntFunction;
+
+/**
+ * 线程池与连接池的饱和度：各类接口的自适应并发上限、Tomcat 请求线程池、各 Hikari 连接池
+ * （含读写分离的副本及虚拟线程模式下的连接限流）以及应用自己的业务线程池。
+ *
+ * Tomcat 的执行器在 Web 服务器启动后才能取到；连接池未初始化（尚无连接）时 MXBean 为空，对应指标暂不输出。
+ */
+@Component
+public class PoolMetrics {
+
+    private final Map<String, DataSource> dataSources;
+    private final Map<String, ThreadPoolTaskExecutor> taskExecutors;
+    private final ConcurrencyLimitFilter concurrencyLimitFilter;
+    private volatile Executor tomcatExecutor;
+
+    public PoolMetrics(Map<String, DataSource> dataSources, Map<String, ThreadPoolTaskExecutor> taskExecutors,
+                       ConcurrencyLimitFilter concurrencyLimitFilter) {
+        this.dataSources = new TreeMap<>(dataSources);
+        this.taskExecutors = new TreeMap<>(taskExecutors);
+        this.concurrencyLimitFilter = concurrencyLimitFilter;
+    }
+
+    @EventListener
+    public void onWebServerInitialized(WebServerInitializedEvent event) {
+        if (event.getWebServer() instanceof TomcatWebServer tomcat) {
+            Connector connector = tomcat.getTomcat().getConnector();
+            tomcatExecutor = connector.getProtocolHandler().getExecutor();
+        }
+    }
+
+    void write(MetricsText text) {
+        writeConcurrencyLimits(text);
+        writeTomcat(text);
+        writeJdbc(text);
+        writeExecutors(text);
+    }
+
+    private void writeConcurrencyLimits(MetricsText text) {
+        Map<ConcurrencyLimitFilter.Route, AdaptiveLimit> limits = concurrencyLimitFilter.limits();
+        if (limits.isEmpty()) {
+            return;
+        }
+        text.header("http_concurrency_limit", "gauge", "Current concurrency limit of the route class.");
+        limits.forEach((route, limit) -> text.sample("http_concurrency_limit", limit.limit(), "route", route(route)));
+        text.header("http_concurrency_in_flight", "gauge", "Requests of the route class currently admitted.");
+        limits.forEach((route, limit) -> text.sample("http_concurrency_in_flight", limit.inFlight(), "route", route(route)));
+        text.header("http_requests_shed_total", "counter", "Requests rejected with 503 by the concurrency limit.");
+        limits.forEach((route, limit) -> text.sample("http_requests_shed_total", limit.rejected(), "route", route(route)));
+    }
+
+    private void writeTomcat(MetricsText text) {
+        Executor executor = tomcatExecutor;
+        // 虚拟线程等非池化执行器没有可报告的饱和度
+        if (executor instanceof org.apache.tomcat.util.threads.ThreadPoolExecutor pool) {
+            text.header("tomcat_threads_busy", "gauge", "Tomcat request threads currently busy.");
+            text.sample("tomcat_threads_busy", pool.getActiveCount());
+            text.header("tomcat_threads_current", "gauge", "Tomcat request threads currently alive.");
+            text.sample("tomcat_threads_current", pool.getPoolSize());
+            text.header("tomcat_threads_max", "gauge", "Maximum Tomcat request threads.");
+            text.sample("tomcat_threads_max", pool.getMaximumPoolSize());
+            text.header("tomcat_queue_size", "gauge", "Requests waiting for a Tomcat thread.");
+            text.sample("tomcat_queue_size", pool.getQueue().size());
+        }
+    }
+
+    private void writeJdbc(MetricsText text) {
+        // 同一个连接池可能被多个 DataSource bean 包装（如读写分离的代理），按池名去重
+        Map<String, HikariDataSource> pools = new TreeMap<>();
+        Map<String, JdbcConnectionLimiter> limiters = new TreeMap<>();
+        List<ReplicaRoutingDataSource.Replica> replicas = new ArrayList<>();
+        dataSources.forEach((name, dataSource) -> {
+            if (dataSource instanceof ReplicaRoutingDataSource routing) {
+                routing.replicas().forEach(replica -> {
+                    pools.putIfAbsent(replica.name(), replica.pool());
+                    if (replica.connections() instanceof JdbcConnectionLimiter limiter) {
+                        limiters.putIfAbsent(replica.name(), limiter);
+                    }
+                });
+                replicas.addAll(routing.replicas());
+                return;
+            }
+            try {
+                if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                    HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+                    pools.putIfAbsent(poolName(name, pool), pool);
+                    if (dataSource.isWrapperFor(JdbcConnectionLimiter.class)) {
+                        limiters.putIfAbsent(poolName(name, pool), dataSource.unwrap(JdbcConnectionLimiter.class));
+                    }
+                }
+            } catch (SQLException ignored) {
+                // 不是 Hikari 连接池，跳过
+            }
+        });
+        text.header("jdbc_connections_active", "gauge", "Connections currently borrowed from the pool.");
+        pools.forEach((name, pool) -> sample(text, "jdbc_connections_active", name, pool, HikariPoolMXBean::getActiveConnections));
+        text.header("jdbc_connections_idle", "gauge", "Idle connections in the pool.");
+        pools.forEach((name, pool) -> sample(text, "jdbc_connections_idle", name, pool, HikariPoolMXBean::getIdleConnections));
+        text.header("jdbc_connections_pending", "gauge", "Threads waiting for a connection.");
+        pools.forEach((name, pool) -> sample(text, "jdbc_connections_pending", name, pool, HikariPoolMXBean::getThreadsAwaitingConnection));
+        text.header("jdbc_connections_max", "gauge", "Maximum pool size.");
+        pools.forEach((name, pool) -> text.sample("jdbc_connections_max", pool.getMaximumPoolSize(), "pool", name));
+        if (!limiters.isEmpty()) {
+            text.header("jdbc_limiter_permits_available", "gauge", "Free permits of the connection limiter.");
+            limiters.forEach((name, limiter) -> text.sample("jdbc_limiter_permits_available", limiter.available(), "pool", name));
+            text.header("jdbc_limiter_waiting", "gauge", "Threads queued on the connection limiter.");
+            limiters.forEach((name, limiter) -> text.sample("jdbc_limiter_waiting", limiter.waiting(), "pool", name));
+        }
+        if (!replicas.isEmpty()) {
+            text.header("jdbc_replica_up", "gauge", "Whether the replica passed its last health check.");
+            replicas.forEach(replica -> text.sample("jdbc_replica_up", replica.healthy() ? 1 : 0, "pool", replica.name()));
+            text.header("jdbc_replica_lag_seconds", "gauge", "Replication lag seen by the last health check.");
+            replicas.forEach(replica -> text.sample("jdbc_replica_lag_seconds", replica.lagMillis() / 1000.0, "pool", replica.name()));
+        }
+    }
+
+    private void writeExecutors(MetricsText text) {
+        text.header("executor_active_threads", "gauge", "Application executor threads currently running a task.");
+        taskExecutors.forEach((name, executor) -> text.sample("executor_active_threads", executor.getActiveCount(), "name", name));
+        text.header("executor_pool_max", "gauge", "Maximum application executor threads.");
+        taskExecutors.forEach((name, executor) -> text.sample("executor_pool_max", executor.getMaxPoolSize(), "name", name));
+        text.header("executor_queued_tasks", "gauge", "Tasks waiting in the application executor queue.");
+        taskExecutors.forEach((name, executor) -> {
+            ThreadPoolExecutor pool = executor.getThreadPoolExecutor();
+            text.sample("executor_queued_tasks", pool.getQueue().size(), "name", name);
+        });
+    }
+
+    private static void sample(MetricsText text, String metric, String name, HikariDataSource pool,
+                               ToIntFunction<HikariPoolMXBean> value) {
+        HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+        if (mxBean != null) {
+            text.sample(metric, value.applyAsInt(mxBean), "pool", name);
+        }
+    }
+
+    private static String route(ConcurrencyLimitFilter.Route route) {
+        return route.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static String poolName(String beanName, HikariDataSource pool) {
+        return pool.getPoolName() != null ? pool.getPoolName() : beanName;
+    }
+}
@@ -0,0 +1,131 @@
+package com.campus.market.monitor;
+
+import com.baomidou.mybatisplus.core.toolkit.PluginUtils;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MyBatis 插件：执行时间达到阈值的语句交给 SlowQueryLog 记录。
+ *
+ * 与 SqlStatementInterceptor 不同，这里不依赖请求上下文，定时任务中的慢语句同样会被记录。
+ * 绑定参数只在确认是慢 SELECT 后才取（写语句的参数可能含密码哈希、聊天内容，不采集）：用一个只做记录的
+ * PreparedStatement 代理让 ParameterHandler 再设置一遍参数，这样类型处理器的转换结果与真正执行时完全一致，
+ * 之后 EXPLAIN 也按同样的调用重放。
+ */
+@Intercepts({
+        @Signature(type = StatementHandler.class, method = "query", args = {Statement.class, ResultHandler.class}),
+        @Signature(type = StatementHandler.class, method = "update", args = {Statement.class}),
+        @Signature(type = StatementHandler.class, method = "batch", args = {Statement.class})
+})
+public class SlowQueryInterceptor implements Interceptor {
+
+    private final SlowQueryLog slowQueryLog;
+    private final long thresholdNanos;
+
+    public SlowQueryInterceptor(SlowQueryLog slowQueryLog, long thresholdMillis) {
+        this.slowQueryLog = slowQueryLog;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        long start = System.nanoTime();
+        Object result = invocation.proceed();
+        long elapsed = System.nanoTime() - start;
+        if (elapsed < thresholdNanos) {
+            return result;
+        }
+
+        StatementHandler handler = (StatementHandler) invocation.getTarget();
+        long rows = result instanceof List<?> list ? list.size()
+                : result instanceof Integer count ? count : 0;
+        String sql = handler.getBoundSql().getSql();
+        slowQueryLog.record(statementId(handler), sql,
+                slowQueryLog.capturesParameters(sql) ? captureParameters(handler) : null, elapsed, rows);
+        return result;
+    }
+
+    /**
+     * Mapper 方法名，形如 "ProductRepository.selectPage"。
+     */
+    private static String statementId(StatementHandler handler) {
+        String id = PluginUtils.mpStatementHandler(handler).mappedStatement().getId();
+        int method = id.lastIndexOf('.');
+        int type = method > 0 ? id.lastIndexOf('.', method - 1) : -1;
+        return id.substring(type + 1);
+    }
+
+    private static List<BoundParameter> captureParameters(StatementHandler handler) {
+        Map<Integer, BoundParameter> bound = new TreeMap<>();
+        PreparedStatement recorder = (PreparedStatement) Proxy.newProxyInstance(
+                SlowQueryInterceptor.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> {
+                    if (method.getName().startsWith("set") && args != null && args.length >= 2
+                            && args[0] instanceof Integer index) {
+                        bound.put(index, new BoundParameter(method, args));
+                    }
+                    return defaultValue(method.getReturnType());
+                });
+        try {
+            handler.getParameterHandler().setParameters(recorder);
+        } catch (RuntimeException | SQLException ex) {
+            // 个别类型处理器需要真实连接（如数组），取不到参数时只记录 SQL，不做 EXPLAIN
+            return null;
+        }
+        return new ArrayList<>(bound.values());
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) {
+            return null;
+        }
+        if (type == boolean.class) {
+            return Boolean.FALSE;
+        }
+        return type == long.class ? 0L : 0;
+    }
+
+    /**
+     * 一次 PreparedStatement.setXxx(index, value, ...) 调用。
+     */
+    record BoundParameter(Method method, Object[] args) {
+
+        void applyTo(PreparedStatement statement) throws ReflectiveOperationException {
+            method.invoke(statement, args);
+        }
+
+        /**
+         * 参数类型，管理接口默认只显示类型，不暴露参数值。
+         */
+        String typeName() {
+            if (method.getName().equals("setNull")) {
+                return "null";
+            }
+            return args[1] != null ? args[1].getClass().getSimpleName() : "null";
+        }
+
+        String display() {
+            if (method.getName().equals("setNull")) {
+                return "null";
+            }
+            String value = String.valueOf(args[1]);
+            return value.length() > 200 ? value.substring(0, 200) + "..." : value;
+        }
+    }
+}
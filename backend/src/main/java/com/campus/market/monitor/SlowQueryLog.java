@@ -0,0 +1,212 @@
+package com.campus.market.monitor;
+
+import com.campus.market.monitor.dto.SlowQueryDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * 慢查询日志：在内存中保留最近 market.slow-query.capacity 条慢语句（SQL、耗时、行数）。
+ *
+ * 绑定参数只对可 EXPLAIN 的 SELECT 采集，写操作的参数（密码哈希、手机号、聊天内容等）从不采集。
+ * 日志行中不含参数；管理接口默认只给出参数类型，market.slow-query.show-parameters 开启后才显示参数值。
+ * 用于 EXPLAIN 重放的原始参数只在采样任务中持有，执行完即丢弃，不随条目保留在内存中。
+ *
+ * 对慢 SELECT 按语句形状采样，每个形状每隔 explain-interval-ms 最多一次，在 explainExecutor 上另取一个连接执行
+ * EXPLAIN (ANALYZE, BUFFERS)，执行计划补写到对应条目。EXPLAIN 放在只读事务中并设置 statement_timeout，结束后回滚；
+ * ANALYZE 会真正执行语句，因此只对不加锁的 SELECT 做。执行器忙时直接放弃本次采样，不排队等待。
+ */
+@Component
+public class SlowQueryLog {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryLog.class);
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    /** 最多记住多少个语句形状的采样时间，超过后清空重新开始 */
+    private static final int MAX_SAMPLED_SHAPES = 1000;
+
+    private final DataSource dataSource;
+    private final ThreadPoolTaskExecutor explainExecutor;
+    private final int capacity;
+    private final boolean explain;
+    private final boolean showParameters;
+    private final long explainIntervalMillis;
+    private final long explainTimeoutMillis;
+
+    private final Deque<Entry> entries = new ArrayDeque<>();
+    private final Map<String, Long> lastExplained = new ConcurrentHashMap<>();
+    private final LongAdder total = new LongAdder();
+
+    public SlowQueryLog(DataSource dataSource,
+                        @Qualifier("explainExecutor") ThreadPoolTaskExecutor explainExecutor,
+                        @Value("${market.slow-query.capacity:200}") int capacity,
+                        @Value("${market.slow-query.explain:true}") boolean explain,
+                        @Value("${market.slow-query.show-parameters:false}") boolean showParameters,
+                        @Value("${market.slow-query.explain-interval-ms:60000}") long explainIntervalMillis,
+                        @Value("${market.slow-query.explain-timeout-ms:5000}") long explainTimeoutMillis) {
+        this.dataSource = dataSource;
+        this.explainExecutor = explainExecutor;
+        this.capacity = capacity;
+        this.explain = explain;
+        this.showParameters = showParameters;
+        this.explainIntervalMillis = explainIntervalMillis;
+        this.explainTimeoutMillis = explainTimeoutMillis;
+    }
+
+    /**
+     * 是否需要采集这条语句的绑定参数：只有可 EXPLAIN 的 SELECT 才采集，EXPLAIN 与参数展示都关闭时不采集。
+     */
+    boolean capturesParameters(String sql) {
+        return (explain || showParameters) && explainable(sql.trim());
+    }
+
+    /**
+     * 记录一条慢语句；parameters 为 null 表示没有采集（非 SELECT）或没能取到绑定参数。
+     */
+    void record(String statementId, String sql, List<SlowQueryInterceptor.BoundParameter> parameters,
+                long nanos, long rows) {
+        String text = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        Entry entry = new Entry(statementId, text, describe(parameters), nanos / 1_000_000, rows);
+        total.increment();
+        log.warn("慢查询 {} ms：{} {}", entry.millis, statementId, text);
+        synchronized (entries) {
+            if (entries.size() >= capacity) {
+                entries.removeLast();
+            }
+            entries.addFirst(entry);
+        }
+        if (explain && parameters != null && explainable(text) && sample(text)) {
+            try {
+                explainExecutor.execute(() -> explain(entry, parameters));
+            } catch (TaskRejectedException ex) {
+                // 正在执行其他 EXPLAIN，放弃本次采样
+            }
+        }
+    }
+
+    /**
+     * 最近的慢语句，新的在前。
+     */
+    public List<SlowQueryDto> snapshot() {
+        List<Entry> copy;
+        synchronized (entries) {
+            copy = new ArrayList<>(entries);
+        }
+        return copy.stream().map(Entry::toDto).toList();
+    }
+
+    void write(MetricsText text) {
+        text.header("sql_slow_statements_total", "counter", "Statements slower than market.slow-query.threshold-ms.");
+        text.sample("sql_slow_statements_total", total.sum());
+    }
+
+    private List<String> describe(List<SlowQueryInterceptor.BoundParameter> parameters) {
+        if (parameters == null) {
+            return Collections.emptyList();
+        }
+        return parameters.stream()
+                .map(parameter -> showParameters ? parameter.display() : parameter.typeName())
+                .toList();
+    }
+
+    private static boolean explainable(String sql) {
+        String lower = sql.toLowerCase(Locale.ROOT);
+        return (lower.startsWith("select") || lower.startsWith("with"))
+                && !lower.contains(" for update") && !lower.contains(" for share");
+    }
+
+    private boolean sample(String sql) {
+        if (lastExplained.size() >= MAX_SAMPLED_SHAPES) {
+            lastExplained.clear();
+        }
+        long now = System.currentTimeMillis();
+        String shape = SqlStatementInterceptor.shape(sql);
+        boolean[] due = new boolean[1];
+        lastExplained.compute(shape, (k, last) -> {
+            due[0] = last == null || now - last >= explainIntervalMillis;
+            return due[0] ? now : last;
+        });
+        return due[0];
+    }
+
+    private void explain(Entry entry, List<SlowQueryInterceptor.BoundParameter> parameters) {
+        StringBuilder plan = new StringBuilder();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            try {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SET LOCAL statement_timeout = " + explainTimeoutMillis);
+                }
+                try (PreparedStatement statement = connection.prepareStatement("EXPLAIN (ANALYZE, BUFFERS) " + entry.sql)) {
+                    for (SlowQueryInterceptor.BoundParameter parameter : parameters) {
+                        parameter.applyTo(statement);
+                    }
+                    try (ResultSet rs = statement.executeQuery()) {
+                        while (rs.next()) {
+                            plan.append(rs.getString(1)).append('\n');
+                        }
+                    }
+                }
+            } finally {
+                connection.rollback();
+            }
+            entry.plan = plan.toString();
+        } catch (SQLException | ReflectiveOperationException ex) {
+            entry.plan = "EXPLAIN 失败：" + ex;
+            log.debug("EXPLAIN 失败：{}", entry.sql, ex);
+        }
+    }
+
+    private static final class Entry {
+        private final LocalDateTime occurredAt = LocalDateTime.now();
+        private final String statementId;
+        private final String sql;
+        /** 参数值或参数类型，取决于 show-parameters */
+        private final List<String> parameters;
+        private final long millis;
+        private final long rows;
+        private volatile String plan;
+
+        private Entry(String statementId, String sql, List<String> parameters, long millis, long rows) {
+            this.statementId = statementId;
+            this.sql = sql;
+            this.parameters = parameters;
+            this.millis = millis;
+            this.rows = rows;
+        }
+
+        private SlowQueryDto toDto() {
+            SlowQueryDto dto = new SlowQueryDto();
+            dto.setOccurredAt(occurredAt);
+            dto.setStatementId(statementId);
+            dto.setSql(sql);
+            dto.setParameters(parameters);
+            dto.setMillis(millis);
+            dto.setRows(rows);
+            dto.setPlan(plan);
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.campus.market.monitor;
+
+/**
+ * 当前线程正在统计的 SqlStatementStats。
+ *
+ * 由 SqlStatementFilter 在请求开始时绑定、结束时解绑；提交到 fan-out 线程池的任务经 propagate 包装后
+ * 沿用提交方的统计对象，聚合接口并发执行的查询也计入同一个请求。
+ */
+public final class SqlStatementContext {
+
+    private static final ThreadLocal<SqlStatementStats> CURRENT = new ThreadLocal<>();
+
+    private SqlStatementContext() {
+    }
+
+    static SqlStatementStats current() {
+        return CURRENT.get();
+    }
+
+    static SqlStatementStats begin() {
+        SqlStatementStats stats = new SqlStatementStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * 统计一段代码执行的 SQL；结束后恢复外层的统计对象（外层不会计入这段代码的语句）。
+     */
+    public static SqlStatementStats measure(Runnable action) {
+        SqlStatementStats outer = CURRENT.get();
+        SqlStatementStats stats = begin();
+        try {
+            action.run();
+            return stats;
+        } finally {
+            restore(outer);
+        }
+    }
+
+    /**
+     * 用作线程池的 TaskDecorator：任务在执行线程上沿用提交线程的统计对象。
+     */
+    public static Runnable propagate(Runnable task) {
+        SqlStatementStats stats = CURRENT.get();
+        if (stats == null) {
+            return task;
+        }
+        return () -> {
+            SqlStatementStats previous = CURRENT.get();
+            CURRENT.set(stats);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    private static void restore(SqlStatementStats previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.campus.market.monitor;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按 HTTP 请求统计 SQL。
+ *
+ * 位于所有过滤器（包括 Spring Security）之前，请求期间执行的语句都计入同一个 SqlStatementStats，
+ * 结束后按接口累计到 SqlStatementMetrics。同一语句形状执行次数达到 market.sql-stats.repeat-threshold 时
+ * 视为疑似 N+1，每个 (接口, 语句) 组合只打印一次告警。
+ *
+ * 开发模式（market.sql-stats.dev-headers=true）下在响应头中返回本次请求的统计：
+ * X-Sql-Count、X-Sql-Rows、X-Sql-Time-Ms、X-Sql-Repeated（疑似 N+1 的语句形状数）。
+ * 响应头必须在响应体写出前设置，因此开发模式下会先缓存响应体，生产环境不要开启。
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SqlStatementFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementFilter.class);
+    /** 最多记录多少个已告警的 (接口, 语句) 组合，避免异常情况下无限增长 */
+    private static final int MAX_REPORTED = 1000;
+
+    private final SqlStatementMetrics metrics;
+    private final boolean devHeaders;
+    private final int repeatThreshold;
+    private final Set<String> reported = ConcurrentHashMap.newKeySet();
+
+    public SqlStatementFilter(SqlStatementMetrics metrics,
+                              @Value("${market.sql-stats.dev-headers:false}") boolean devHeaders,
+                              @Value("${market.sql-stats.repeat-threshold:5}") int repeatThreshold) {
+        this.metrics = metrics;
+        this.devHeaders = devHeaders;
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        SqlStatementStats stats = SqlStatementContext.begin();
+        ContentCachingResponseWrapper cached = devHeaders ? new ContentCachingResponseWrapper(response) : null;
+        try {
+            filterChain.doFilter(request, cached != null ? cached : response);
+        } finally {
+            SqlStatementContext.end();
+            String endpoint = endpoint(request);
+            List<Map.Entry<String, Integer>> repeated = stats.repeated(repeatThreshold);
+            metrics.record(endpoint, stats, !repeated.isEmpty());
+            for (Map.Entry<String, Integer> shape : repeated) {
+                warnOnce(endpoint, shape);
+            }
+            if (cached != null) {
+                cached.setHeader("X-Sql-Count", String.valueOf(stats.statements()));
+                cached.setHeader("X-Sql-Rows", String.valueOf(stats.rows()));
+                cached.setHeader("X-Sql-Time-Ms", String.valueOf(stats.nanos() / 1_000_000));
+                cached.setHeader("X-Sql-Repeated", String.valueOf(repeated.size()));
+                cached.copyBodyToResponse();
+            }
+        }
+    }
+
+    /**
+     * 接口名：HTTP 方法 + 匹配到的路由模板，未进入 MVC（如被安全过滤器拦截）时为 UNMATCHED。
+     */
+    static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : "UNMATCHED");
+    }
+
+    private void warnOnce(String endpoint, Map.Entry<String, Integer> shape) {
+        String key = endpoint + "\n" + shape.getKey();
+        if (reported.size() < MAX_REPORTED && reported.add(key)) {
+            log.warn("疑似 N+1：{} 的一次请求中同一语句执行了 {} 次：{}", endpoint, shape.getValue(), shape.getKey());
+        }
+    }
+}
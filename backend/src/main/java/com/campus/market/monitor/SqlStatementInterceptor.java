@@ -0,0 +1,55 @@
+package com.campus.market.monitor;
+
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.sql.Statement;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * MyBatis 插件：把每条真正发往数据库的语句计入当前线程的 SqlStatementStats。
+ *
+ * 拦截的是 StatementHandler 而不是 Executor，分页插件追加的 COUNT 查询、批量语句也都会被计入；
+ * 当前线程没有统计对象时（定时任务等）直接放行。
+ */
+@Intercepts({
+        @Signature(type = StatementHandler.class, method = "query", args = {Statement.class, ResultHandler.class}),
+        @Signature(type = StatementHandler.class, method = "update", args = {Statement.class}),
+        @Signature(type = StatementHandler.class, method = "batch", args = {Statement.class})
+})
+public class SqlStatementInterceptor implements Interceptor {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    /** IN (?, ?, ?) 与多行 VALUES 的占位符个数随参数变化，归一成同一形状 */
+    private static final Pattern PLACEHOLDER_RUN = Pattern.compile("\\?(\\s*,\\s*\\?)+");
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        SqlStatementStats stats = SqlStatementContext.current();
+        if (stats == null) {
+            return invocation.proceed();
+        }
+        long start = System.nanoTime();
+        Object result = invocation.proceed();
+        long elapsed = System.nanoTime() - start;
+
+        StatementHandler handler = (StatementHandler) invocation.getTarget();
+        long rows = result instanceof List<?> list ? list.size()
+                : result instanceof Integer count ? count : 0;
+        stats.record(shape(handler.getBoundSql().getSql()), rows, elapsed);
+        return result;
+    }
+
+    /**
+     * 语句形状：合并空白，并把连续的占位符归一成 "?..."。
+     */
+    public static String shape(String sql) {
+        String collapsed = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        return PLACEHOLDER_RUN.matcher(collapsed).replaceAll("?...");
+    }
+}
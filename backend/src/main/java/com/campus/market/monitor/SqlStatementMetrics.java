@@ -0,0 +1,77 @@
+package com.campus.market.monitor;
+
+import com.campus.market.monitor.dto.SqlEndpointStatsDto;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按接口累计的 SQL 统计：请求数、语句总数、单次请求最多语句数、返回 / 影响行数、SQL 耗时，
+ * 以及被判定为疑似 N+1 的请求数。只在内存中累计，重启后清零。
+ */
+@Component
+public class SqlStatementMetrics {
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    void record(String endpoint, SqlStatementStats stats, boolean repeated) {
+        Endpoint e = endpoints.computeIfAbsent(endpoint, k -> new Endpoint());
+        int statements = stats.statements();
+        e.requests.increment();
+        e.statements.add(statements);
+        e.rows.add(stats.rows());
+        e.nanos.add(stats.nanos());
+        e.maxStatements.accumulateAndGet(statements, Math::max);
+        if (repeated) {
+            e.repeatedRequests.increment();
+        }
+    }
+
+    /**
+     * 各接口的累计值，按平均语句数降序。
+     */
+    public List<SqlEndpointStatsDto> snapshot() {
+        return endpoints.entrySet().stream()
+                .map(entry -> {
+                    Endpoint e = entry.getValue();
+                    long requests = e.requests.sum();
+                    SqlEndpointStatsDto dto = new SqlEndpointStatsDto();
+                    dto.setEndpoint(entry.getKey());
+                    dto.setRequests(requests);
+                    dto.setStatements(e.statements.sum());
+                    dto.setAvgStatements(requests > 0 ? (double) e.statements.sum() / requests : 0);
+                    dto.setMaxStatements(e.maxStatements.get());
+                    dto.setRows(e.rows.sum());
+                    dto.setSqlMillis(e.nanos.sum() / 1_000_000);
+                    dto.setRepeatedRequests(e.repeatedRequests.sum());
+                    return dto;
+                })
+                .sorted(Comparator.comparingDouble(SqlEndpointStatsDto::getAvgStatements).reversed())
+                .toList();
+    }
+
+    void write(MetricsText text) {
+        Map<String, Endpoint> sorted = new TreeMap<>(endpoints);
+        text.header("sql_statements_total", "counter", "SQL statements executed while serving requests.");
+        sorted.forEach((endpoint, e) -> text.sample("sql_statements_total", e.statements.sum(), "endpoint", endpoint));
+        text.header("sql_requests_total", "counter", "Requests observed by the SQL statement counter.");
+        sorted.forEach((endpoint, e) -> text.sample("sql_requests_total", e.requests.sum(), "endpoint", endpoint));
+        text.header("sql_repeated_requests_total", "counter", "Requests that repeated one statement shape (suspected N+1).");
+        sorted.forEach((endpoint, e) -> text.sample("sql_repeated_requests_total", e.repeatedRequests.sum(), "endpoint", endpoint));
+    }
+
+    private static final class Endpoint {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder repeatedRequests = new LongAdder();
+        private final AtomicInteger maxStatements = new AtomicInteger();
+    }
+}
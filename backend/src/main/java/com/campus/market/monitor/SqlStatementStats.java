@@ -0,0 +1,59 @@
+package com.campus.market.monitor;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一次 HTTP 请求（或一段被测代码）内执行的 SQL 统计：语句数、影响 / 返回行数、耗时，以及每种语句形状的执行次数。
+ *
+ * “形状”即 MyBatis 生成的带占位符的 SQL，参数不同的同一查询形状相同；同一形状在一次请求中反复出现，
+ * 通常就是循环里逐条查询的 N+1。聚合接口会把查询分发到 fan-out 线程池，因此各方法都加锁。
+ */
+public class SqlStatementStats {
+
+    private int statements;
+    private long rows;
+    private long nanos;
+    private final Map<String, Integer> shapes = new LinkedHashMap<>();
+
+    synchronized void record(String shape, long rowCount, long elapsedNanos) {
+        statements++;
+        rows += Math.max(rowCount, 0);
+        nanos += elapsedNanos;
+        shapes.merge(shape, 1, Integer::sum);
+    }
+
+    public synchronized int statements() {
+        return statements;
+    }
+
+    public synchronized long rows() {
+        return rows;
+    }
+
+    public synchronized long nanos() {
+        return nanos;
+    }
+
+    /**
+     * 执行次数达到 threshold 的语句形状及其次数，按次数降序。
+     */
+    public synchronized List<Map.Entry<String, Integer>> repeated(int threshold) {
+        return shapes.entrySet().stream()
+                .filter(e -> e.getValue() >= threshold)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .map(e -> Map.entry(e.getKey(), e.getValue()))
+                .toList();
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder sb = new StringBuilder()
+                .append(statements).append(" statements, ")
+                .append(rows).append(" rows, ")
+                .append(nanos / 1_000_000).append(" ms");
+        shapes.forEach((shape, count) -> sb.append("\n  ").append(count).append(" x ").append(shape));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,25 @@
+package com.campus.market.monitor.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 一条慢语句。
+ *
+ * statementId 形如 "ProductRepository.selectPage"；parameters 按占位符顺序给出绑定参数的类型
+ * （market.slow-query.show-parameters 开启时为参数值），只有 SELECT 才有；
+ * plan 为采样到的 EXPLAIN (ANALYZE, BUFFERS) 输出，未采样或尚未执行完时为 null。
+ */
+@Data
+public class SlowQueryDto {
+
+    private LocalDateTime occurredAt;
+    private String statementId;
+    private String sql;
+    private List<String> parameters;
+    private long millis;
+    private long rows;
+    private String plan;
+}
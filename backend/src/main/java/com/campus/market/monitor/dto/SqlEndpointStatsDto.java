@@ -0,0 +1,22 @@
+package com.campus.market.monitor.dto;
+
+import lombok.Data;
+
+/**
+ * 单个接口的 SQL 累计统计。
+ *
+ * endpoint 形如 "GET /api/products/{id}"；repeatedRequests 为同一语句形状在一次请求内执行次数
+ * 达到阈值（疑似 N+1）的请求数。
+ */
+@Data
+public class SqlEndpointStatsDto {
+
+    private String endpoint;
+    private long requests;
+    private long statements;
+    private double avgStatements;
+    private int maxStatements;
+    private long rows;
+    private long sqlMillis;
+    private long repeatedRequests;
+}
@@ -5,7 +5,9 @@ import com.campus.market.chat.ChatService;
 import com.campus.market.common.exception.BusinessException;
 import com.campus.market.order.dto.CreateOrderRequest;
 import com.campus.market.order.dto.OrderDto;
+import com.campus.market.product.LatestProductFeed;
 import com.campus.market.product.Product;
+import com.campus.market.product.ProductFacetService;
 import com.campus.market.product.ProductImage;
 import com.campus.market.product.ProductImageRepository;
 import com.campus.market.product.ProductRepository;
@@ -14,8 +16,13 @@ import com.campus.market.user.UserProfileRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -37,17 +44,23 @@ public class OrderService {
     private final ProductImageRepository productImageRepository;
     private final UserProfileRepository userProfileRepository;
     private final ChatService chatService;
+    private final ProductFacetService productFacetService;
+    private final LatestProductFeed latestProductFeed;
 
     public OrderService(OrderRepository orderRepository,
                         ProductRepository productRepository,
                         ProductImageRepository productImageRepository,
                         UserProfileRepository userProfileRepository,
-                        ChatService chatService) {
+                        ChatService chatService,
+                        ProductFacetService productFacetService,
+                        LatestProductFeed latestProductFeed) {
         this.orderRepository = orderRepository;
         this.productRepository = productRepository;
         this.productImageRepository = productImageRepository;
         this.userProfileRepository = userProfileRepository;
         this.chatService = chatService;
+        this.productFacetService = productFacetService;
+        this.latestProductFeed = latestProductFeed;
     }
 
     /**
@@ -89,7 +102,7 @@ public class OrderService {
 
         chatService.sendOrderEventMessage(order.getBuyerId(), order.getSellerId(), order.getProductId(), order.getBuyerId(), "我已拍下该商品，请尽快发货～");
 
-        return toDto(order);
+        return toDtos(List.of(order)).get(0);
     }
 
     /**
@@ -115,7 +128,7 @@ public class OrderService {
 
         chatService.sendOrderEventMessage(order.getBuyerId(), order.getSellerId(), order.getProductId(), order.getSellerId(), "我已发货，请注意查收～");
 
-        return toDto(order);
+        return toDtos(List.of(order)).get(0);
     }
 
     /**
@@ -142,13 +155,18 @@ public class OrderService {
         // 同步更新商品状态为已售出，避免继续展示在最新发布列表中
         Product product = productRepository.findById(order.getProductId()).orElse(null);
         if (product != null && (product.getStatus() == null || !"SOLD".equals(product.getStatus()))) {
+            ProductFacetService.Key facetBefore = productFacetService.keyOf(product);
             product.setStatus("SOLD");
+            // 状态变更同样推进 updated_at，商品详情与列表的 ETag 随之失效
+            product.preUpdate();
             productRepository.update(product);
+            productFacetService.onChange(facetBefore, product);
+            latestProductFeed.remove(product.getId());
         }
 
         chatService.sendOrderEventMessage(order.getBuyerId(), order.getSellerId(), order.getProductId(), order.getBuyerId(), "我已确认收货，本次交易已完成～");
 
-        return toDto(order);
+        return toDtos(List.of(order)).get(0);
     }
 
     /**
@@ -178,7 +196,7 @@ public class OrderService {
 
         List<OrderEntity> orders = orderRepository.selectList(wrapper);
 
-        return orders.stream().map(this::toDto).collect(Collectors.toList());
+        return toDtos(orders);
     }
 
     /**
@@ -197,45 +215,70 @@ public class OrderService {
             throw new BusinessException("无权查看该订单");
         }
 
-        return toDto(order);
+        return toDtos(List.of(order)).get(0);
     }
 
-    private OrderDto toDto(OrderEntity order) {
-        OrderDto dto = new OrderDto();
-        dto.setId(order.getId());
-        dto.setStatus(order.getStatus());
-        dto.setProductId(order.getProductId());
-        dto.setPrice(order.getPriceSnapshot());
-        dto.setMeetLocation(order.getMeetLocation());
-        dto.setMeetTime(order.getMeetTime());
-        dto.setCreatedAt(order.getCreatedAt());
-
-        // 商品信息快照
-        Product product = productRepository.findById(order.getProductId()).orElse(null);
-        if (product != null) {
-            dto.setProductTitle(product.getTitle());
-            List<ProductImage> images = productImageRepository.findByProductIdOrderBySortOrderAsc(product.getId());
-            if (!images.isEmpty()) {
-                dto.setProductImage(images.get(0).getUrl());
+    /**
+     * 批量转换订单：商品、首图和买卖双方资料各用一条 IN 查询取回，而不是每个订单各查四次。
+     */
+    private List<OrderDto> toDtos(List<OrderEntity> orders) {
+        if (orders.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> productIds = orders.stream().map(OrderEntity::getProductId)
+                .filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, product -> product));
+        Map<Long, String> images = new HashMap<>();
+        if (!products.isEmpty()) {
+            for (ProductImage image : productImageRepository.findFirstByProductIdIn(products.keySet())) {
+                images.put(image.getProductId(), image.getUrl());
             }
         }
-
-        // 买家信息
-        dto.setBuyerId(order.getBuyerId());
-        UserProfile buyerProfile = userProfileRepository.findByUserId(order.getBuyerId()).orElse(null);
-        if (buyerProfile != null) {
-            dto.setBuyerName(buyerProfile.getNickname());
-            dto.setBuyerAvatar(buyerProfile.getAvatarUrl());
+        Set<Long> userIds = new HashSet<>();
+        for (OrderEntity order : orders) {
+            userIds.add(order.getBuyerId());
+            userIds.add(order.getSellerId());
         }
+        userIds.remove(null);
+        Map<Long, UserProfile> profiles = userProfileRepository.findByUserIdIn(userIds).stream()
+                .collect(Collectors.toMap(UserProfile::getUserId, profile -> profile, (a, b) -> a));
+
+        List<OrderDto> dtoList = new ArrayList<>(orders.size());
+        for (OrderEntity order : orders) {
+            OrderDto dto = new OrderDto();
+            dto.setId(order.getId());
+            dto.setStatus(order.getStatus());
+            dto.setProductId(order.getProductId());
+            dto.setPrice(order.getPriceSnapshot());
+            dto.setMeetLocation(order.getMeetLocation());
+            dto.setMeetTime(order.getMeetTime());
+            dto.setCreatedAt(order.getCreatedAt());
+
+            // 商品信息快照
+            Product product = products.get(order.getProductId());
+            if (product != null) {
+                dto.setProductTitle(product.getTitle());
+                dto.setProductImage(images.get(product.getId()));
+            }
 
-        // 卖家信息
-        dto.setSellerId(order.getSellerId());
-        UserProfile sellerProfile = userProfileRepository.findByUserId(order.getSellerId()).orElse(null);
-        if (sellerProfile != null) {
-            dto.setSellerName(sellerProfile.getNickname());
-            dto.setSellerAvatar(sellerProfile.getAvatarUrl());
-        }
+            // 买家信息
+            dto.setBuyerId(order.getBuyerId());
+            UserProfile buyerProfile = profiles.get(order.getBuyerId());
+            if (buyerProfile != null) {
+                dto.setBuyerName(buyerProfile.getNickname());
+                dto.setBuyerAvatar(buyerProfile.getAvatarUrl());
+            }
 
-        return dto;
+            // 卖家信息
+            dto.setSellerId(order.getSellerId());
+            UserProfile sellerProfile = profiles.get(order.getSellerId());
+            if (sellerProfile != null) {
+                dto.setSellerName(sellerProfile.getNickname());
+                dto.setSellerAvatar(sellerProfile.getAvatarUrl());
+            }
+            dtoList.add(dto);
+        }
+        return dtoList;
     }
 }
@@ -0,0 +1,128 @@
+package com.campus.market.product;
+
+import com.campus.market.common.exception.BusinessException;
+import com.campus.market.common.tx.AfterCommit;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 商品分类只读缓存。
+ *
+ * 分类表很小且几乎不变，这里把全量分类做成不可变快照（按 id、按名称两套索引），
+ * 读路径只访问快照、不查数据库；新增分类时复制一份新快照再整体替换（copy-on-write）。
+ */
+@Component
+public class CategoryCache {
+
+    private final CategoryRepository categoryRepository;
+
+    private volatile Snapshot snapshot;
+
+    public CategoryCache(CategoryRepository categoryRepository) {
+        this.categoryRepository = categoryRepository;
+    }
+
+    /**
+     * 全部分类，按 id 升序。
+     */
+    public List<Category> all() {
+        return current().all;
+    }
+
+    public Optional<Category> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(current().byId.get(id));
+    }
+
+    public Optional<Category> findByName(String name) {
+        if (name == null || name.isBlank()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(current().byName.get(name));
+    }
+
+    /**
+     * 按名称获取分类，不存在时创建。
+     *
+     * 新分类在当前事务提交后才发布到快照，避免事务回滚后缓存里残留无效 id。
+     * 在快照发布之前，其他调用方仍会未命中缓存，所以创建依赖 name 上的唯一约束：
+     * INSERT ... ON CONFLICT DO NOTHING 会等待并发插入同名分类的事务结束，冲突时改为查询已提交的那一行。
+     * 这里不持有锁，避免锁与数据库行锁交叉等待。
+     */
+    public Category resolveOrCreate(String name) {
+        Optional<Category> cached = findByName(name);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        Category category;
+        Long id = categoryRepository.insertIgnoreReturningId(name);
+        if (id != null) {
+            category = new Category();
+            category.setId(id);
+            category.setName(name);
+        } else {
+            category = categoryRepository.findByName(name);
+            if (category == null) {
+                throw new BusinessException("分类创建失败：" + name);
+            }
+        }
+        Category resolved = category;
+        AfterCommit.run(() -> publish(resolved));
+        return resolved;
+    }
+
+    /**
+     * 从数据库重新加载全部分类。
+     */
+    public synchronized void refresh() {
+        snapshot = new Snapshot(categoryRepository.findAll());
+    }
+
+    private Snapshot current() {
+        Snapshot s = snapshot;
+        if (s == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                s = snapshot;
+            }
+        }
+        return s;
+    }
+
+    private synchronized void publish(Category category) {
+        List<Category> categories = new ArrayList<>(current().all);
+        categories.removeIf(c -> c.getId().equals(category.getId()));
+        categories.add(category);
+        snapshot = new Snapshot(categories);
+    }
+
+    private static final class Snapshot {
+        private final List<Category> all;
+        private final Map<Long, Category> byId;
+        private final Map<String, Category> byName;
+
+        private Snapshot(List<Category> categories) {
+            List<Category> sorted = new ArrayList<>(categories);
+            sorted.sort(Comparator.comparing(Category::getId));
+            Map<Long, Category> ids = new HashMap<>();
+            Map<String, Category> names = new HashMap<>();
+            for (Category category : sorted) {
+                ids.put(category.getId(), category);
+                names.put(category.getName(), category);
+            }
+            this.all = List.copyOf(sorted);
+            this.byId = Map.copyOf(ids);
+            this.byName = Map.copyOf(names);
+        }
+    }
+}
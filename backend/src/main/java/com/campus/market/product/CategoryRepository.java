@@ -4,7 +4,10 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,9 +27,25 @@ public interface CategoryRepository extends BaseMapper<Category> {
         return selectOne(wrapper);
     }
 
+    default List<Category> findByNameIn(Collection<String> names) {
+        if (names == null || names.isEmpty()) {
+            return Collections.emptyList();
+        }
+        LambdaQueryWrapper<Category> wrapper = Wrappers.lambdaQuery(Category.class)
+                .in(Category::getName, names);
+        return selectList(wrapper);
+    }
+
     default List<Category> findAll() {
         return selectList(null);
     }
 
     // insert 方法由 BaseMapper 提供，无需重写
+
+    /**
+     * 插入分类，名称冲突时什么也不做。
+     *
+     * @return 新分类 id；名称已存在时返回 null
+     */
+    Long insertIgnoreReturningId(@Param("name") String name);
 }
@@ -0,0 +1,160 @@
+package com.campus.market.product;
+
+import com.campus.market.common.tx.AfterCommit;
+import com.campus.market.product.dto.ProductListItemDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 首页“最新发布”内存信息流。
+ *
+ * 保存最新的若干条在售商品（已组装好的 ProductListItemDto），按发布时间倒序，容量固定。
+ * 内容始终是“全部在售商品按时间倒序”的一个前缀：新发布的商品插入头部，超出容量的尾部被丢弃，
+ * 下架 / 售出的商品直接移除。读路径只读取不可变快照，写入时复制后整体替换。
+ *
+ * 状态为 null 表示尚未加载（冷启动或批量导入后失效），此时由 ProductService 回退到 SQL 并重新填充。
+ * 重新填充用的查询与 put / remove 并发：查询前取 mark()，期间有任何变更提交时 seed 放弃这份快照，
+ * 否则刚发布的商品会从首页消失，或已售出的商品重新出现。
+ */
+@Component
+public class LatestProductFeed {
+
+    private static final Comparator<ProductListItemDto> NEWEST_FIRST =
+            Comparator.comparing(ProductListItemDto::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+                    .thenComparing(ProductListItemDto::getId, Comparator.nullsLast(Comparator.reverseOrder()));
+
+    private final int capacity;
+
+    private volatile State state;
+    /** 每次内容变化后递增；0 表示尚未加载 */
+    private volatile long version;
+    /** 每次 put / remove / invalidate 生效时递增（不论是否已加载），用于判断 seed 的快照是否过时 */
+    private volatile long changes;
+
+    public LatestProductFeed(@Value("${market.latest-feed.capacity:64}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * 当前内容的变更序号，未加载时为 0。
+     */
+    public long version() {
+        return state != null ? version : 0L;
+    }
+
+    /**
+     * 取最新的 limit 条；缓冲区未加载或条数不足以确定结果时返回 null。
+     */
+    public List<ProductListItemDto> latest(int limit) {
+        State s = state;
+        if (s == null) {
+            return null;
+        }
+        if (limit <= s.items.size()) {
+            return s.items.subList(0, Math.max(limit, 0));
+        }
+        return s.exhaustive ? s.items : null;
+    }
+
+    public boolean contains(Long productId) {
+        State s = state;
+        return s != null && s.items.stream().anyMatch(dto -> Objects.equals(dto.getId(), productId));
+    }
+
+    /**
+     * 查询重新填充用的数据之前调用，结果传给 seed。
+     */
+    public long mark() {
+        return changes;
+    }
+
+    /**
+     * 用数据库中最新的商品重新填充；newest 需已按发布时间倒序排列，mark 为查询前取得的 mark()。
+     * 查询结果少于容量时说明在售商品已全部在内，之后较早的商品重新上架也可以直接插入。
+     *
+     * @return 查询期间有变更提交、快照已过时而被放弃时返回 false，由下次读取或定时任务再填充
+     */
+    public synchronized boolean seed(long mark, List<ProductListItemDto> newest) {
+        if (changes != mark) {
+            return false;
+        }
+        List<ProductListItemDto> items = newest.size() > capacity ? newest.subList(0, capacity) : newest;
+        State next = new State(items, newest.size() < capacity);
+        // 内容未变（定时重新填充的常见情况）时不推进版本，客户端缓存的 ETag 继续有效
+        if (state == null || !state.items.equals(next.items) || state.exhaustive != next.exhaustive) {
+            state = next;
+            version++;
+        }
+        return true;
+    }
+
+    /**
+     * 新增或更新一条在售商品，事务提交后生效；非在售状态等同于移除。
+     */
+    public void put(ProductListItemDto dto) {
+        AfterCommit.run(() -> apply(dto.getId(), dto));
+    }
+
+    public void remove(Long productId) {
+        AfterCommit.run(() -> apply(productId, null));
+    }
+
+    /**
+     * 标记为未加载，下次读取时从数据库重新填充（用于批量导入等大量变更）。
+     */
+    public void invalidate() {
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                state = null;
+                changes++;
+            }
+        });
+    }
+
+    private synchronized void apply(Long productId, ProductListItemDto dto) {
+        changes++;
+        State s = state;
+        if (s == null) {
+            return;
+        }
+        List<ProductListItemDto> items = new ArrayList<>(s.items);
+        items.removeIf(item -> Objects.equals(item.getId(), productId));
+        boolean exhaustive = s.exhaustive;
+
+        if (dto != null && "ON_SALE".equals(dto.getStatus())) {
+            // 缓冲区不完整时，比最后一条还旧的商品不在前缀范围内，不能插入
+            boolean olderThanTail = !items.isEmpty()
+                    && NEWEST_FIRST.compare(dto, items.get(items.size() - 1)) > 0;
+            if (exhaustive || (!items.isEmpty() && !olderThanTail)) {
+                items.add(dto);
+                items.sort(NEWEST_FIRST);
+            }
+        }
+        if (items.size() > capacity) {
+            items = items.subList(0, capacity);
+            exhaustive = false;
+        }
+        // 不完整的缓冲区被删空后无法判断新的前缀，等待重新填充
+        state = items.isEmpty() && !exhaustive ? null : new State(items, exhaustive);
+        version++;
+    }
+
+    private static final class State {
+        private final List<ProductListItemDto> items;
+        private final boolean exhaustive;
+
+        private State(List<ProductListItemDto> items, boolean exhaustive) {
+            this.items = List.copyOf(items);
+            this.exhaustive = exhaustive;
+        }
+    }
+}
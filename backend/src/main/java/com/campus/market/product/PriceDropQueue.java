@@ -0,0 +1,45 @@
+package com.campus.market.product;
+
+import com.campus.market.common.tx.AfterCommit;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 降价事件缓冲。
+ *
+ * 商品降价时记下“窗口内第一次降价前的价格”，同一商品在一个窗口内多次改价只保留一条；
+ * 发送方定期取出，与商品当前价格比较后决定是否通知收藏者。只在内存中，重启后未发送的事件丢弃。
+ */
+@Component
+public class PriceDropQueue {
+
+    private final Map<Long, BigDecimal> previousPrices = new ConcurrentHashMap<>();
+
+    /**
+     * 记录一次改价，只有降价才会入队，事务提交后生效。
+     */
+    public void record(Long productId, BigDecimal oldPrice, BigDecimal newPrice) {
+        if (productId == null || oldPrice == null || newPrice == null || newPrice.compareTo(oldPrice) >= 0) {
+            return;
+        }
+        AfterCommit.run(() -> previousPrices.putIfAbsent(productId, oldPrice));
+    }
+
+    /**
+     * 取出当前窗口内的全部事件：商品 id -> 降价前价格。
+     */
+    public Map<Long, BigDecimal> drain() {
+        Map<Long, BigDecimal> drained = new HashMap<>();
+        for (Long productId : previousPrices.keySet()) {
+            BigDecimal price = previousPrices.remove(productId);
+            if (price != null) {
+                drained.put(productId, price);
+            }
+        }
+        return drained;
+    }
+}
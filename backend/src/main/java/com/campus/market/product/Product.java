@@ -1,6 +1,8 @@
 package com.campus.market.product;
 
+import com.baomidou.mybatisplus.annotation.FieldStrategy;
 import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableId;
 import com.baomidou.mybatisplus.annotation.TableName;
 import jakarta.persistence.*;
@@ -48,9 +50,22 @@ public class Product {
     @Column(length = 100)
     private String location;
 
+    /**
+     * 浏览数只由 incrementViewCount 原子自增；按实体更新时不写该列，以免用先前读到的旧值覆盖期间的自增。
+     */
     @Column(name = "view_count", nullable = false)
+    @TableField(value = "view_count", updateStrategy = FieldStrategy.NEVER)
     private Long viewCount = 0L;
 
+    /**
+     * 收藏数冗余列，由 FavoriteCountService 定期回写，仅用于 SQL 排序；
+     * 读取以内存计数为准，因此实体查询和更新都不涉及该列。
+     */
+    @Column(name = "favorite_count", nullable = false)
+    @TableField(value = "favorite_count", select = false,
+            insertStrategy = FieldStrategy.NEVER, updateStrategy = FieldStrategy.NEVER)
+    private Integer favoriteCount = 0;
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
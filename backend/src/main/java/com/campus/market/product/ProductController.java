@@ -1,35 +1,62 @@
 package com.campus.market.product;
 
 import com.campus.market.common.api.ApiResponse;
+import com.campus.market.product.dto.BatchCreateProductRequest;
+import com.campus.market.product.dto.BatchCreateProductResult;
 import com.campus.market.product.dto.CategoryDto;
 import com.campus.market.product.dto.CreateProductRequest;
 import com.campus.market.product.dto.ProductDto;
+import com.campus.market.product.dto.ProductFacetsDto;
 import com.campus.market.product.dto.ProductListItemDto;
 import com.campus.market.product.dto.UpdateProductRequest;
 import com.campus.market.product.dto.UpdateProductStatusRequest;
+import com.campus.market.common.db.SkipReadYourWrites;
 import com.campus.market.common.exception.BusinessException;
+import com.campus.market.common.web.ConditionalGet;
+import com.campus.market.favorite.FavoriteIdCache;
 import com.campus.market.user.User;
 import com.campus.market.user.UserRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
+import java.util.Objects;
 
 @RestController
 @RequestMapping("/api")
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductReadCoalescer productReadCoalescer;
+    private final ProductImportService productImportService;
+    private final ProductFacetService productFacetService;
+    private final FavoriteIdCache favoriteIdCache;
     private final UserRepository userRepository;
 
-    public ProductController(ProductService productService, UserRepository userRepository) {
+    public ProductController(ProductService productService,
+                             ProductReadCoalescer productReadCoalescer,
+                             ProductImportService productImportService,
+                             ProductFacetService productFacetService,
+                             FavoriteIdCache favoriteIdCache,
+                             UserRepository userRepository) {
         this.productService = productService;
+        this.productReadCoalescer = productReadCoalescer;
+        this.productImportService = productImportService;
+        this.productFacetService = productFacetService;
+        this.favoriteIdCache = favoriteIdCache;
         this.userRepository = userRepository;
     }
 
     @GetMapping("/products/latest")
-    public ApiResponse<List<ProductListItemDto>> latest(@RequestParam(defaultValue = "8") int limit) {
-        return ApiResponse.ok(productService.getLatest(limit));
+    public ApiResponse<List<ProductListItemDto>> latest(@RequestParam(defaultValue = "8") int limit,
+                                                        ServletWebRequest webRequest,
+                                                        java.security.Principal principal) {
+        Long userId = optionalUserId(principal);
+        if (ConditionalGet.notModified(webRequest, "latest-" + limit + favoriteScope(userId), productService.latestVersion())) {
+            return null;
+        }
+        return ApiResponse.ok(favoriteIdCache.mark(userId, productReadCoalescer.getLatest(limit)));
     }
 
     @GetMapping("/products")
@@ -40,17 +67,40 @@ public class ProductController {
             @RequestParam(required = false) java.math.BigDecimal maxPrice,
             @RequestParam(required = false, defaultValue = "latest") String sort,
             @RequestParam(required = false, defaultValue = "0") int page,
-            @RequestParam(required = false, defaultValue = "20") int size
+            @RequestParam(required = false, defaultValue = "20") int size,
+            ServletWebRequest webRequest,
+            java.security.Principal principal
     ) {
-        return ApiResponse.ok(productService.list(categoryId, keyword, minPrice, maxPrice, sort, page, size));
+        Long userId = optionalUserId(principal);
+        String query = "list-" + Integer.toHexString(Objects.hash(categoryId, keyword, minPrice, maxPrice, sort, page, size))
+                + favoriteScope(userId);
+        if (ConditionalGet.notModified(webRequest, query, productService.listVersion(categoryId, keyword, minPrice, maxPrice, sort))) {
+            return null;
+        }
+        return ApiResponse.ok(favoriteIdCache.mark(userId,
+                productService.list(categoryId, keyword, minPrice, maxPrice, sort, page, size)));
+    }
+
+    @GetMapping("/products/facets")
+    public ApiResponse<ProductFacetsDto> facets() {
+        return ApiResponse.ok(productFacetService.getFacets());
     }
 
     @GetMapping("/products/{id}")
-    public ApiResponse<ProductDto> detail(@PathVariable Long id) {
-        return ApiResponse.ok(productService.getDetail(id));
+    public ApiResponse<ProductDto> detail(@PathVariable Long id,
+                                          ServletWebRequest webRequest,
+                                          java.security.Principal principal) {
+        Long userId = optionalUserId(principal);
+        // 详情只带本商品的收藏标记，ETag 按用户和该标记区分即可
+        String scope = userId != null ? "-u" + userId + (favoriteIdCache.contains(userId, id) ? "-f" : "") : "";
+        if (ConditionalGet.notModified(webRequest, "product-" + id + scope, productService.detailVersion(id))) {
+            return null;
+        }
+        return ApiResponse.ok(favoriteIdCache.mark(userId, productReadCoalescer.getDetail(id)));
     }
 
     @PostMapping("/products/{id}/view")
+    @SkipReadYourWrites
     public ApiResponse<Void> increaseView(@PathVariable Long id) {
         productService.increaseViewCount(id);
         return ApiResponse.ok(null);
@@ -67,6 +117,36 @@ public class ProductController {
         return ApiResponse.ok(productService.createProduct(user.getId(), request));
     }
 
+    @PostMapping("/products/batch")
+    public ApiResponse<BatchCreateProductResult> createBatch(@RequestBody BatchCreateProductRequest request,
+                                                             java.security.Principal principal) {
+        if (principal == null) {
+            throw new BusinessException("未登录");
+        }
+        User user = userRepository.findByUsername(principal.getName())
+                .orElseThrow(() -> new BusinessException("用户不存在"));
+        return ApiResponse.ok(productImportService.createBatch(user.getId(), request.getItems()));
+    }
+
+    /**
+     * 流式导入商品：请求体为 CSV（首行表头）或 JSON Lines，未指定 format 时按 Content-Type 判断。
+     */
+    @PostMapping("/products/import")
+    public ApiResponse<BatchCreateProductResult> importProducts(@RequestParam(required = false) String format,
+                                                                jakarta.servlet.http.HttpServletRequest request,
+                                                                java.security.Principal principal) throws java.io.IOException {
+        if (principal == null) {
+            throw new BusinessException("未登录");
+        }
+        User user = userRepository.findByUsername(principal.getName())
+                .orElseThrow(() -> new BusinessException("用户不存在"));
+        if (format == null || format.isBlank()) {
+            String contentType = request.getContentType();
+            format = contentType != null && contentType.toLowerCase().contains("csv") ? "csv" : "jsonl";
+        }
+        return ApiResponse.ok(productImportService.importStream(user.getId(), request.getInputStream(), format));
+    }
+
     @PutMapping("/products/{id}")
     public ApiResponse<ProductDto> update(@PathVariable Long id,
                                           @RequestBody UpdateProductRequest request,
@@ -107,4 +187,21 @@ public class ProductController {
     public ApiResponse<List<CategoryDto>> categories() {
         return ApiResponse.ok(productService.getCategories());
     }
+
+    /**
+     * 公开接口上的可选登录用户：未登录或用户不存在时返回 null。
+     */
+    private Long optionalUserId(java.security.Principal principal) {
+        if (principal == null) {
+            return null;
+        }
+        return userRepository.findByUsername(principal.getName()).map(User::getId).orElse(null);
+    }
+
+    /**
+     * 登录用户的列表带收藏标记，ETag 需要区分用户及其收藏集合。
+     */
+    private String favoriteScope(Long userId) {
+        return userId != null ? "-u" + userId + "-" + favoriteIdCache.fingerprint(userId) : "";
+    }
 }
@@ -0,0 +1,259 @@
+package com.campus.market.product;
+
+import com.campus.market.common.tx.AfterCommit;
+import com.campus.market.product.dto.FacetBucketDto;
+import com.campus.market.product.dto.ProductFacetsDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 商城筛选计数（facet）服务。
+ *
+ * 在内存中维护在售商品按分类、地点、价格区间的计数，由商品生命周期事件增量更新：
+ * 调用方在修改商品前用 keyOf 记下旧状态，修改后调用 onChange(旧, 新)，
+ * 计数在事务提交后才生效。启动时和每隔一段时间用一次 GROUP BY 全量校准，修正漏记的变更；
+ * 校准期间提交的变更同时记进 pending，GROUP BY 完成后补到新计数上再替换，与 FavoriteCountService 的重建方式相同。
+ */
+@Service
+public class ProductFacetService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductFacetService.class);
+
+    /** 价格区间上界（不含），最后一个区间不设上限 */
+    private static final BigDecimal[] PRICE_BOUNDS = {
+            new BigDecimal("50"), new BigDecimal("100"), new BigDecimal("200"),
+            new BigDecimal("500"), new BigDecimal("1000")
+    };
+
+    private final ProductRepository productRepository;
+    private final CategoryCache categoryCache;
+
+    private volatile Counts counts = new Counts();
+    /** 校准期间的增减，非校准期间为 null */
+    private volatile Counts pending;
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    public ProductFacetService(ProductRepository productRepository, CategoryCache categoryCache) {
+        this.productRepository = productRepository;
+        this.categoryCache = categoryCache;
+    }
+
+    /**
+     * 商品当前对计数的贡献；非在售商品返回 null。
+     */
+    public Key keyOf(Product product) {
+        if (product == null || !"ON_SALE".equals(product.getStatus())) {
+            return null;
+        }
+        return new Key(product.getCategoryId(), normalizeLocation(product.getLocation()), bucketOf(product.getPrice()));
+    }
+
+    /**
+     * 商品从 before 状态变为 after 状态，任一方可为 null（新建 / 下架）。
+     */
+    public void onChange(Key before, Product after) {
+        Key afterKey = keyOf(after);
+        if (Objects.equals(before, afterKey)) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            swapLock.readLock().lock();
+            try {
+                apply(counts, before, afterKey);
+                Counts journal = pending;
+                if (journal != null) {
+                    apply(journal, before, afterKey);
+                }
+            } finally {
+                swapLock.readLock().unlock();
+            }
+        });
+    }
+
+    private static void apply(Counts c, Key before, Key after) {
+        if (before != null) {
+            c.add(before, -1);
+        }
+        if (after != null) {
+            c.add(after, 1);
+        }
+    }
+
+    public void onCreated(Product product) {
+        onChange(null, product);
+    }
+
+    /**
+     * 返回当前筛选计数，复杂度与筛选项数量成正比，不查数据库。
+     */
+    public ProductFacetsDto getFacets() {
+        Counts c = counts;
+        ProductFacetsDto dto = new ProductFacetsDto();
+        dto.setTotal(c.total.sum());
+
+        List<FacetBucketDto> categories = new ArrayList<>();
+        c.byCategory.forEach((id, adder) -> {
+            long n = adder.sum();
+            if (n > 0) {
+                String name = categoryCache.findById(id).map(Category::getName).orElse(null);
+                categories.add(new FacetBucketDto(String.valueOf(id), name, n, null, null));
+            }
+        });
+        categories.sort(Comparator.comparingLong(FacetBucketDto::getCount).reversed());
+        dto.setCategories(categories);
+
+        List<FacetBucketDto> locations = new ArrayList<>();
+        c.byLocation.forEach((location, adder) -> {
+            long n = adder.sum();
+            if (n > 0) {
+                locations.add(new FacetBucketDto(location, location, n, null, null));
+            }
+        });
+        locations.sort(Comparator.comparingLong(FacetBucketDto::getCount).reversed());
+        dto.setLocations(locations);
+
+        List<FacetBucketDto> prices = new ArrayList<>();
+        for (int i = 0; i <= PRICE_BOUNDS.length; i++) {
+            BigDecimal min = i == 0 ? BigDecimal.ZERO : PRICE_BOUNDS[i - 1];
+            BigDecimal max = i < PRICE_BOUNDS.length ? PRICE_BOUNDS[i] : null;
+            String key = min.toPlainString() + "-" + (max != null ? max.toPlainString() : "");
+            String label = max != null ? "¥" + min.toPlainString() + "-" + max.toPlainString() : "¥" + min.toPlainString() + "以上";
+            prices.add(new FacetBucketDto(key, label, c.byPrice[i].sum(), min, max));
+        }
+        dto.setPriceBuckets(prices);
+        return dto;
+    }
+
+    /**
+     * 用一次 GROUP BY 全量重建计数，启动后立即执行，之后定期校准。
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${market.facets.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        // 在 GROUP BY 取快照之前开始记录，快照之后提交的变更都会记进 pending
+        swap(() -> pending = new Counts());
+        try {
+            Counts fresh = new Counts();
+            for (Map<String, Object> row : productRepository.countOnSaleGroupByFacets(List.of(PRICE_BOUNDS))) {
+                Object categoryId = row.get("category_id");
+                Object cnt = row.get("cnt");
+                Key key = new Key(categoryId != null ? ((Number) categoryId).longValue() : null,
+                        normalizeLocation((String) row.get("location")),
+                        ((Number) row.get("price_bucket")).intValue());
+                fresh.add(key, cnt != null ? ((Number) cnt).longValue() : 0L);
+            }
+            swap(() -> {
+                fresh.addAll(pending);
+                counts = fresh;
+                pending = null;
+            });
+        } catch (RuntimeException ex) {
+            swap(() -> pending = null);
+            log.warn("重建商品筛选计数失败，沿用现有计数", ex);
+        }
+    }
+
+    private void swap(Runnable action) {
+        swapLock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    private static int bucketOf(BigDecimal price) {
+        if (price == null) {
+            return 0;
+        }
+        for (int i = 0; i < PRICE_BOUNDS.length; i++) {
+            if (price.compareTo(PRICE_BOUNDS[i]) < 0) {
+                return i;
+            }
+        }
+        return PRICE_BOUNDS.length;
+    }
+
+    private static String normalizeLocation(String location) {
+        if (location == null || location.isBlank()) {
+            return null;
+        }
+        return location.trim();
+    }
+
+    /**
+     * 单个商品在各维度上的取值。
+     */
+    public static final class Key {
+        private final Long categoryId;
+        private final String location;
+        private final int priceBucket;
+
+        private Key(Long categoryId, String location, int priceBucket) {
+            this.categoryId = categoryId;
+            this.location = location;
+            this.priceBucket = priceBucket;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return priceBucket == other.priceBucket
+                    && Objects.equals(categoryId, other.categoryId)
+                    && Objects.equals(location, other.location);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(categoryId, location, priceBucket);
+        }
+    }
+
+    private static final class Counts {
+        private final LongAdder total = new LongAdder();
+        private final Map<Long, LongAdder> byCategory = new ConcurrentHashMap<>();
+        private final Map<String, LongAdder> byLocation = new ConcurrentHashMap<>();
+        private final LongAdder[] byPrice = new LongAdder[PRICE_BOUNDS.length + 1];
+
+        private Counts() {
+            for (int i = 0; i < byPrice.length; i++) {
+                byPrice[i] = new LongAdder();
+            }
+        }
+
+        private void add(Key key, long delta) {
+            total.add(delta);
+            if (key.categoryId != null) {
+                byCategory.computeIfAbsent(key.categoryId, k -> new LongAdder()).add(delta);
+            }
+            if (key.location != null) {
+                byLocation.computeIfAbsent(key.location, k -> new LongAdder()).add(delta);
+            }
+            byPrice[key.priceBucket].add(delta);
+        }
+
+        private void addAll(Counts other) {
+            total.add(other.total.sum());
+            other.byCategory.forEach((id, adder) -> byCategory.computeIfAbsent(id, k -> new LongAdder()).add(adder.sum()));
+            other.byLocation.forEach((location, adder) ->
+                    byLocation.computeIfAbsent(location, k -> new LongAdder()).add(adder.sum()));
+            for (int i = 0; i < byPrice.length; i++) {
+                byPrice[i].add(other.byPrice[i].sum());
+            }
+        }
+    }
+}
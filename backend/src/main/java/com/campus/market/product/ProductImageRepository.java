@@ -4,7 +4,9 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 @Mapper
@@ -29,5 +31,20 @@ public interface ProductImageRepository extends BaseMapper<ProductImage> {
         return delete(wrapper);
     }
 
+    /**
+     * 每个商品的第一张图片（按 sort_order、id），一条 DISTINCT ON 查询，SQL 见 ProductImageRepository.xml。
+     */
+    List<ProductImage> findFirstByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+    /**
+     * 多行插入图片，SQL 见 ProductImageRepository.xml。
+     */
+    int insertBatch(@Param("images") List<ProductImage> images);
+
+    /**
+     * 批量更新图片 sort_order（按 id 匹配），SQL 见 ProductImageRepository.xml。
+     */
+    int updateSortOrders(@Param("images") List<ProductImage> images);
+
     // insert 方法由 BaseMapper 提供，无需重写
 }
@@ -0,0 +1,354 @@
+package com.campus.market.product;
+
+import com.campus.market.common.exception.BusinessException;
+import com.campus.market.product.dto.BatchCreateProductResult;
+import com.campus.market.product.dto.BatchRowError;
+import com.campus.market.product.dto.CreateProductRequest;
+import com.campus.market.search.SavedSearchIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 商品批量发布服务。
+ *
+ * 支持两种入口：
+ * - JSON 数组批量发布（毕业季整间宿舍一次性上架）
+ * - CSV / JSON Lines 流式导入：逐行读取，每满一批写入一次，不把整个文件读进内存
+ *
+ * 每批商品和图片分别用一条多行 INSERT 写入，分类通过 CategoryCache 解析；
+ * 单行校验失败只记录错误，不影响同批其它行。
+ */
+@Service
+public class ProductImportService {
+
+    /** 单次 JSON 批量发布的最大条数 */
+    static final int MAX_BATCH_ITEMS = 200;
+    /** 流式导入每批写入的行数 */
+    static final int IMPORT_CHUNK_SIZE = 100;
+    /** 单个导入文件的最大数据行数 */
+    static final int MAX_IMPORT_ROWS = 5000;
+
+    private static final List<String> CSV_COLUMNS = List.of(
+            "title", "description", "price", "originalprice", "categoryid", "categoryname", "location", "imageurls");
+
+    private final ProductRepository productRepository;
+    private final CategoryCache categoryCache;
+    private final ProductImageRepository productImageRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ProductFacetService productFacetService;
+    private final LatestProductFeed latestProductFeed;
+    private final SavedSearchIndex savedSearchIndex;
+
+    public ProductImportService(ProductRepository productRepository,
+                                CategoryCache categoryCache,
+                                ProductImageRepository productImageRepository,
+                                TransactionTemplate transactionTemplate,
+                                ObjectMapper objectMapper,
+                                ProductFacetService productFacetService,
+                                LatestProductFeed latestProductFeed,
+                                SavedSearchIndex savedSearchIndex) {
+        this.productRepository = productRepository;
+        this.categoryCache = categoryCache;
+        this.productImageRepository = productImageRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.productFacetService = productFacetService;
+        this.latestProductFeed = latestProductFeed;
+        this.savedSearchIndex = savedSearchIndex;
+    }
+
+    /**
+     * JSON 批量发布：row 为请求数组中的下标。
+     */
+    public BatchCreateProductResult createBatch(Long sellerId, List<CreateProductRequest> items) {
+        if (sellerId == null) {
+            throw new BusinessException("未登录");
+        }
+        if (items == null || items.isEmpty()) {
+            throw new BusinessException("items 不能为空");
+        }
+        if (items.size() > MAX_BATCH_ITEMS) {
+            throw new BusinessException("单次最多发布 " + MAX_BATCH_ITEMS + " 件商品");
+        }
+
+        BatchCreateProductResult result = new BatchCreateProductResult();
+        List<PendingRow> pending = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            collect(i, items.get(i), pending, result);
+        }
+        flush(sellerId, pending, result);
+        return result;
+    }
+
+    /**
+     * 流式导入：format 为 csv 或 jsonl，row 为文件中的行号（从 1 开始，CSV 表头占第 1 行）。
+     */
+    public BatchCreateProductResult importStream(Long sellerId, InputStream in, String format) throws IOException {
+        if (sellerId == null) {
+            throw new BusinessException("未登录");
+        }
+        boolean csv = "csv".equalsIgnoreCase(format);
+
+        BatchCreateProductResult result = new BatchCreateProductResult();
+        List<PendingRow> pending = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            int[] columnIndex = null;
+            String line;
+            int lineNo = 0;
+            int dataRows = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (csv && columnIndex == null) {
+                    columnIndex = parseCsvHeader(line);
+                    continue;
+                }
+                if (++dataRows > MAX_IMPORT_ROWS) {
+                    result.getErrors().add(new BatchRowError(lineNo, "超过单次导入上限 " + MAX_IMPORT_ROWS + " 行，其余行已忽略"));
+                    break;
+                }
+
+                CreateProductRequest request;
+                try {
+                    request = csv ? parseCsvRow(line, columnIndex) : objectMapper.readValue(line, CreateProductRequest.class);
+                } catch (Exception ex) {
+                    result.setTotal(result.getTotal() + 1);
+                    result.getErrors().add(new BatchRowError(lineNo, "格式错误"));
+                    continue;
+                }
+                collect(lineNo, request, pending, result);
+
+                if (pending.size() >= IMPORT_CHUNK_SIZE) {
+                    flush(sellerId, pending, result);
+                    pending.clear();
+                }
+            }
+        }
+        flush(sellerId, pending, result);
+        return result;
+    }
+
+    private void collect(int row, CreateProductRequest request, List<PendingRow> pending, BatchCreateProductResult result) {
+        result.setTotal(result.getTotal() + 1);
+        String error = validate(request);
+        if (error != null) {
+            result.getErrors().add(new BatchRowError(row, error));
+        } else {
+            pending.add(new PendingRow(row, request));
+        }
+    }
+
+    private String validate(CreateProductRequest request) {
+        if (request == null) {
+            return "内容为空";
+        }
+        if (request.getTitle() == null || request.getTitle().isBlank()) {
+            return "title 不能为空";
+        }
+        if (request.getTitle().length() > 200) {
+            return "title 过长";
+        }
+        if (request.getDescription() == null || request.getDescription().isBlank()) {
+            return "description 不能为空";
+        }
+        if (request.getPrice() == null || request.getPrice().signum() < 0) {
+            return "price 不合法";
+        }
+        if (request.getOriginalPrice() != null && request.getOriginalPrice().signum() < 0) {
+            return "originalPrice 不合法";
+        }
+        if (request.getLocation() != null && request.getLocation().length() > 100) {
+            return "location 过长";
+        }
+        if (request.getImageUrls() != null
+                && request.getImageUrls().stream().anyMatch(url -> url != null && url.length() > 255)) {
+            return "图片地址过长";
+        }
+        return null;
+    }
+
+    /**
+     * 在一个事务中写入一批商品；整批失败时退化为逐行写入，把数据库错误定位到具体行。
+     */
+    private void flush(Long sellerId, List<PendingRow> rows, BatchCreateProductResult result) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            List<Long> ids = transactionTemplate.execute(status -> insertRows(sellerId, rows));
+            result.getCreatedIds().addAll(ids);
+            result.setCreated(result.getCreated() + ids.size());
+        } catch (RuntimeException batchFailure) {
+            if (rows.size() == 1) {
+                result.getErrors().add(new BatchRowError(rows.get(0).row, "写入失败"));
+                return;
+            }
+            for (PendingRow row : rows) {
+                flush(sellerId, List.of(row), result);
+            }
+        }
+    }
+
+    private List<Long> insertRows(Long sellerId, List<PendingRow> rows) {
+        Map<String, Long> categoryIds = resolveCategories(rows);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Product> products = new ArrayList<>(rows.size());
+        for (PendingRow row : rows) {
+            CreateProductRequest request = row.request;
+            Product product = new Product();
+            product.setSellerId(sellerId);
+            product.setTitle(request.getTitle());
+            product.setDescription(request.getDescription());
+            product.setPrice(request.getPrice());
+            product.setOriginalPrice(request.getOriginalPrice());
+            product.setLocation(request.getLocation());
+            product.setStatus("ON_SALE");
+            product.setCreatedAt(now);
+            product.setUpdatedAt(now);
+            Long categoryId = request.getCategoryId();
+            if (categoryId == null && request.getCategoryName() != null && !request.getCategoryName().isBlank()) {
+                categoryId = categoryIds.get(request.getCategoryName());
+            }
+            product.setCategoryId(categoryId);
+            products.add(product);
+        }
+        productRepository.insertBatch(products);
+        products.forEach(productFacetService::onCreated);
+        products.forEach(savedSearchIndex::percolate);
+
+        List<ProductImage> images = new ArrayList<>();
+        List<Long> ids = new ArrayList<>(products.size());
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            ids.add(product.getId());
+            images.addAll(ProductService.buildImages(product.getId(), rows.get(i).request.getImageUrls()));
+        }
+        if (!images.isEmpty()) {
+            productImageRepository.insertBatch(images);
+        }
+        // 批量上架后让首页信息流整体重新加载，而不是逐条组装 DTO
+        latestProductFeed.invalidate();
+        return ids;
+    }
+
+    /**
+     * 按批次解析分类名称：同一批内每个名称只解析一次，命中分类缓存时不查库。
+     */
+    private Map<String, Long> resolveCategories(List<PendingRow> rows) {
+        Map<String, Long> ids = new HashMap<>();
+        for (PendingRow row : rows) {
+            CreateProductRequest request = row.request;
+            String name = request.getCategoryName();
+            if (request.getCategoryId() == null && name != null && !name.isBlank() && !ids.containsKey(name)) {
+                ids.put(name, categoryCache.resolveOrCreate(name).getId());
+            }
+        }
+        return ids;
+    }
+
+    private int[] parseCsvHeader(String line) {
+        List<String> header = splitCsvLine(line);
+        int[] index = new int[CSV_COLUMNS.size()];
+        Arrays.fill(index, -1);
+        for (int i = 0; i < header.size(); i++) {
+            int column = CSV_COLUMNS.indexOf(header.get(i).trim().toLowerCase(Locale.ROOT));
+            if (column >= 0) {
+                index[column] = i;
+            }
+        }
+        // 与单条发布一致，description 为必填项；缺这一列时每一行都会校验失败，直接在表头处拒绝
+        if (index[0] < 0 || index[1] < 0 || index[2] < 0) {
+            throw new BusinessException("CSV 表头至少需要包含 title、description 与 price 列");
+        }
+        return index;
+    }
+
+    private CreateProductRequest parseCsvRow(String line, int[] columnIndex) {
+        List<String> cells = splitCsvLine(line);
+        CreateProductRequest request = new CreateProductRequest();
+        request.setTitle(cell(cells, columnIndex[0]));
+        request.setDescription(cell(cells, columnIndex[1]));
+        String price = cell(cells, columnIndex[2]);
+        request.setPrice(price != null ? new BigDecimal(price) : null);
+        String originalPrice = cell(cells, columnIndex[3]);
+        request.setOriginalPrice(originalPrice != null ? new BigDecimal(originalPrice) : null);
+        String categoryId = cell(cells, columnIndex[4]);
+        request.setCategoryId(categoryId != null ? Long.valueOf(categoryId) : null);
+        request.setCategoryName(cell(cells, columnIndex[5]));
+        request.setLocation(cell(cells, columnIndex[6]));
+        String imageUrls = cell(cells, columnIndex[7]);
+        // 多张图片在同一单元格内以 | 分隔
+        request.setImageUrls(imageUrls != null ? Arrays.asList(imageUrls.split("\\|")) : null);
+        return request;
+    }
+
+    private String cell(List<String> cells, int index) {
+        if (index < 0 || index >= cells.size()) {
+            return null;
+        }
+        String value = cells.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * 简单的单行 CSV 拆分：支持双引号包裹与 "" 转义，不支持跨行字段。
+     */
+    private List<String> splitCsvLine(String line) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        cells.add(current.toString());
+        return cells;
+    }
+
+    private static final class PendingRow {
+        private final int row;
+        private final CreateProductRequest request;
+
+        private PendingRow(int row, CreateProductRequest request) {
+            this.row = row;
+            this.request = request;
+        }
+    }
+}
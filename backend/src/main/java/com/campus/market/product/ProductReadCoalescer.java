@@ -0,0 +1,44 @@
+package com.campus.market.product;
+
+import com.campus.market.common.concurrent.SingleFlight;
+import com.campus.market.common.db.ReadYourWrites;
+import com.campus.market.product.dto.ProductDto;
+import com.campus.market.product.dto.ProductListItemDto;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 热点匿名读接口的请求合并层。
+ *
+ * 分享链接在群里传开时，同一商品详情 / 最新发布会在几毫秒内被请求上百次；
+ * 这里把并发的相同调用合并为一次 ProductService 调用，结果返回后即释放，不做缓存。
+ * 只供 Controller 使用，ProductService 内部（如创建后回读详情）仍直接调用，保证读到事务内的最新数据。
+ * 处在 read-your-writes 窗口内（读主库）的请求不参与合并，以免搭上从副本读取的那次调用而读不到自己的写入。
+ */
+@Component
+public class ProductReadCoalescer {
+
+    private final ProductService productService;
+
+    private final SingleFlight<Long, ProductDto> detailFlights = new SingleFlight<>();
+    private final SingleFlight<Integer, List<ProductListItemDto>> latestFlights = new SingleFlight<>();
+
+    public ProductReadCoalescer(ProductService productService) {
+        this.productService = productService;
+    }
+
+    public ProductDto getDetail(Long id) {
+        if (ReadYourWrites.pinnedToPrimary()) {
+            return productService.getDetail(id);
+        }
+        return detailFlights.execute(id, () -> productService.getDetail(id));
+    }
+
+    public List<ProductListItemDto> getLatest(int limit) {
+        if (ReadYourWrites.pinnedToPrimary()) {
+            return productService.getLatest(limit);
+        }
+        return latestFlights.execute(limit, () -> productService.getLatest(limit));
+    }
+}
@@ -2,9 +2,13 @@ package com.campus.market.product;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Mapper
@@ -24,4 +28,43 @@ public interface ProductRepository extends BaseMapper<Product> {
     default int update(Product product) {
         return updateById(product);
     }
+
+    /**
+     * 详情接口条件请求用的时间戳：商品与卖家资料 updated_at 中较晚的一个（详情里展示卖家昵称、头像），
+     * SQL 见 ProductRepository.xml。
+     */
+    default Optional<LocalDateTime> findDetailUpdatedAt(Long id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(selectDetailUpdatedAt(id));
+    }
+
+    LocalDateTime selectDetailUpdatedAt(@Param("id") Long id);
+
+    /**
+     * 在售商品按 (分类, 地点, 价格区间) 分组计数，仅用于启动时和定期校准筛选计数，SQL 见 ProductRepository.xml。
+     *
+     * @param priceBounds 各价格区间的上界（升序、不含），price_bucket 为价格不小于的上界个数
+     */
+    List<Map<String, Object>> countOnSaleGroupByFacets(@Param("priceBounds") List<BigDecimal> priceBounds);
+
+    /**
+     * 浏览数加一，不修改 updated_at（浏览不是内容变更，不能让 ETag 失效），SQL 见 ProductRepository.xml。
+     *
+     * @return 含 id、category_id 的一行；商品不存在时为 null
+     */
+    Map<String, Object> incrementViewCount(@Param("id") Long id);
+
+    /**
+     * 多行插入商品并回填 id，SQL 见 ProductRepository.xml。
+     */
+    int insertBatch(@Param("products") List<Product> products);
+
+    /**
+     * 批量回写收藏数：每个元素为 (商品 id, 收藏数)，SQL 见 ProductRepository.xml。
+     */
+    int updateFavoriteCounts(@Param("counts") List<Map.Entry<Long, Long>> counts);
+
+    /**
+     * 用 favorite 表的实际计数校正 product.favorite_count，只更新不一致的行。
+     */
+    int reconcileFavoriteCounts();
 }
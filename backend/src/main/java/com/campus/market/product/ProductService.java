@@ -1,24 +1,34 @@
 package com.campus.market.product;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.campus.market.common.db.ReadYourWrites;
 import com.campus.market.common.exception.BusinessException;
+import com.campus.market.favorite.FavoriteCountService;
 import com.campus.market.product.dto.CategoryDto;
 import com.campus.market.product.dto.CreateProductRequest;
 import com.campus.market.product.dto.ProductDto;
 import com.campus.market.product.dto.ProductListItemDto;
 import com.campus.market.product.dto.UpdateProductRequest;
+import com.campus.market.search.SavedSearchIndex;
 import com.campus.market.user.UserProfile;
 import com.campus.market.user.UserProfileRepository;
+import org.springframework.beans.BeanUtils;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -38,41 +48,109 @@ import java.util.stream.Collectors;
 public class ProductService {
 
     private final ProductRepository productRepository;
-    private final CategoryRepository categoryRepository;
+    private final CategoryCache categoryCache;
     private final ProductImageRepository productImageRepository;
     private final UserProfileRepository userProfileRepository;
+    private final ProductFacetService productFacetService;
+    private final TrendingService trendingService;
+    private final LatestProductFeed latestProductFeed;
+    private final SavedSearchIndex savedSearchIndex;
+    private final PriceDropQueue priceDropQueue;
+    private final FavoriteCountService favoriteCountService;
 
     public ProductService(ProductRepository productRepository,
-                          CategoryRepository categoryRepository,
+                          CategoryCache categoryCache,
                           ProductImageRepository productImageRepository,
-                          UserProfileRepository userProfileRepository) {
+                          UserProfileRepository userProfileRepository,
+                          ProductFacetService productFacetService,
+                          TrendingService trendingService,
+                          LatestProductFeed latestProductFeed,
+                          SavedSearchIndex savedSearchIndex,
+                          PriceDropQueue priceDropQueue,
+                          FavoriteCountService favoriteCountService) {
         this.productRepository = productRepository;
-        this.categoryRepository = categoryRepository;
+        this.categoryCache = categoryCache;
         this.productImageRepository = productImageRepository;
         this.userProfileRepository = userProfileRepository;
+        this.productFacetService = productFacetService;
+        this.trendingService = trendingService;
+        this.latestProductFeed = latestProductFeed;
+        this.savedSearchIndex = savedSearchIndex;
+        this.priceDropQueue = priceDropQueue;
+        this.favoriteCountService = favoriteCountService;
     }
 
     /**
-     * 获取最新发布的在售商品列表。
+     * 获取最新发布的在售商品列表，优先读取内存中的“最新发布”信息流。
+     * limit 不超过信息流容量，更大的值按容量返回，避免每次都回退到数据库并重新填充。
      */
     @Transactional(readOnly = true)
     public List<ProductListItemDto> getLatest(int limit) {
+        int size = Math.min(Math.max(limit, 0), latestProductFeed.capacity());
+        List<ProductListItemDto> cached = latestProductFeed.latest(size);
+        if (cached != null) {
+            return withLiveFavoriteCounts(cached);
+        }
+        // 内存信息流未加载或条数不足时回退到数据库，并顺带重新填充；
+        // 回填的结果会覆盖信息流，从主库读取，避免延迟的副本把刚 put 进去的商品冲掉
+        long mark = latestProductFeed.mark();
+        List<ProductListItemDto> newest = ReadYourWrites.onPrimary(() -> loadLatest(latestProductFeed.capacity()));
+        latestProductFeed.seed(mark, newest);
+        return withLiveFavoriteCounts(newest.size() > size ? newest.subList(0, size) : newest);
+    }
+
+    /**
+     * 信息流中的 DTO 是共享的，收藏数在副本上刷新为当前值。
+     */
+    private List<ProductListItemDto> withLiveFavoriteCounts(List<ProductListItemDto> items) {
+        List<ProductListItemDto> copies = new ArrayList<>(items.size());
+        for (ProductListItemDto item : items) {
+            ProductListItemDto copy = new ProductListItemDto();
+            BeanUtils.copyProperties(item, copy);
+            copy.setFavoriteCount(favoriteCountService.count(item.getId()));
+            copies.add(copy);
+        }
+        return copies;
+    }
+
+    /**
+     * 定期从数据库重新填充“最新发布”信息流，同时刷新其中的浏览量、卖家昵称等字段。
+     * 与 getLatest 的回退相同，从主库读取。
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${market.latest-feed.reload-interval-ms:300000}")
+    @Transactional(readOnly = true)
+    public void reloadLatestFeed() {
+        long mark = latestProductFeed.mark();
+        // 查询期间有商品变更时放弃这次快照，信息流保持由 put / remove 维护的内容，下个周期再刷新
+        latestProductFeed.seed(mark, ReadYourWrites.onPrimary(() -> loadLatest(latestProductFeed.capacity())));
+    }
+
+    private List<ProductListItemDto> loadLatest(int limit) {
         com.baomidou.mybatisplus.extension.plugins.pagination.Page<Product> page =
                 new com.baomidou.mybatisplus.extension.plugins.pagination.Page<>(1, limit, false);
 
         QueryWrapper<Product> wrapper = new QueryWrapper<>();
         wrapper.eq("status", "ON_SALE")
-                .orderByDesc("created_at");
+                .orderByDesc("created_at", "id");
 
         List<Product> products = productRepository.selectPage(page, wrapper).getRecords();
-        return products.stream().map(this::toListItemDto).collect(Collectors.toList());
+        return toListItemDtos(products);
     }
 
     /**
      * 条件分页查询商品列表：支持按分类、关键字、价格区间和排序方式筛选。
+     * sort=trending 且仅按分类筛选时，直接使用内存中的热度排行。
      */
     @Transactional(readOnly = true)
     public Page<ProductListItemDto> list(Long categoryId, String keyword, java.math.BigDecimal minPrice, java.math.BigDecimal maxPrice, String sort, int page, int size) {
+        boolean trending = "trending".equalsIgnoreCase(sort);
+        if (trending && (keyword == null || keyword.isBlank()) && minPrice == null && maxPrice == null) {
+            Page<ProductListItemDto> trendingPage = listTrending(categoryId, page, size);
+            if (trendingPage != null) {
+                return trendingPage;
+            }
+        }
+
         String sortBy;
         String sortDir;
         if ("priceAsc".equalsIgnoreCase(sort)) {
@@ -81,7 +159,12 @@ public class ProductService {
         } else if ("priceDesc".equalsIgnoreCase(sort)) {
             sortBy = "price";
             sortDir = "DESC";
-        } else if ("viewDesc".equalsIgnoreCase(sort)) {
+        } else if ("popular".equalsIgnoreCase(sort)) {
+            // 按收藏数排序使用定期回写的 product.favorite_count
+            sortBy = "favoriteCount";
+            sortDir = "DESC";
+        } else if ("viewDesc".equalsIgnoreCase(sort) || trending) {
+            // 带关键字 / 价格条件或热度排行尚未建立时，trending 退化为按浏览量排序
             sortBy = "viewCount";
             sortDir = "DESC";
         } else {
@@ -91,28 +174,14 @@ public class ProductService {
 
         com.baomidou.mybatisplus.extension.plugins.pagination.Page<Product> mpPage =
                 new com.baomidou.mybatisplus.extension.plugins.pagination.Page<>(page + 1L, size);
-        QueryWrapper<Product> wrapper = new QueryWrapper<>();
-
-        // 只查询在售商品
-        wrapper.eq("status", "ON_SALE");
-
-        if (categoryId != null) {
-            wrapper.eq("category_id", categoryId);
-        }
-        if (keyword != null && !keyword.isBlank()) {
-            wrapper.apply("LOWER(title) LIKE '%' || LOWER({0}) || '%'", keyword);
-        }
-        if (minPrice != null) {
-            wrapper.ge("price", minPrice);
-        }
-        if (maxPrice != null) {
-            wrapper.le("price", maxPrice);
-        }
+        QueryWrapper<Product> wrapper = listFilter(categoryId, keyword, minPrice, maxPrice);
 
         if ("price".equals(sortBy)) {
             wrapper.orderBy(true, "ASC".equalsIgnoreCase(sortDir), "price");
         } else if ("viewCount".equals(sortBy)) {
             wrapper.orderBy(true, "ASC".equalsIgnoreCase(sortDir), "view_count");
+        } else if ("favoriteCount".equals(sortBy)) {
+            wrapper.orderBy(true, "ASC".equalsIgnoreCase(sortDir), "favorite_count", "id");
         } else {
             wrapper.orderBy(true, "ASC".equalsIgnoreCase(sortDir), "created_at");
         }
@@ -127,16 +196,150 @@ public class ProductService {
             sortProperty = "price";
         } else if ("viewCount".equals(sortBy)) {
             sortProperty = "viewCount";
+        } else if ("favoriteCount".equals(sortBy)) {
+            sortProperty = "favoriteCount";
         }
 
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.fromString(sortDir), sortProperty));
-        List<ProductListItemDto> dtoList = products.stream()
-                .map(this::toListItemDto)
-                .collect(Collectors.toList());
+        List<ProductListItemDto> dtoList = toListItemDtos(products);
 
         return new PageImpl<>(dtoList, pageable, total);
     }
 
+    /**
+     * 列表查询的公共筛选条件：只查询在售商品，可按分类、标题关键字、价格区间过滤。
+     */
+    private QueryWrapper<Product> listFilter(Long categoryId, String keyword, java.math.BigDecimal minPrice, java.math.BigDecimal maxPrice) {
+        QueryWrapper<Product> wrapper = new QueryWrapper<>();
+
+        // 只查询在售商品
+        wrapper.eq("status", "ON_SALE");
+
+        if (categoryId != null) {
+            wrapper.eq("category_id", categoryId);
+        }
+        if (keyword != null && !keyword.isBlank()) {
+            wrapper.apply("LOWER(title) LIKE '%' || LOWER({0}) || '%'", keyword);
+        }
+        if (minPrice != null) {
+            wrapper.ge("price", minPrice);
+        }
+        if (maxPrice != null) {
+            wrapper.le("price", maxPrice);
+        }
+        return wrapper;
+    }
+
+    /**
+     * 列表结果的版本号，用于 ETag：同一筛选条件下匹配商品的最大 updated_at 与数量，
+     * 热度排序再叠加排行的物化版本。只执行一条聚合查询，不组装 DTO。浏览数不改 updated_at，不在版本范围内；
+     * 收藏数同样不在范围内（任一商品被收藏就让所有列表失效得不偿失；sort=popular 时计入已回写的 favorite_count，
+     * 与排序依据一致），304 里的收藏数可能落后，
+     * 当前用户自己的收藏状态由 Controller 按用户区分 ETag。
+     * 缩略图只在编辑商品时随 updated_at 一起变化，已包含在内；卖家昵称、头像不在版本范围内（逐行关联资料表的代价
+     * 与列表查询相当），卖家改资料后缓存的列表最多沿用到其中商品下次变更。
+     */
+    @Transactional(readOnly = true)
+    public String listVersion(Long categoryId, String keyword, java.math.BigDecimal minPrice, java.math.BigDecimal maxPrice, String sort) {
+        QueryWrapper<Product> wrapper = listFilter(categoryId, keyword, minPrice, maxPrice);
+        // 按浏览量 / 收藏数排序时顺序随之变化，只有这两种情况才把对应的计数计入版本
+        boolean byViews = sortsByViewCount(categoryId, keyword, minPrice, maxPrice, sort);
+        boolean byFavorites = "popular".equalsIgnoreCase(sort);
+        List<String> columns = new ArrayList<>(List.of("MAX(updated_at) AS max_updated", "COUNT(*) AS cnt"));
+        if (byViews) {
+            columns.add("SUM(view_count) AS views");
+        }
+        if (byFavorites) {
+            columns.add("SUM(favorite_count) AS favorites");
+        }
+        wrapper.select(columns.toArray(new String[0]));
+        List<Map<String, Object>> rows = productRepository.selectMaps(wrapper);
+        Map<String, Object> row = rows.isEmpty() || rows.get(0) == null ? Map.of() : rows.get(0);
+        String version = versionOf(row.get("max_updated")) + "-" + row.getOrDefault("cnt", 0);
+        if (byViews) {
+            version += "-v" + row.getOrDefault("views", 0);
+        }
+        if (byFavorites) {
+            version += "-f" + row.getOrDefault("favorites", 0);
+        }
+        if ("trending".equalsIgnoreCase(sort)) {
+            version += "-t" + trendingService.version();
+        }
+        return version;
+    }
+
+    /**
+     * 列表是否按 view_count 排序：sort=viewDesc，或 trending 退化为 SQL 排序时（与 list 中的判断一致）。
+     */
+    private boolean sortsByViewCount(Long categoryId, String keyword, java.math.BigDecimal minPrice, java.math.BigDecimal maxPrice, String sort) {
+        if ("viewDesc".equalsIgnoreCase(sort)) {
+            return true;
+        }
+        if (!"trending".equalsIgnoreCase(sort)) {
+            return false;
+        }
+        return (keyword != null && !keyword.isBlank()) || minPrice != null || maxPrice != null
+                || trendingService.ranking(categoryId).isEmpty();
+    }
+
+    /**
+     * 商品详情的版本号（商品与卖家资料的 updated_at、收藏数），商品不存在时返回 null。
+     * 浏览数不在版本范围内：304 响应里的 viewCount 可能落后，直到商品内容下次变更。
+     */
+    @Transactional(readOnly = true)
+    public String detailVersion(Long id) {
+        return productRepository.findDetailUpdatedAt(id)
+                .map(updatedAt -> versionOf(updatedAt) + "-f" + favoriteCountService.count(id))
+                .orElse(null);
+    }
+
+    /**
+     * “最新发布”的版本号：取内存信息流的变更序号，信息流未加载时返回 null（不做条件请求）。
+     * 与列表相同，收藏数不在版本范围内。
+     */
+    public String latestVersion() {
+        long version = latestProductFeed.version();
+        return version > 0 ? Long.toString(version) : null;
+    }
+
+    private String versionOf(Object updatedAt) {
+        if (updatedAt instanceof LocalDateTime time) {
+            return Long.toString(time.atZone(java.time.ZoneId.systemDefault()).toInstant().toEpochMilli(), 36);
+        }
+        if (updatedAt instanceof java.sql.Timestamp ts) {
+            return Long.toString(ts.getTime(), 36);
+        }
+        return String.valueOf(updatedAt);
+    }
+
+    /**
+     * 直接从内存热度排行中取一页；排行为空（如刚启动）时返回 null，由调用方回退到 SQL 排序。
+     */
+    private Page<ProductListItemDto> listTrending(Long categoryId, int page, int size) {
+        List<Long> ranking = trendingService.ranking(categoryId);
+        if (ranking.isEmpty()) {
+            return null;
+        }
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "trending"));
+        int from = (int) Math.min((long) page * size, ranking.size());
+        int to = Math.min(from + size, ranking.size());
+        List<Long> ids = ranking.subList(from, to);
+
+        Map<Long, Product> products = productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, p -> p));
+        List<Product> onSale = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Product product = products.get(id);
+            if (product == null || !"ON_SALE".equals(product.getStatus())) {
+                // 已下架 / 售出的商品不再参与排行
+                trendingService.evict(id);
+                continue;
+            }
+            onSale.add(product);
+        }
+        return new PageImpl<>(toListItemDtos(onSale), pageable, ranking.size());
+    }
+
     /**
      * 查询商品详情，包含图片列表和卖家信息。
      */
@@ -155,9 +358,10 @@ public class ProductService {
         dto.setLocation(product.getLocation());
         dto.setCreatedAt(product.getCreatedAt());
         dto.setViewCount(product.getViewCount());
+        dto.setFavoriteCount(favoriteCountService.count(product.getId()));
 
         if (product.getCategoryId() != null) {
-            Optional<Category> categoryOpt = categoryRepository.findById(product.getCategoryId());
+            Optional<Category> categoryOpt = categoryCache.findById(product.getCategoryId());
             categoryOpt.ifPresent(category -> dto.setCategoryName(category.getName()));
         }
 
@@ -201,33 +405,43 @@ public class ProductService {
 
         Long categoryId = request.getCategoryId();
         if (categoryId == null && request.getCategoryName() != null && !request.getCategoryName().isBlank()) {
-            Category category = categoryRepository.findByName(request.getCategoryName());
-            if (category == null) {
-                category = new Category();
-                category.setName(request.getCategoryName());
-                categoryRepository.insert(category);
-            }
-            categoryId = category.getId();
+            categoryId = categoryCache.resolveOrCreate(request.getCategoryName()).getId();
         }
         product.setCategoryId(categoryId);
 
         productRepository.insert(product);
+        productFacetService.onCreated(product);
 
-        if (request.getImageUrls() != null && !request.getImageUrls().isEmpty()) {
-            int sort = 0;
-            for (String url : request.getImageUrls()) {
-                if (url == null || url.isBlank()) continue;
-                ProductImage image = new ProductImage();
-                image.setProductId(product.getId());
-                image.setUrl(url);
-                image.setSortOrder(sort++);
-                productImageRepository.insert(image);
-            }
+        List<ProductImage> images = buildImages(product.getId(), request.getImageUrls());
+        if (!images.isEmpty()) {
+            productImageRepository.insertBatch(images);
         }
+        latestProductFeed.put(toListItemDto(product));
+        savedSearchIndex.percolate(product);
 
         return getDetail(product.getId());
     }
 
+    /**
+     * 按 URL 列表顺序构造图片实体，跳过空白地址。
+     */
+    static List<ProductImage> buildImages(Long productId, List<String> urls) {
+        if (urls == null || urls.isEmpty()) {
+            return List.of();
+        }
+        List<ProductImage> images = new ArrayList<>(urls.size());
+        int sort = 0;
+        for (String url : urls) {
+            if (url == null || url.isBlank()) continue;
+            ProductImage image = new ProductImage();
+            image.setProductId(productId);
+            image.setUrl(url);
+            image.setSortOrder(sort++);
+            images.add(image);
+        }
+        return images;
+    }
+
     /**
      * 更新商品：校验归属权后，按请求内容部分更新字段及图片。
      */
@@ -238,6 +452,8 @@ public class ProductService {
         if (!Objects.equals(product.getSellerId(), sellerId)) {
             throw new BusinessException("无权操作该商品");
         }
+        ProductFacetService.Key facetBefore = productFacetService.keyOf(product);
+        java.math.BigDecimal priceBefore = product.getPrice();
 
         if (request.getTitle() != null && !request.getTitle().isBlank()) {
             product.setTitle(request.getTitle());
@@ -254,13 +470,7 @@ public class ProductService {
 
         Long categoryId = request.getCategoryId();
         if (categoryId == null && request.getCategoryName() != null && !request.getCategoryName().isBlank()) {
-            Category category = categoryRepository.findByName(request.getCategoryName());
-            if (category == null) {
-                category = new Category();
-                category.setName(request.getCategoryName());
-                categoryRepository.insert(category);
-            }
-            categoryId = category.getId();
+            categoryId = categoryCache.resolveOrCreate(request.getCategoryName()).getId();
         }
         if (categoryId != null) {
             product.setCategoryId(categoryId);
@@ -272,29 +482,75 @@ public class ProductService {
 
         product.setUpdatedAt(LocalDateTime.now());
         productRepository.update(product);
+        productFacetService.onChange(facetBefore, product);
+        if ("ON_SALE".equals(product.getStatus())) {
+            priceDropQueue.record(id, priceBefore, product.getPrice());
+        }
 
         if (request.getImageUrls() != null) {
-            productImageRepository.deleteByProductId(product.getId());
-            int sort = 0;
-            for (String url : request.getImageUrls()) {
-                if (url == null || url.isBlank()) continue;
+            reconcileImages(product.getId(), request.getImageUrls());
+        }
+        if (latestProductFeed.contains(id)) {
+            latestProductFeed.put(toListItemDto(product));
+        }
+
+        return getDetail(id);
+    }
+
+    /**
+     * 将商品图片与请求中的 URL 列表对齐：只删除被移除的图片、只插入新增的图片、
+     * 只更新顺序发生变化的图片，三类写操作各最多一条 SQL。
+     */
+    private void reconcileImages(Long productId, List<String> requestedUrls) {
+        List<ProductImage> existing = productImageRepository.findByProductIdOrderBySortOrderAsc(productId);
+
+        // 同一 URL 可能重复出现，按出现顺序依次匹配已有记录
+        Map<String, Deque<ProductImage>> existingByUrl = new HashMap<>();
+        for (ProductImage image : existing) {
+            existingByUrl.computeIfAbsent(image.getUrl(), k -> new ArrayDeque<>()).add(image);
+        }
+
+        List<ProductImage> toInsert = new ArrayList<>();
+        List<ProductImage> toReorder = new ArrayList<>();
+        int sort = 0;
+        for (String url : requestedUrls) {
+            if (url == null || url.isBlank()) continue;
+            Deque<ProductImage> candidates = existingByUrl.get(url);
+            ProductImage matched = candidates != null ? candidates.poll() : null;
+            if (matched == null) {
                 ProductImage image = new ProductImage();
-                image.setProductId(product.getId());
+                image.setProductId(productId);
                 image.setUrl(url);
-                image.setSortOrder(sort++);
-                productImageRepository.insert(image);
+                image.setSortOrder(sort);
+                toInsert.add(image);
+            } else if (!Objects.equals(matched.getSortOrder(), sort)) {
+                matched.setSortOrder(sort);
+                toReorder.add(matched);
             }
+            sort++;
         }
 
-        return getDetail(id);
+        List<Long> toDelete = existingByUrl.values().stream()
+                .flatMap(Deque::stream)
+                .map(ProductImage::getId)
+                .collect(Collectors.toList());
+
+        if (!toDelete.isEmpty()) {
+            productImageRepository.deleteByIds(toDelete);
+        }
+        if (!toReorder.isEmpty()) {
+            productImageRepository.updateSortOrders(toReorder);
+        }
+        if (!toInsert.isEmpty()) {
+            productImageRepository.insertBatch(toInsert);
+        }
     }
 
     /**
-     * 获取全部商品分类列表。
+     * 获取全部商品分类列表（来自分类缓存，不查库）。
      */
-    @Transactional(readOnly = true)
     public List<CategoryDto> getCategories() {
-        return categoryRepository.findAll().stream()
+        return categoryCache.all().stream()
                 .map(c -> new CategoryDto(c.getId(), c.getName()))
                 .collect(Collectors.toList());
     }
@@ -319,9 +575,7 @@ public class ProductService {
         long total = resultPage.getTotal();
 
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-        List<ProductListItemDto> dtoList = products.stream()
-                .map(this::toListItemDto)
-                .collect(Collectors.toList());
+        List<ProductListItemDto> dtoList = toListItemDtos(products);
 
         return new PageImpl<>(dtoList, pageable, total);
     }
@@ -336,6 +590,7 @@ public class ProductService {
         if (!Objects.equals(product.getSellerId(), sellerId)) {
             throw new BusinessException("无权操作该商品");
         }
+        ProductFacetService.Key facetBefore = productFacetService.keyOf(product);
 
         if (!"ON_SALE".equals(status) && !"SOLD".equals(status) && !"DELETED".equals(status)) {
             throw new BusinessException("不支持的商品状态");
@@ -344,6 +599,12 @@ public class ProductService {
         product.setStatus(status);
         product.setUpdatedAt(LocalDateTime.now());
         productRepository.update(product);
+        productFacetService.onChange(facetBefore, product);
+        if ("ON_SALE".equals(status)) {
+            latestProductFeed.put(toListItemDto(product));
+        } else {
+            latestProductFeed.remove(id);
+        }
 
         return getDetail(id);
     }
@@ -358,25 +619,68 @@ public class ProductService {
         if (!Objects.equals(product.getSellerId(), sellerId)) {
             throw new BusinessException("无权操作该商品");
         }
+        ProductFacetService.Key facetBefore = productFacetService.keyOf(product);
 
         product.setStatus("DELETED");
         product.setUpdatedAt(LocalDateTime.now());
         productRepository.update(product);
+        productFacetService.onChange(facetBefore, product);
+        latestProductFeed.remove(id);
     }
 
     /**
      * 增加商品浏览次数：用于前端详情页曝光统计。
+     *
+     * 只做一条原子自增，不更新 updated_at：详情页每次打开都会调用，若改动 updated_at，
+     * 详情与列表的 ETag 会随每次浏览失效，条件请求几乎不再命中。
      */
     public void increaseViewCount(Long id) {
-        productRepository.findById(id).ifPresent(product -> {
-            Long current = product.getViewCount();
-            if (current == null) {
-                current = 0L;
+        Map<String, Object> row = productRepository.incrementViewCount(id);
+        if (row != null) {
+            Object categoryId = row.get("category_id");
+            trendingService.recordView(id, categoryId != null ? ((Number) categoryId).longValue() : null);
+        }
+    }
+
+    /**
+     * 批量转换列表项：缩略图和卖家资料各用一条 IN 查询取回，而不是每个商品各查两次。
+     */
+    public List<ProductListItemDto> toListItemDtos(List<Product> products) {
+        if (products.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> productIds = products.stream().map(Product::getId).collect(Collectors.toList());
+        Map<Long, String> thumbnails = new HashMap<>();
+        for (ProductImage image : productImageRepository.findFirstByProductIdIn(productIds)) {
+            thumbnails.put(image.getProductId(), image.getUrl());
+        }
+        List<Long> sellerIds = products.stream().map(Product::getSellerId)
+                .filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        Map<Long, UserProfile> sellers = userProfileRepository.findByUserIdIn(sellerIds).stream()
+                .collect(Collectors.toMap(UserProfile::getUserId, profile -> profile, (a, b) -> a));
+
+        List<ProductListItemDto> dtoList = new ArrayList<>(products.size());
+        for (Product product : products) {
+            ProductListItemDto dto = new ProductListItemDto();
+            dto.setId(product.getId());
+            dto.setTitle(product.getTitle());
+            dto.setDescription(product.getDescription());
+            dto.setPrice(product.getPrice());
+            dto.setLocation(product.getLocation());
+            dto.setCreatedAt(product.getCreatedAt());
+            dto.setStatus(product.getStatus());
+            dto.setViewCount(product.getViewCount());
+            dto.setFavoriteCount(favoriteCountService.count(product.getId()));
+            dto.setThumbnail(thumbnails.get(product.getId()));
+            dto.setSellerId(product.getSellerId());
+            UserProfile profile = sellers.get(product.getSellerId());
+            if (profile != null) {
+                dto.setSellerName(profile.getNickname());
+                dto.setSellerAvatar(profile.getAvatarUrl());
             }
-            product.setViewCount(current + 1);
-            product.setUpdatedAt(LocalDateTime.now());
-            productRepository.update(product);
-        });
+            dtoList.add(dto);
+        }
+        return dtoList;
     }
 
     /**
@@ -392,6 +696,7 @@ public class ProductService {
         dto.setCreatedAt(product.getCreatedAt());
         dto.setStatus(product.getStatus());
         dto.setViewCount(product.getViewCount());
+        dto.setFavoriteCount(favoriteCountService.count(product.getId()));
 
         List<ProductImage> images = productImageRepository.findByProductIdOrderBySortOrderAsc(product.getId());
         if (!images.isEmpty()) {
@@ -0,0 +1,196 @@
+package com.campus.market.product;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 商品热度排行服务。
+ *
+ * 每个商品维护一个按指数衰减的浏览热度，由浏览上报接口驱动。实现上采用“前向衰减”：
+ * 每次浏览累加 e^(λ(t - L))，L 为基准时间，因此不同商品的分数可以直接比较，无需在读时逐个衰减；
+ * 基准时间离当前过远时统一换算到新的基准，防止数值溢出。
+ *
+ * 排行榜（全站及各分类的 Top-K）由定时任务用小顶堆物化，列表接口的 sort=trending 直接读取物化结果。
+ * 热度数据只在内存中，重启后从零开始累计，排行为空时由调用方回退到按浏览量排序。
+ */
+@Service
+public class TrendingService {
+
+    /** 基准时间最多落后当前多少个半衰期，超过后换算到新基准 */
+    private static final int REBASE_AFTER_HALF_LIVES = 20;
+    /** 衰减到该值以下的商品从内存中移除 */
+    private static final double PRUNE_THRESHOLD = 0.01;
+
+    private final double lambdaPerMs;
+    private final long halfLifeMs;
+    private final int topK;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final ReadWriteLock rebaseLock = new ReentrantReadWriteLock();
+    private volatile long landmark = System.currentTimeMillis();
+
+    private volatile long version;
+    private volatile List<Long> globalRanking = List.of();
+    private volatile Map<Long, List<Long>> categoryRankings = Map.of();
+
+    public TrendingService(@Value("${market.trending.half-life-minutes:360}") long halfLifeMinutes,
+                           @Value("${market.trending.top-k:200}") int topK) {
+        this.halfLifeMs = halfLifeMinutes * 60_000L;
+        this.lambdaPerMs = Math.log(2) / halfLifeMs;
+        this.topK = topK;
+    }
+
+    /**
+     * 记录一次浏览。
+     */
+    public void recordView(Long productId, Long categoryId) {
+        if (productId == null) {
+            return;
+        }
+        rebaseLock.readLock().lock();
+        try {
+            double weight = Math.exp(lambdaPerMs * (System.currentTimeMillis() - landmark));
+            Entry entry = entries.computeIfAbsent(productId, id -> new Entry());
+            entry.categoryId = categoryId;
+            entry.add(weight);
+        } finally {
+            rebaseLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 物化后的热度排行（商品 id，按热度降序）；categoryId 为空时返回全站排行。
+     */
+    public List<Long> ranking(Long categoryId) {
+        if (categoryId == null) {
+            return globalRanking;
+        }
+        return categoryRankings.getOrDefault(categoryId, List.of());
+    }
+
+    /**
+     * 排行的物化序号，每次重新物化后递增。
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * 商品已不在售（下架 / 售出 / 删除）时移出热度统计。
+     */
+    public void evict(Long productId) {
+        if (productId != null) {
+            entries.remove(productId);
+        }
+    }
+
+    /**
+     * 定期物化排行：必要时换算基准时间、清理已冷却的商品，再为全站和每个分类各取 Top-K。
+     */
+    @Scheduled(fixedDelayString = "${market.trending.materialize-interval-ms:60000}")
+    public void materialize() {
+        long now = System.currentTimeMillis();
+        if (now - landmark > REBASE_AFTER_HALF_LIVES * halfLifeMs) {
+            rebase(now);
+        }
+
+        double decayToNow = Math.exp(-lambdaPerMs * (now - landmark));
+        PriorityQueue<Ranked> global = new PriorityQueue<>();
+        Map<Long, PriorityQueue<Ranked>> byCategory = new HashMap<>();
+
+        Iterator<Map.Entry<Long, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, Entry> e = it.next();
+            double score = e.getValue().score();
+            if (score * decayToNow < PRUNE_THRESHOLD) {
+                it.remove();
+                continue;
+            }
+            Ranked ranked = new Ranked(e.getKey(), score);
+            offer(global, ranked);
+            Long categoryId = e.getValue().categoryId;
+            if (categoryId != null) {
+                offer(byCategory.computeIfAbsent(categoryId, k -> new PriorityQueue<>()), ranked);
+            }
+        }
+
+        Map<Long, List<Long>> rankings = new HashMap<>();
+        byCategory.forEach((categoryId, heap) -> rankings.put(categoryId, drain(heap)));
+        globalRanking = drain(global);
+        categoryRankings = rankings;
+        version++;
+    }
+
+    private void rebase(long now) {
+        rebaseLock.writeLock().lock();
+        try {
+            double factor = Math.exp(-lambdaPerMs * (now - landmark));
+            entries.values().forEach(entry -> entry.scale(factor));
+            landmark = now;
+        } finally {
+            rebaseLock.writeLock().unlock();
+        }
+    }
+
+    private void offer(PriorityQueue<Ranked> heap, Ranked ranked) {
+        if (heap.size() < topK) {
+            heap.offer(ranked);
+        } else if (heap.peek().score < ranked.score) {
+            heap.poll();
+            heap.offer(ranked);
+        }
+    }
+
+    private List<Long> drain(PriorityQueue<Ranked> heap) {
+        List<Long> ids = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            ids.add(heap.poll().productId);
+        }
+        Collections.reverse(ids);
+        return Collections.unmodifiableList(ids);
+    }
+
+    private static final class Entry {
+        private volatile Long categoryId;
+        private double score;
+
+        private synchronized void add(double weight) {
+            score += weight;
+        }
+
+        private synchronized void scale(double factor) {
+            score *= factor;
+        }
+
+        private synchronized double score() {
+            return score;
+        }
+    }
+
+    private static final class Ranked implements Comparable<Ranked> {
+        private final Long productId;
+        private final double score;
+
+        private Ranked(Long productId, double score) {
+            this.productId = productId;
+            this.score = score;
+        }
+
+        @Override
+        public int compareTo(Ranked other) {
+            return Double.compare(score, other.score);
+        }
+    }
+}
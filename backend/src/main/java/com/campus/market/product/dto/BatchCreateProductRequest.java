@@ -0,0 +1,14 @@
+package com.campus.market.product.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量发布商品请求体：items 中每一项与单个发布的 CreateProductRequest 相同。
+ */
+@Data
+public class BatchCreateProductRequest {
+
+    private List<CreateProductRequest> items;
+}
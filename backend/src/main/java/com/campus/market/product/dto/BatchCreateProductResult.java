@@ -0,0 +1,18 @@
+package com.campus.market.product.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量发布 / 导入商品结果：成功创建的商品 id 以及逐行的失败原因，单行失败不影响其它行。
+ */
+@Data
+public class BatchCreateProductResult {
+
+    private int total;
+    private int created;
+    private List<Long> createdIds = new ArrayList<>();
+    private List<BatchRowError> errors = new ArrayList<>();
+}
@@ -0,0 +1,15 @@
+package com.campus.market.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 批量发布中的单行错误：row 为 JSON 请求中的下标，或导入文件中的行号（从 1 开始）。
+ */
+@Data
+@AllArgsConstructor
+public class BatchRowError {
+
+    private int row;
+    private String message;
+}
@@ -0,0 +1,23 @@
+package com.campus.market.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 筛选项计数：key 为筛选参数值（分类 id / 地点 / 价格区间），label 为展示文本，count 为在售商品数。
+ * 价格区间额外带上 min / max（max 为空表示不设上限）。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetBucketDto {
+
+    private String key;
+    private String label;
+    private long count;
+    private BigDecimal min;
+    private BigDecimal max;
+}
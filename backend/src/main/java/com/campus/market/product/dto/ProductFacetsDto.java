@@ -0,0 +1,17 @@
+package com.campus.market.product.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 商城筛选栏的计数：按分类、地点、价格区间统计在售商品数量。
+ */
+@Data
+public class ProductFacetsDto {
+
+    private long total;
+    private List<FacetBucketDto> categories;
+    private List<FacetBucketDto> locations;
+    private List<FacetBucketDto> priceBuckets;
+}
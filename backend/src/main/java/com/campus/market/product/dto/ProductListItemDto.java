@@ -20,8 +20,12 @@ public class ProductListItemDto {
     private LocalDateTime createdAt;
     private String status;
     private Long viewCount;
+    private Long favoriteCount;
 
     private Long sellerId;
     private String sellerName;
     private String sellerAvatar;
+
+    /** 当前登录用户是否已收藏；未登录时为 null */
+    private Boolean favorited;
 }
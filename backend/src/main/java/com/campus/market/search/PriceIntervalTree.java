@@ -0,0 +1,101 @@
+package com.campus.market.search;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Set;
+
+/**
+ * 只有价格条件的已保存搜索使用的静态区间树：按价格区间 [min, max] 查出包含某个价格的全部搜索。
+ *
+ * 区间按下界排序后存进数组，数组上隐式地构成一棵平衡二叉树（区间中点为根），每个节点记录子树内的最大上界。
+ * 查询时子树最大上界低于价格的分支整体跳过；节点下界已高于价格时，右子树的下界只会更高，同样跳过。
+ * 因此开销为 O((k + 1) log n)，k 为命中的区间数，不会扫描上界低于价格的搜索。
+ *
+ * 结构不可变，增删后由调用方整体重建。
+ */
+final class PriceIntervalTree {
+
+    static final PriceIntervalTree EMPTY = new PriceIntervalTree(Set.of());
+
+    private final Long[] ids;
+    private final BigDecimal[] mins;
+    /** 上界，null 表示不设上限 */
+    private final BigDecimal[] maxs;
+    /** 以该下标为根的子树内的最大上界，null 表示不设上限 */
+    private final BigDecimal[] subtreeMax;
+
+    PriceIntervalTree(Collection<Interval> intervals) {
+        Interval[] sorted = intervals.toArray(new Interval[0]);
+        Arrays.sort(sorted, Comparator.comparing(Interval::min));
+        int n = sorted.length;
+        this.ids = new Long[n];
+        this.mins = new BigDecimal[n];
+        this.maxs = new BigDecimal[n];
+        this.subtreeMax = new BigDecimal[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = sorted[i].id();
+            mins[i] = sorted[i].min();
+            maxs[i] = sorted[i].max();
+        }
+        if (n > 0) {
+            build(0, n);
+        }
+    }
+
+    /**
+     * 把包含 price 的区间 id 加入 into。
+     */
+    void stab(BigDecimal price, Set<Long> into) {
+        stab(0, ids.length, price, into);
+    }
+
+    private BigDecimal build(int lo, int hi) {
+        int mid = (lo + hi) >>> 1;
+        BigDecimal max = maxs[mid];
+        if (lo < mid) {
+            max = higher(max, build(lo, mid));
+        }
+        if (mid + 1 < hi) {
+            max = higher(max, build(mid + 1, hi));
+        }
+        subtreeMax[mid] = max;
+        return max;
+    }
+
+    private void stab(int lo, int hi, BigDecimal price, Set<Long> into) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        if (!reaches(subtreeMax[mid], price)) {
+            return;
+        }
+        stab(lo, mid, price, into);
+        if (mins[mid].compareTo(price) > 0) {
+            return;
+        }
+        if (reaches(maxs[mid], price)) {
+            into.add(ids[mid]);
+        }
+        stab(mid + 1, hi, price, into);
+    }
+
+    private static boolean reaches(BigDecimal max, BigDecimal price) {
+        return max == null || max.compareTo(price) >= 0;
+    }
+
+    private static BigDecimal higher(BigDecimal a, BigDecimal b) {
+        if (a == null || b == null) {
+            return null;
+        }
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+
+    /**
+     * 一条搜索的价格区间，min 不可为 null（未设置时按 0），max 为 null 表示不设上限。
+     */
+    record Interval(Long id, BigDecimal min, BigDecimal max) {
+    }
+}
@@ -0,0 +1,56 @@
+package com.campus.market.search;
+
+import com.campus.market.common.api.ApiResponse;
+import com.campus.market.common.exception.BusinessException;
+import com.campus.market.search.dto.SavedSearchDto;
+import com.campus.market.search.dto.SavedSearchRequest;
+import com.campus.market.user.User;
+import com.campus.market.user.UserRepository;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/saved-searches")
+public class SavedSearchController {
+
+    private final SavedSearchService savedSearchService;
+    private final UserRepository userRepository;
+
+    public SavedSearchController(SavedSearchService savedSearchService, UserRepository userRepository) {
+        this.savedSearchService = savedSearchService;
+        this.userRepository = userRepository;
+    }
+
+    @GetMapping
+    public ApiResponse<List<SavedSearchDto>> listMySearches(Principal principal) {
+        if (principal == null) {
+            throw new BusinessException("未登录");
+        }
+        User user = userRepository.findByUsername(principal.getName())
+                .orElseThrow(() -> new BusinessException("用户不存在"));
+        return ApiResponse.ok(savedSearchService.listMySearches(user.getId()));
+    }
+
+    @PostMapping
+    public ApiResponse<SavedSearchDto> create(@RequestBody SavedSearchRequest request, Principal principal) {
+        if (principal == null) {
+            throw new BusinessException("未登录");
+        }
+        User user = userRepository.findByUsername(principal.getName())
+                .orElseThrow(() -> new BusinessException("用户不存在"));
+        return ApiResponse.ok(savedSearchService.create(user.getId(), request));
+    }
+
+    @DeleteMapping("/{id}")
+    public ApiResponse<Void> delete(@PathVariable Long id, Principal principal) {
+        if (principal == null) {
+            throw new BusinessException("未登录");
+        }
+        User user = userRepository.findByUsername(principal.getName())
+                .orElseThrow(() -> new BusinessException("用户不存在"));
+        savedSearchService.delete(user.getId(), id);
+        return ApiResponse.ok(null);
+    }
+}
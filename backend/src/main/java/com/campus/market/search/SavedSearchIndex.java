@@ -0,0 +1,365 @@
+package com.campus.market.search;
+
+import com.campus.market.common.tx.AfterCommit;
+import com.campus.market.product.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 已保存搜索的反向索引（percolator）。
+ *
+ * 与“用查询找商品”相反，这里为每个新上架的商品找出它命中的已保存搜索。每条搜索只登记在一个主键下：
+ * 有关键词时登记在关键词的第一个二元字串（单字关键词登记单字）下；没有关键词但有分类时登记在分类下；
+ * 只有价格条件的登记在价格区间树（PriceIntervalTree）里，只查出区间包含商品价格的搜索。新商品到来时，
+ * 用标题的全部单字 / 二元字串、分类和价格分别查出候选搜索，再逐条完整校验，因此匹配开销取决于候选数量，
+ * 而不是已保存搜索的总数。
+ *
+ * 命中结果进入待发送队列，由 SavedSearchNotifier 按用户合并后定期发送。
+ * 索引只在内存中，启动时和每隔一段时间从数据库全量重建；重建期间提交的增删同时记进 changesDuringRebuild，
+ * 查询完成后按顺序补到新索引上再替换，不会丢失。
+ */
+@Component
+public class SavedSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(SavedSearchIndex.class);
+
+    private final SavedSearchRepository savedSearchRepository;
+    private final BlockingQueue<Match> pending;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile Tables tables = new Tables();
+    /** 重建期间的增删，按 id 记最后一次操作（null 表示删除）；非重建期间为 null，只在持有写锁时访问 */
+    private Map<Long, Query> changesDuringRebuild;
+
+    public SavedSearchIndex(SavedSearchRepository savedSearchRepository,
+                            @Value("${market.saved-search.pending-capacity:10000}") int pendingCapacity) {
+        this.savedSearchRepository = savedSearchRepository;
+        this.pending = new LinkedBlockingQueue<>(pendingCapacity);
+    }
+
+    /**
+     * 登记一条搜索，事务提交后生效。
+     */
+    public void add(SavedSearch search) {
+        Query query = Query.of(search);
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                tables.remove(query.id);
+                tables.add(query);
+                tables.seal();
+                if (changesDuringRebuild != null) {
+                    changesDuringRebuild.put(query.id, query);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void remove(Long searchId) {
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                tables.remove(searchId);
+                tables.seal();
+                if (changesDuringRebuild != null) {
+                    changesDuringRebuild.put(searchId, null);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * 用新上架的商品匹配已保存搜索，事务提交后执行；卖家自己的搜索不会命中自己的商品。
+     */
+    public void percolate(Product product) {
+        if (product == null || product.getId() == null || !"ON_SALE".equals(product.getStatus())) {
+            return;
+        }
+        Listing listing = new Listing(product.getId(), product.getSellerId(), product.getTitle(),
+                product.getCategoryId(), product.getPrice());
+        AfterCommit.run(() -> match(listing));
+    }
+
+    /**
+     * 取出当前全部待发送的命中记录。
+     */
+    public List<Match> drainPending() {
+        List<Match> drained = new ArrayList<>(pending.size());
+        pending.drainTo(drained);
+        return drained;
+    }
+
+    /**
+     * 从数据库全量重建索引，启动后立即执行，之后定期校准。
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${market.saved-search.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        // 在查询之前开始记录，查询之后提交的增删都会补到新索引上
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new LinkedHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Tables fresh = null;
+        try {
+            fresh = new Tables();
+            for (SavedSearch search : savedSearchRepository.findAll()) {
+                fresh.add(Query.of(search));
+            }
+        } catch (RuntimeException ex) {
+            fresh = null;
+            log.warn("重建已保存搜索索引失败，沿用现有索引", ex);
+        }
+        lock.writeLock().lock();
+        try {
+            if (fresh != null) {
+                for (Map.Entry<Long, Query> change : changesDuringRebuild.entrySet()) {
+                    fresh.remove(change.getKey());
+                    if (change.getValue() != null) {
+                        fresh.add(change.getValue());
+                    }
+                }
+                fresh.seal();
+                tables = fresh;
+            }
+            changesDuringRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void match(Listing listing) {
+        String title = normalize(listing.title);
+        List<Query> matched = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Set<Long> candidates = new HashSet<>();
+            if (title != null) {
+                for (int i = 0; i < title.length(); i++) {
+                    collect(tables.byGram.get(title.substring(i, i + 1)), candidates);
+                    if (i + 2 <= title.length()) {
+                        collect(tables.byGram.get(title.substring(i, i + 2)), candidates);
+                    }
+                }
+            }
+            if (listing.categoryId != null) {
+                collect(tables.byCategory.get(listing.categoryId), candidates);
+            }
+            if (listing.price != null) {
+                tables.byPrice.stab(listing.price, candidates);
+            }
+            for (Long id : candidates) {
+                Query query = tables.byId.get(id);
+                if (query != null && query.matches(listing, title)) {
+                    matched.add(query);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        for (Query query : matched) {
+            if (!pending.offer(new Match(query.userId, query.id, listing.productId, listing.title, listing.price))) {
+                log.warn("已保存搜索待发送队列已满，丢弃商品 {} 的提醒", listing.productId);
+                return;
+            }
+        }
+    }
+
+    private static void collect(Set<Long> ids, Set<Long> into) {
+        if (ids != null) {
+            into.addAll(ids);
+        }
+    }
+
+    private static String normalize(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 一次命中：某用户的某条搜索匹配到了某个新商品。
+     */
+    public static final class Match {
+        private final Long userId;
+        private final Long searchId;
+        private final Long productId;
+        private final String title;
+        private final BigDecimal price;
+
+        private Match(Long userId, Long searchId, Long productId, String title, BigDecimal price) {
+            this.userId = userId;
+            this.searchId = searchId;
+            this.productId = productId;
+            this.title = title;
+            this.price = price;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public Long getSearchId() {
+            return searchId;
+        }
+
+        public Long getProductId() {
+            return productId;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public BigDecimal getPrice() {
+            return price;
+        }
+    }
+
+    private static final class Listing {
+        private final Long productId;
+        private final Long sellerId;
+        private final String title;
+        private final Long categoryId;
+        private final BigDecimal price;
+
+        private Listing(Long productId, Long sellerId, String title, Long categoryId, BigDecimal price) {
+            this.productId = productId;
+            this.sellerId = sellerId;
+            this.title = title;
+            this.categoryId = categoryId;
+            this.price = price;
+        }
+    }
+
+    /**
+     * 编译后的搜索条件，语义与商品列表接口的筛选一致（标题包含关键词，忽略大小写）。
+     */
+    private static final class Query {
+        private final Long id;
+        private final Long userId;
+        private final String keyword;
+        private final Long categoryId;
+        private final BigDecimal minPrice;
+        private final BigDecimal maxPrice;
+
+        private Query(Long id, Long userId, String keyword, Long categoryId, BigDecimal minPrice, BigDecimal maxPrice) {
+            this.id = id;
+            this.userId = userId;
+            this.keyword = keyword;
+            this.categoryId = categoryId;
+            this.minPrice = minPrice;
+            this.maxPrice = maxPrice;
+        }
+
+        private static Query of(SavedSearch search) {
+            return new Query(search.getId(), search.getUserId(), normalize(search.getKeyword()),
+                    search.getCategoryId(), search.getMinPrice(), search.getMaxPrice());
+        }
+
+        private boolean matches(Listing listing, String normalizedTitle) {
+            if (listing.sellerId != null && listing.sellerId.equals(userId)) {
+                return false;
+            }
+            if (keyword != null && (normalizedTitle == null || !normalizedTitle.contains(keyword))) {
+                return false;
+            }
+            if (categoryId != null && !categoryId.equals(listing.categoryId)) {
+                return false;
+            }
+            if (minPrice != null && (listing.price == null || listing.price.compareTo(minPrice) < 0)) {
+                return false;
+            }
+            return maxPrice == null || (listing.price != null && listing.price.compareTo(maxPrice) <= 0);
+        }
+
+        private String gramKey() {
+            return keyword.substring(0, Math.min(2, keyword.length()));
+        }
+
+        private PriceIntervalTree.Interval priceInterval() {
+            return new PriceIntervalTree.Interval(id, minPrice != null ? minPrice : BigDecimal.ZERO, maxPrice);
+        }
+    }
+
+    /**
+     * 索引表，只在持有写锁时修改；修改后调用 seal 重建价格区间树。
+     */
+    private static final class Tables {
+        private final Map<Long, Query> byId = new HashMap<>();
+        private final Map<String, Set<Long>> byGram = new HashMap<>();
+        private final Map<Long, Set<Long>> byCategory = new HashMap<>();
+        /** 只有价格条件的搜索；区间树不可变，有增删时在 seal 中整体重建 */
+        private final Map<Long, PriceIntervalTree.Interval> priceOnly = new HashMap<>();
+        private PriceIntervalTree byPrice = PriceIntervalTree.EMPTY;
+        private boolean priceDirty;
+
+        private void add(Query query) {
+            byId.put(query.id, query);
+            if (query.keyword != null) {
+                byGram.computeIfAbsent(query.gramKey(), k -> new HashSet<>()).add(query.id);
+            } else if (query.categoryId != null) {
+                byCategory.computeIfAbsent(query.categoryId, k -> new HashSet<>()).add(query.id);
+            } else {
+                priceOnly.put(query.id, query.priceInterval());
+                priceDirty = true;
+            }
+        }
+
+        private void remove(Long id) {
+            Query query = byId.remove(id);
+            if (query == null) {
+                return;
+            }
+            if (query.keyword != null) {
+                detach(byGram, query.gramKey(), id);
+            } else if (query.categoryId != null) {
+                detach(byCategory, query.categoryId, id);
+            } else {
+                priceOnly.remove(id);
+                priceDirty = true;
+            }
+        }
+
+        private void seal() {
+            if (priceDirty) {
+                byPrice = new PriceIntervalTree(priceOnly.values());
+                priceDirty = false;
+            }
+        }
+
+        private static <K> void detach(Map<K, Set<Long>> map, K key, Long id) {
+            Set<Long> ids = map.get(key);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    map.remove(key);
+                }
+            }
+        }
+    }
+}
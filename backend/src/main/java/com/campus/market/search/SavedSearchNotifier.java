@@ -0,0 +1,78 @@
+package com.campus.market.search;
+
+import com.campus.market.chat.ChatService;
+import com.campus.market.common.exception.BusinessException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 已保存搜索的提醒发送。
+ *
+ * 定期取出 SavedSearchIndex 的命中记录，按用户合并（同一商品命中多条搜索只提一次），
+ * 每个用户只发一条系统消息，避免新商品密集上架时刷屏。
+ */
+@Component
+public class SavedSearchNotifier {
+
+    private static final Logger log = LoggerFactory.getLogger(SavedSearchNotifier.class);
+
+    /** 单条消息最多列出的商品数 */
+    private static final int MAX_ITEMS_PER_MESSAGE = 10;
+
+    private final SavedSearchIndex savedSearchIndex;
+    private final ChatService chatService;
+
+    public SavedSearchNotifier(SavedSearchIndex savedSearchIndex, ChatService chatService) {
+        this.savedSearchIndex = savedSearchIndex;
+        this.chatService = chatService;
+    }
+
+    @Scheduled(fixedDelayString = "${market.saved-search.notify-interval-ms:30000}")
+    public void flush() {
+        List<SavedSearchIndex.Match> matches = savedSearchIndex.drainPending();
+        if (matches.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Map<Long, SavedSearchIndex.Match>> byUser = new LinkedHashMap<>();
+        for (SavedSearchIndex.Match match : matches) {
+            byUser.computeIfAbsent(match.getUserId(), k -> new LinkedHashMap<>())
+                    .putIfAbsent(match.getProductId(), match);
+        }
+
+        byUser.forEach((userId, products) -> {
+            try {
+                chatService.sendSystemMessageToUser(userId, buildMessage(new ArrayList<>(products.values())));
+            } catch (BusinessException ex) {
+                log.debug("跳过已保存搜索提醒，用户 {}：{}", userId, ex.getMessage());
+            } catch (RuntimeException ex) {
+                log.warn("发送已保存搜索提醒失败，用户 {}", userId, ex);
+            }
+        });
+    }
+
+    private String buildMessage(List<SavedSearchIndex.Match> items) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("你保存的搜索有 ").append(items.size()).append(" 件新商品上架：");
+        int shown = Math.min(items.size(), MAX_ITEMS_PER_MESSAGE);
+        for (int i = 0; i < shown; i++) {
+            SavedSearchIndex.Match item = items.get(i);
+            sb.append("\n· ").append(item.getTitle());
+            if (item.getPrice() != null) {
+                sb.append(" ¥").append(item.getPrice().toPlainString());
+            }
+            sb.append("（商品 #").append(item.getProductId()).append("）");
+        }
+        if (items.size() > shown) {
+            sb.append("\n……等共 ").append(items.size()).append(" 件");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,41 @@
+package com.campus.market.search;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import org.apache.ibatis.annotations.Mapper;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+@Mapper
+public interface SavedSearchRepository extends BaseMapper<SavedSearch> {
+
+    default Optional<SavedSearch> findById(Long id) {
+        return Optional.ofNullable(selectById(id));
+    }
+
+    default List<SavedSearch> findByUserId(Long userId) {
+        if (userId == null) {
+            return Collections.emptyList();
+        }
+        LambdaQueryWrapper<SavedSearch> wrapper = Wrappers.lambdaQuery(SavedSearch.class)
+                .eq(SavedSearch::getUserId, userId)
+                .orderByDesc(SavedSearch::getCreatedAt, SavedSearch::getId);
+        return selectList(wrapper);
+    }
+
+    default long countByUserId(Long userId) {
+        if (userId == null) {
+            return 0L;
+        }
+        LambdaQueryWrapper<SavedSearch> wrapper = Wrappers.lambdaQuery(SavedSearch.class)
+                .eq(SavedSearch::getUserId, userId);
+        return selectCount(wrapper);
+    }
+
+    default List<SavedSearch> findAll() {
+        return selectList(null);
+    }
+}
@@ -0,0 +1,113 @@
+package com.campus.market.search;
+
+import com.campus.market.common.exception.BusinessException;
+import com.campus.market.product.CategoryCache;
+import com.campus.market.search.dto.SavedSearchDto;
+import com.campus.market.search.dto.SavedSearchRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional
+public class SavedSearchService {
+
+    private static final int MAX_KEYWORD_LENGTH = 100;
+
+    private final SavedSearchRepository savedSearchRepository;
+    private final SavedSearchIndex savedSearchIndex;
+    private final CategoryCache categoryCache;
+    private final int maxPerUser;
+
+    public SavedSearchService(SavedSearchRepository savedSearchRepository,
+                              SavedSearchIndex savedSearchIndex,
+                              CategoryCache categoryCache,
+                              @Value("${market.saved-search.max-per-user:20}") int maxPerUser) {
+        this.savedSearchRepository = savedSearchRepository;
+        this.savedSearchIndex = savedSearchIndex;
+        this.categoryCache = categoryCache;
+        this.maxPerUser = maxPerUser;
+    }
+
+    @Transactional(readOnly = true)
+    public List<SavedSearchDto> listMySearches(Long userId) {
+        return savedSearchRepository.findByUserId(userId).stream()
+                .map(this::toDto)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 保存一条搜索条件，之后符合条件的新商品上架时会收到系统消息。
+     */
+    public SavedSearchDto create(Long userId, SavedSearchRequest request) {
+        if (userId == null) {
+            throw new BusinessException("未登录");
+        }
+        if (request == null) {
+            throw new BusinessException("请求参数不能为空");
+        }
+
+        String keyword = request.getKeyword() != null ? request.getKeyword().trim() : null;
+        if (keyword != null && keyword.isEmpty()) {
+            keyword = null;
+        }
+        BigDecimal minPrice = request.getMinPrice();
+        BigDecimal maxPrice = request.getMaxPrice();
+        Long categoryId = request.getCategoryId();
+
+        if (keyword == null && categoryId == null && minPrice == null && maxPrice == null) {
+            throw new BusinessException("至少需要一个搜索条件");
+        }
+        if (keyword != null && keyword.length() > MAX_KEYWORD_LENGTH) {
+            throw new BusinessException("关键词过长");
+        }
+        if (categoryId != null && categoryCache.findById(categoryId).isEmpty()) {
+            throw new BusinessException("分类不存在");
+        }
+        if ((minPrice != null && minPrice.signum() < 0) || (maxPrice != null && maxPrice.signum() < 0)) {
+            throw new BusinessException("价格不能为负数");
+        }
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new BusinessException("最低价不能高于最高价");
+        }
+        if (savedSearchRepository.countByUserId(userId) >= maxPerUser) {
+            throw new BusinessException("最多保存 " + maxPerUser + " 条搜索");
+        }
+
+        SavedSearch search = new SavedSearch();
+        search.setUserId(userId);
+        search.setKeyword(keyword);
+        search.setCategoryId(categoryId);
+        search.setMinPrice(minPrice);
+        search.setMaxPrice(maxPrice);
+        search.prePersist();
+        savedSearchRepository.insert(search);
+        savedSearchIndex.add(search);
+        return toDto(search);
+    }
+
+    public void delete(Long userId, Long id) {
+        SavedSearch search = savedSearchRepository.findById(id)
+                .orElseThrow(() -> new BusinessException("搜索条件不存在"));
+        if (!search.getUserId().equals(userId)) {
+            throw new BusinessException("无权删除该搜索条件");
+        }
+        savedSearchRepository.deleteById(id);
+        savedSearchIndex.remove(id);
+    }
+
+    private SavedSearchDto toDto(SavedSearch search) {
+        SavedSearchDto dto = new SavedSearchDto();
+        dto.setId(search.getId());
+        dto.setKeyword(search.getKeyword());
+        dto.setCategoryId(search.getCategoryId());
+        dto.setMinPrice(search.getMinPrice());
+        dto.setMaxPrice(search.getMaxPrice());
+        dto.setCreatedAt(search.getCreatedAt());
+        return dto;
+    }
+}
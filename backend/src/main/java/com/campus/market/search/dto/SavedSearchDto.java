@@ -0,0 +1,20 @@
+package com.campus.market.search.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 已保存的搜索条件 DTO：有符合条件的新商品上架时，会以系统消息通知用户。
+ */
+@Data
+public class SavedSearchDto {
+
+    private Long id;
+    private String keyword;
+    private Long categoryId;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private LocalDateTime createdAt;
+}
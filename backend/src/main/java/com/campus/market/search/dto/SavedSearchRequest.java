@@ -0,0 +1,20 @@
+package com.campus.market.search.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * 保存搜索条件请求体：与商品列表接口的筛选参数一致，至少需要一个条件。
+ */
+@Data
+public class SavedSearchRequest {
+
+    private String keyword;
+
+    private Long categoryId;
+
+    private BigDecimal minPrice;
+
+    private BigDecimal maxPrice;
+}
@@ -2,6 +2,7 @@ package com.campus.market.user;
 
 import com.campus.market.common.api.ApiResponse;
 import com.campus.market.common.exception.BusinessException;
+import com.campus.market.favorite.FavoriteIdCache;
 import com.campus.market.product.ProductService;
 import com.campus.market.product.dto.ProductListItemDto;
 import com.campus.market.user.dto.UpdateProfileRequest;
@@ -27,13 +28,16 @@ public class UserController {
     private final UserRepository userRepository;
     private final UserProfileRepository userProfileRepository;
     private final ProductService productService;
+    private final FavoriteIdCache favoriteIdCache;
 
     public UserController(UserRepository userRepository,
                           UserProfileRepository userProfileRepository,
-                          ProductService productService) {
+                          ProductService productService,
+                          FavoriteIdCache favoriteIdCache) {
         this.userRepository = userRepository;
         this.userProfileRepository = userProfileRepository;
         this.productService = productService;
+        this.favoriteIdCache = favoriteIdCache;
     }
 
     @GetMapping("/api/users/me")
@@ -111,18 +115,21 @@ public class UserController {
         User user = userRepository.findByUsername(principal.getName())
                 .orElseThrow(() -> new BusinessException("用户不存在"));
         Page<ProductListItemDto> result = productService.listBySeller(user.getId(), status, page, size);
-        return ApiResponse.ok(result);
+        return ApiResponse.ok(favoriteIdCache.mark(user.getId(), result));
     }
 
     @GetMapping("/api/users/{id}/products")
     public ApiResponse<Page<ProductListItemDto>> userProducts(@PathVariable Long id,
                                                               @RequestParam(required = false) String status,
                                                               @RequestParam(defaultValue = "0") int page,
-                                                              @RequestParam(defaultValue = "20") int size) {
+                                                              @RequestParam(defaultValue = "20") int size,
+                                                              Principal principal) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new BusinessException("用户不存在"));
         Page<ProductListItemDto> result = productService.listBySeller(user.getId(), status, page, size);
-        return ApiResponse.ok(result);
+        Long viewerId = principal == null ? null
+                : userRepository.findByUsername(principal.getName()).map(User::getId).orElse(null);
+        return ApiResponse.ok(favoriteIdCache.mark(viewerId, result));
     }
 
     private UserProfileDto buildProfileDto(User user) {
@@ -5,7 +5,10 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import org.apache.ibatis.annotations.Mapper;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Mapper
 public interface UserProfileRepository extends BaseMapper<UserProfile> {
@@ -19,6 +22,36 @@ public interface UserProfileRepository extends BaseMapper<UserProfile> {
         return Optional.ofNullable(selectOne(wrapper));
     }
 
+    default List<UserProfile> findByUserIdIn(Collection<Long> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return List.of();
+        }
+        LambdaQueryWrapper<UserProfile> wrapper = Wrappers.lambdaQuery(UserProfile.class)
+                .in(UserProfile::getUserId, userIds);
+        return selectList(wrapper);
+    }
+
+    /**
+     * 按 user_id 升序分页（keyset）取符合筛选条件的用户 id，afterUserId 为上一页最后一个 id。
+     */
+    default List<Long> findUserIdsAfter(Long afterUserId, String campus, String grade, int limit) {
+        LambdaQueryWrapper<UserProfile> wrapper = Wrappers.lambdaQuery(UserProfile.class)
+                .select(UserProfile::getUserId)
+                .gt(afterUserId != null, UserProfile::getUserId, afterUserId)
+                .eq(campus != null, UserProfile::getCampus, campus)
+                .eq(grade != null, UserProfile::getGrade, grade)
+                .orderByAsc(UserProfile::getUserId)
+                .last("LIMIT " + limit);
+        return selectList(wrapper).stream().map(UserProfile::getUserId).collect(Collectors.toList());
+    }
+
+    default long countByCampusAndGrade(String campus, String grade) {
+        LambdaQueryWrapper<UserProfile> wrapper = Wrappers.lambdaQuery(UserProfile.class)
+                .eq(campus != null, UserProfile::getCampus, campus)
+                .eq(grade != null, UserProfile::getGrade, grade);
+        return selectCount(wrapper);
+    }
+
     default int update(UserProfile profile) {
         return updateById(profile);
     }
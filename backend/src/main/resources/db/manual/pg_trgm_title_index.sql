@@ -0,0 +1,9 @@
+-- 商品标题模糊搜索的 trigram 索引：ProductService.listFilter 的 LOWER(title) LIKE '%' || LOWER(?) || '%'
+--
+-- CREATE EXTENSION 需要数据库的 CREATE 权限（PostgreSQL 13 起 pg_trgm 为 trusted 扩展，否则需超级用户），
+-- 应用账号通常没有，因此不放进 Flyway 迁移，由 DBA 在上线前以有权限的账号执行一次：
+--   psql -d campus_market -f pg_trgm_title_index.sql
+-- 未执行时关键词搜索仍可用，只是对 product 表顺序扫描。脚本可重复执行；不要放在事务中执行（CONCURRENTLY）。
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_product_title_trgm ON product USING gin (LOWER(title) gin_trgm_ops);
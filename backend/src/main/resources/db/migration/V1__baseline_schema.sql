@@ -0,0 +1,93 @@
+-- 初始表结构，与实体类字段保持一致；只含主键和唯一约束，业务索引见 V3。
+CREATE TABLE "user" (
+    id            BIGSERIAL PRIMARY KEY,
+    username      VARCHAR(50)  NOT NULL UNIQUE,
+    phone         VARCHAR(20) UNIQUE,
+    password_hash VARCHAR(200) NOT NULL,
+    role          VARCHAR(20)  NOT NULL DEFAULT 'USER',
+    enabled       BOOLEAN      NOT NULL DEFAULT TRUE,
+    created_at    TIMESTAMP    NOT NULL,
+    updated_at    TIMESTAMP    NOT NULL
+);
+
+CREATE TABLE user_profile (
+    id         BIGSERIAL PRIMARY KEY,
+    user_id    BIGINT      NOT NULL UNIQUE,
+    nickname   VARCHAR(50) NOT NULL,
+    avatar_url VARCHAR(255),
+    major      VARCHAR(255),
+    grade      VARCHAR(255),
+    campus     VARCHAR(255),
+    credit     INT         NOT NULL DEFAULT 700,
+    bio        VARCHAR(500),
+    created_at TIMESTAMP   NOT NULL,
+    updated_at TIMESTAMP   NOT NULL
+);
+
+CREATE TABLE category (
+    id   BIGSERIAL PRIMARY KEY,
+    name VARCHAR(50) NOT NULL UNIQUE
+);
+
+CREATE TABLE product (
+    id             BIGSERIAL PRIMARY KEY,
+    seller_id      BIGINT         NOT NULL,
+    title          VARCHAR(200)   NOT NULL,
+    description    TEXT           NOT NULL,
+    category_id    BIGINT,
+    price          NUMERIC(10, 2) NOT NULL,
+    original_price NUMERIC(10, 2),
+    status         VARCHAR(20)    NOT NULL DEFAULT 'ON_SALE',
+    location       VARCHAR(100),
+    view_count     BIGINT         NOT NULL DEFAULT 0,
+    created_at     TIMESTAMP      NOT NULL,
+    updated_at     TIMESTAMP      NOT NULL
+);
+
+CREATE TABLE product_image (
+    id         BIGSERIAL PRIMARY KEY,
+    product_id BIGINT       NOT NULL,
+    url        VARCHAR(255) NOT NULL,
+    sort_order INT          NOT NULL DEFAULT 0
+);
+
+CREATE TABLE chat_session (
+    id           BIGSERIAL PRIMARY KEY,
+    buyer_id     BIGINT    NOT NULL,
+    seller_id    BIGINT    NOT NULL,
+    product_id   BIGINT,
+    last_message VARCHAR(200),
+    last_time    TIMESTAMP,
+    created_at   TIMESTAMP NOT NULL
+);
+
+CREATE TABLE chat_message (
+    id         BIGSERIAL PRIMARY KEY,
+    session_id BIGINT      NOT NULL,
+    sender_id  BIGINT      NOT NULL,
+    type       VARCHAR(10) NOT NULL DEFAULT 'TEXT',
+    content    TEXT        NOT NULL,
+    is_read    BOOLEAN     NOT NULL DEFAULT FALSE,
+    created_at TIMESTAMP   NOT NULL
+);
+
+CREATE TABLE orders (
+    id             BIGSERIAL PRIMARY KEY,
+    buyer_id       BIGINT         NOT NULL,
+    seller_id      BIGINT         NOT NULL,
+    product_id     BIGINT         NOT NULL,
+    status         VARCHAR(20)    NOT NULL DEFAULT 'PENDING',
+    price_snapshot NUMERIC(10, 2) NOT NULL,
+    meet_location  VARCHAR(100),
+    meet_time      TIMESTAMP,
+    created_at     TIMESTAMP      NOT NULL,
+    updated_at     TIMESTAMP      NOT NULL
+);
+
+CREATE TABLE favorite (
+    id         BIGSERIAL PRIMARY KEY,
+    user_id    BIGINT    NOT NULL,
+    product_id BIGINT    NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    CONSTRAINT uk_favorite_user_product UNIQUE (user_id, product_id)
+);
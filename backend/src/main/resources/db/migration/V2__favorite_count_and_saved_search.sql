@@ -0,0 +1,19 @@
+-- 商品收藏数冗余列（按热度排序用，由 FavoriteCountService 定期回写）与保存的搜索条件。
+-- 手工补过这些结构的旧库再次执行也不会出错。
+ALTER TABLE product ADD COLUMN IF NOT EXISTS favorite_count INT NOT NULL DEFAULT 0;
+
+UPDATE product AS p
+SET favorite_count = f.cnt
+FROM (SELECT product_id, COUNT(*) AS cnt FROM favorite GROUP BY product_id) AS f
+WHERE f.product_id = p.id
+  AND p.favorite_count <> f.cnt;
+
+CREATE TABLE IF NOT EXISTS saved_search (
+    id          BIGSERIAL PRIMARY KEY,
+    user_id     BIGINT    NOT NULL,
+    keyword     VARCHAR(100),
+    category_id BIGINT,
+    min_price   NUMERIC(10, 2),
+    max_price   NUMERIC(10, 2),
+    created_at  TIMESTAMP NOT NULL
+);
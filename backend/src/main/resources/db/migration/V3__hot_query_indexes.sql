@@ -0,0 +1,50 @@
+-- 热点查询使用的索引，每个索引注明对应的仓库方法 / 服务查询。
+-- 压测工程中的 IndexUsageCheck 会在压测数据上检查这些查询的执行计划，新增查询时请同步补充索引。
+--
+-- 索引一律 CONCURRENTLY 创建，建索引期间不阻塞业务表的写入；CONCURRENTLY 不能放在事务里，
+-- 因此本脚本由 V3__hot_query_indexes.sql.conf 声明为非事务迁移。某条语句中途失败时会留下 INVALID 索引，
+-- 需先 DROP INDEX CONCURRENTLY 该索引并 flyway repair，再重新启动。
+-- 商品标题模糊搜索使用的 pg_trgm 索引需要建扩展的权限，不在此处创建，见 db/manual/pg_trgm_title_index.sql。
+
+-- 最新在售商品 / 默认排序的商品列表：status = ? ORDER BY created_at DESC, id DESC
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_product_status_created ON product (status, created_at DESC, id DESC);
+-- 按分类筛选的商品列表
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_product_category_status_created ON product (category_id, status, created_at DESC);
+-- sort=popular：status = ? ORDER BY favorite_count, id（favorite_count 由定时任务批量回写，不影响热更新）
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_product_status_favorite ON product (status, favorite_count DESC, id DESC);
+-- 卖家的商品列表：seller_id = ? [AND status = ?] ORDER BY created_at DESC
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_product_seller_status_created ON product (seller_id, status, created_at DESC);
+
+-- 商品图片与缩略图：product_id = ? / IN (...) ORDER BY sort_order, id
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_product_image_product_sort ON product_image (product_id, sort_order, id);
+
+-- 会话列表与系统会话查找：buyer_id = ? [AND seller_id = ? AND product_id ...]
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_chat_session_buyer_seller_product ON chat_session (buyer_id, seller_id, product_id);
+-- 会话列表：seller_id = ?（与 buyer_id 的条件以 OR 组合时走 BitmapOr）
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_chat_session_seller ON chat_session (seller_id);
+
+-- 消息列表：session_id = ? ORDER BY created_at, id
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_chat_message_session_created ON chat_message (session_id, created_at, id);
+-- 未读数：session_id IN (...) AND is_read = FALSE AND sender_id <> ?
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_chat_message_session_read_sender ON chat_message (session_id, is_read, sender_id);
+
+-- 我的收藏 keyset 分页：user_id = ? AND (created_at, id) < (?, ?) ORDER BY created_at DESC, id DESC
+-- (user_id, product_id) 的查找由唯一约束 uk_favorite_user_product 覆盖
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_favorite_user_created ON favorite (user_id, created_at DESC, id DESC);
+-- 降价提醒查找收藏者：product_id IN (...)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_favorite_product ON favorite (product_id);
+
+-- 我买到的 / 我卖出的订单：buyer_id / seller_id = ? [AND status = ?] ORDER BY created_at DESC, id DESC
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_buyer_created ON orders (buyer_id, created_at DESC, id DESC);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_seller_created ON orders (seller_id, created_at DESC, id DESC);
+
+-- 我保存的搜索：user_id = ? ORDER BY created_at DESC, id DESC
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_saved_search_user_created ON saved_search (user_id, created_at DESC, id DESC);
+
+ANALYZE product;
+ANALYZE product_image;
+ANALYZE chat_session;
+ANALYZE chat_message;
+ANALYZE favorite;
+ANALYZE orders;
+ANALYZE saved_search;
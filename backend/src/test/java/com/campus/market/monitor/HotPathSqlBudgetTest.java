@@ -0,0 +1,231 @@
+package com.campus.market.monitor;
+
+import com.campus.market.chat.ChatService;
+import com.campus.market.chat.dto.ChatSessionDto;
+import com.campus.market.favorite.FavoriteService;
+import com.campus.market.order.OrderService;
+import com.campus.market.order.dto.OrderDto;
+import com.campus.market.product.LatestProductFeed;
+import com.campus.market.product.ProductService;
+import com.campus.market.product.dto.ProductListItemDto;
+import com.campus.market.search.SavedSearchService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 热点读路径的 SQL 预算：商品列表、最新发布、会话列表、订单列表；以及这些路径上的查询都能走索引。
+ *
+ * 在嵌入式 PostgreSQL 上执行迁移脚本并写入少量数据（每个列表都有多行，出现 N+1 时同一语句会重复执行），
+ * 之后直接调用服务方法统计语句数。预算不含认证时加载用户的那条查询；改动导致语句数增加或出现逐行查询时测试失败，
+ * 确有必要增加查询时同步调整这里的预算。
+ *
+ * 索引检查由 IndexUsageCheck 在关闭顺序扫描后 EXPLAIN 每种语句，热点查询退化为顺序扫描（缺少可用的索引）时测试失败。
+ */
+@SpringBootTest
+@Import(HotPathSqlBudgetTest.IndexCheckConfig.class)
+class HotPathSqlBudgetTest {
+
+    /** 同一语句形状执行这么多次视为 N+1；测试数据中每个列表都不少于 5 行 */
+    private static final int REPEAT_THRESHOLD = 3;
+
+    private static final EmbeddedPostgres POSTGRES = startPostgres();
+
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private LatestProductFeed latestProductFeed;
+    @Autowired
+    private ChatService chatService;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private FavoriteService favoriteService;
+    @Autowired
+    private SavedSearchService savedSearchService;
+    @Autowired
+    private IndexUsageCheck indexUsageCheck;
+
+    @TestConfiguration
+    static class IndexCheckConfig {
+
+        @Bean
+        IndexUsageCheck indexUsageCheck() {
+            Properties allowlist = new Properties();
+            allowlist.setProperty("CategoryRepository.selectList", "分类缓存整表加载，分类只有几十行");
+            return IndexUsageCheck.forcingIndex(allowlist);
+        }
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) throws IOException {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+        Path uploads = Files.createTempDirectory("campus-market-test");
+        registry.add("file.upload-dir", () -> uploads.resolve("uploads").toString());
+        registry.add("file.chunked.partial-dir", () -> uploads.resolve("partial").toString());
+        // 启动后只加载一次最新发布信息流，测试中手动失效以走数据库路径
+        registry.add("market.latest-feed.reload-interval-ms", () -> "3600000");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        POSTGRES.close();
+    }
+
+    @Test
+    void productListStaysWithinBudget() {
+        AtomicReference<Page<ProductListItemDto>> page = new AtomicReference<>();
+        measure("商品列表", 4, () -> page.set(productService.list(null, null, null, null, "latest", 0, 20)));
+        assertEquals(20, page.get().getContent().size());
+
+        measure("商品列表（关键词 + 价格）", 4,
+                () -> productService.list(null, "二手", null, new BigDecimal("500"), "priceAsc", 0, 20));
+    }
+
+    @Test
+    void latestFromDatabaseStaysWithinBudget() {
+        latestProductFeed.invalidate();
+        AtomicReference<List<ProductListItemDto>> latest = new AtomicReference<>();
+        measure("最新发布（回退数据库）", 3, () -> latest.set(productService.getLatest(8)));
+        assertEquals(8, latest.get().size());
+    }
+
+    @Test
+    void chatSessionsStayWithinBudget() {
+        AtomicReference<List<ChatSessionDto>> sessions = new AtomicReference<>();
+        measure("会话列表", 6, () -> sessions.set(chatService.listSessions(1L)));
+        assertEquals(6, sessions.get().size());
+    }
+
+    @Test
+    void ordersStayWithinBudget() {
+        AtomicReference<List<OrderDto>> orders = new AtomicReference<>();
+        measure("我买到的订单", 4, () -> orders.set(orderService.listMyOrders(1L, "BUY", null)));
+        assertEquals(6, orders.get().size());
+    }
+
+    @Test
+    void hotQueriesUseIndexes() {
+        indexUsageCheck.during(() -> {
+            productService.list(null, null, null, null, "latest", 0, 20);
+            productService.list(2L, null, null, null, "latest", 0, 20);
+            productService.list(null, null, null, null, "popular", 0, 20);
+            productService.list(null, "二手", null, new BigDecimal("500"), "priceAsc", 0, 20);
+            productService.listBySeller(2L, "ON_SALE", 0, 20);
+            productService.getDetail(1L);
+            latestProductFeed.invalidate();
+            productService.getLatest(8);
+            chatService.listSessions(1L);
+            chatService.listMessages(1L, 1L);
+            orderService.listMyOrders(1L, "BUY", null);
+            orderService.listMyOrders(2L, "SELL", "PENDING");
+            favoriteService.listMyFavorites(1L, null, 20);
+            savedSearchService.listMySearches(1L);
+        });
+        List<String> problems = indexUsageCheck.problems();
+        assertTrue(problems.isEmpty(), () -> String.join("\n", problems));
+    }
+
+    private static void measure(String label, int budget, Runnable action) {
+        SqlBudget.assertWithin(label, budget, REPEAT_THRESHOLD, action);
+    }
+
+    private static EmbeddedPostgres startPostgres() {
+        try {
+            EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+            // 应用启动前先迁移并写入数据，各内存缓存在启动时即加载到这些数据
+            DataSource dataSource = postgres.getPostgresDatabase();
+            Flyway.configure().dataSource(dataSource)
+                    // 与 application.yml 一致：CONCURRENTLY 建索引不能与事务级迁移锁共存
+                    .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+                    .load().migrate();
+            // 生产环境由 DBA 执行的标题搜索索引，见 db/manual
+            try (Connection connection = dataSource.getConnection()) {
+                ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/manual/pg_trgm_title_index.sql"));
+            }
+            seed(dataSource);
+            return postgres;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (SQLException e) {
+            throw new IllegalStateException("初始化测试数据失败", e);
+        }
+    }
+
+    /**
+     * 6 个用户；用户 1 作为买家与其余 5 人各有一个会话（另有一个自己发起的），并买了 6 单；
+     * 24 件在售商品分属 3 个分类，每件 2 张图片，部分被收藏。
+     */
+    private static void seed(DataSource dataSource) throws SQLException {
+        List<String> sql = new ArrayList<>();
+        sql.add("""
+                INSERT INTO "user" (username, phone, password_hash, created_at, updated_at)
+                SELECT 'student' || i, '1380000000' || i, 'x', now(), now() FROM generate_series(1, 6) AS i""");
+        sql.add("""
+                INSERT INTO user_profile (user_id, nickname, created_at, updated_at)
+                SELECT i, '同学' || i, now(), now() FROM generate_series(1, 6) AS i""");
+        sql.add("INSERT INTO category (name) VALUES ('数码'), ('书籍'), ('生活')");
+        sql.add("""
+                INSERT INTO product (seller_id, title, description, category_id, price, status, location,
+                                     created_at, updated_at)
+                SELECT 2 + i % 5, '二手好物 ' || i, '描述', 1 + i % 3, 10 * i, 'ON_SALE', '东区',
+                       now() - i * interval '1 minute', now() - i * interval '1 minute'
+                FROM generate_series(1, 24) AS i""");
+        sql.add("""
+                INSERT INTO product_image (product_id, url, sort_order)
+                SELECT p, '/uploads/products/' || p || '-' || s || '.jpg', s
+                FROM generate_series(1, 24) AS p, generate_series(0, 1) AS s""");
+        sql.add("""
+                INSERT INTO favorite (user_id, product_id, created_at)
+                SELECT 1, p, now() FROM generate_series(1, 24, 3) AS p""");
+        sql.add("""
+                INSERT INTO chat_session (buyer_id, seller_id, product_id, last_message, last_time, created_at)
+                SELECT 1, 2 + i % 5, i, '还在吗', now() - i * interval '1 minute', now()
+                FROM generate_series(1, 6) AS i""");
+        sql.add("""
+                INSERT INTO chat_message (session_id, sender_id, content, is_read, created_at)
+                SELECT s, CASE WHEN m % 2 = 0 THEN 1 ELSE 2 + s % 5 END, '消息 ' || m, m < 3, now()
+                FROM generate_series(1, 6) AS s, generate_series(1, 4) AS m""");
+        sql.add("""
+                INSERT INTO orders (buyer_id, seller_id, product_id, status, price_snapshot, created_at, updated_at)
+                SELECT 1, 2 + i % 5, 6 + i, 'PENDING', 10 * (6 + i), now() - i * interval '1 minute', now()
+                FROM generate_series(1, 6) AS i""");
+        sql.add("ANALYZE");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            for (String s : sql) {
+                statement.execute(s);
+            }
+        }
+    }
+}
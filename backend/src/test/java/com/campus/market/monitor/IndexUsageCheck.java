@@ -0,0 +1,213 @@
+package com.campus.market.monitor;
+
+import com.baomidou.mybatisplus.core.toolkit.PluginUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 检查应用发出的每种 SQL 是否用上了索引，HotPathSqlBudgetTest 与压测共用。
+ *
+ * 作为 MyBatis 插件注册进被测应用：开启检查后，每种语句形状第一次执行前，在同一连接上用同样的绑定参数执行
+ * EXPLAIN (FORMAT JSON)。不带 ANALYZE，写语句不会真正执行；处在事务中时包在保存点里，EXPLAIN 出错也不影响业务语句。
+ *
+ * 两种判定方式：
+ * - 压测（数据量接近真实）：计划中出现顺序扫描，且该表行数不少于 minRows、预计返回行数占全表比例低于
+ *   maxSelectivity 时，视为缺少索引。全表聚合这类本来就要读大部分行的扫描不计入；
+ * - 单元测试（数据只有几十行，规划器总会选顺序扫描）：EXPLAIN 前 SET enable_seqscan = off，
+ *   此时仍出现顺序扫描说明没有可用的索引，一律视为缺少索引。
+ *
+ * 确需顺序扫描的语句按 Mapper 方法名登记在 allowlist 中。
+ */
+@Intercepts({
+        @Signature(type = StatementHandler.class, method = "query", args = {Statement.class, ResultHandler.class}),
+        @Signature(type = StatementHandler.class, method = "update", args = {Statement.class})
+})
+public final class IndexUsageCheck implements Interceptor {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final int minRows;
+    private final double maxSelectivity;
+    private final boolean forceIndex;
+    private final Properties allowlist;
+    private volatile boolean enabled;
+    private final Set<String> explained = ConcurrentHashMap.newKeySet();
+    private final Map<String, Double> tableRows = new ConcurrentHashMap<>();
+    private final Map<String, String> findings = new ConcurrentHashMap<>();
+    private final Map<String, String> failures = new ConcurrentHashMap<>();
+
+    /**
+     * 按行数与选择度判定，创建后即开启。
+     */
+    public IndexUsageCheck(int minRows, double maxSelectivity, Properties allowlist) {
+        this(minRows, maxSelectivity, false, allowlist);
+        this.enabled = true;
+    }
+
+    /**
+     * 关闭顺序扫描后判定，创建后处于关闭状态，用 during 只检查指定的调用。
+     */
+    public static IndexUsageCheck forcingIndex(Properties allowlist) {
+        return new IndexUsageCheck(0, 0, true, allowlist);
+    }
+
+    private IndexUsageCheck(int minRows, double maxSelectivity, boolean forceIndex, Properties allowlist) {
+        this.minRows = minRows;
+        this.maxSelectivity = maxSelectivity;
+        this.forceIndex = forceIndex;
+        this.allowlist = allowlist;
+    }
+
+    /**
+     * 只检查 action 执行期间发出的语句，如跳过启动时加载缓存的全表查询。
+     */
+    public void during(Runnable action) {
+        enabled = true;
+        try {
+            action.run();
+        } finally {
+            enabled = false;
+        }
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        StatementHandler handler = (StatementHandler) invocation.getTarget();
+        String sql = handler.getBoundSql().getSql();
+        String shape = SqlStatementInterceptor.shape(sql);
+        if (enabled && explained.add(shape)) {
+            Connection connection = ((Statement) invocation.getArgs()[0]).getConnection();
+            String statementId = statementId(handler);
+            try {
+                check(connection, handler, statementId, sql, shape);
+            } catch (SQLException | IOException ex) {
+                failures.put(shape, statementId + ": " + ex.getMessage());
+            }
+        }
+        return invocation.proceed();
+    }
+
+    /**
+     * 缺少索引与 EXPLAIN 失败的语句说明，全部通过时为空。
+     */
+    public List<String> problems() {
+        List<String> problems = new ArrayList<>();
+        new TreeMap<>(findings).values().forEach(finding -> problems.add("缺少索引: " + finding));
+        new TreeMap<>(failures).values().forEach(failure -> problems.add("EXPLAIN 失败: " + failure));
+        return problems;
+    }
+
+    /**
+     * 输出检查结果，全部通过时返回 true。
+     */
+    public boolean report() {
+        System.out.printf("索引检查: 共 %d 种语句, 缺少索引 %d 处, EXPLAIN 失败 %d 条%n",
+                explained.size(), findings.size(), failures.size());
+        new TreeMap<>(findings).values().forEach(finding -> System.out.println("  缺少索引: " + finding));
+        new TreeMap<>(failures).values().forEach(failure -> System.out.println("  EXPLAIN 失败: " + failure));
+        boolean ok = findings.isEmpty() && failures.isEmpty();
+        System.out.println(ok ? "索引检查通过" : "索引检查未通过");
+        return ok;
+    }
+
+    private void check(Connection connection, StatementHandler handler, String statementId,
+                       String sql, String shape) throws SQLException, IOException {
+        if (allowlist.containsKey(statementId)) {
+            return;
+        }
+        Savepoint savepoint = connection.getAutoCommit() ? null : connection.setSavepoint();
+        try {
+            if (forceIndex) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SET enable_seqscan = off");
+                }
+            }
+            String plan;
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN (FORMAT JSON) " + sql)) {
+                handler.getParameterHandler().setParameters(statement);
+                try (ResultSet rs = statement.executeQuery()) {
+                    rs.next();
+                    plan = rs.getString(1);
+                }
+            }
+            List<JsonNode> seqScans = new ArrayList<>();
+            collectSeqScans(JSON.readTree(plan).get(0).get("Plan"), seqScans);
+            for (JsonNode scan : seqScans) {
+                String table = scan.get("Relation Name").asText();
+                if (forceIndex) {
+                    findings.put(shape + table, String.format("%s 顺序扫描 %s: %s", statementId, table, shape));
+                    continue;
+                }
+                double rows = tableRows(connection, table);
+                double planRows = scan.get("Plan Rows").asDouble();
+                if (rows >= minRows && planRows < rows * maxSelectivity) {
+                    findings.put(shape + table, String.format("%s 顺序扫描 %s（预计 %.0f / %.0f 行）: %s",
+                            statementId, table, planRows, rows, shape));
+                }
+            }
+        } finally {
+            if (savepoint != null) {
+                connection.rollback(savepoint);
+                connection.releaseSavepoint(savepoint);
+            }
+            if (forceIndex) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("RESET enable_seqscan");
+                }
+            }
+        }
+    }
+
+    private static void collectSeqScans(JsonNode node, List<JsonNode> out) {
+        if ("Seq Scan".equals(node.path("Node Type").asText())) {
+            out.add(node);
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectSeqScans(child, out);
+        }
+    }
+
+    private double tableRows(Connection connection, String table) throws SQLException {
+        Double cached = tableRows.get(table);
+        if (cached != null) {
+            return cached;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT reltuples FROM pg_class WHERE relname = ? AND relkind = 'r'")) {
+            statement.setString(1, table);
+            try (ResultSet rs = statement.executeQuery()) {
+                double rows = rs.next() ? rs.getDouble(1) : 0;
+                tableRows.put(table, rows);
+                return rows;
+            }
+        }
+    }
+
+    private static String statementId(StatementHandler handler) {
+        String id = PluginUtils.mpStatementHandler(handler).mappedStatement().getId();
+        int method = id.lastIndexOf('.');
+        int type = method > 0 ? id.lastIndexOf('.', method - 1) : -1;
+        return id.substring(type + 1);
+    }
+}
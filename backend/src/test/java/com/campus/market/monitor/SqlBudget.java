@@ -0,0 +1,58 @@
+package com.campus.market.monitor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SQL 预算断言，供测试使用：执行一段代码，语句数超过预算或出现疑似 N+1 时抛出 AssertionError，
+ * 错误信息中列出本次执行的全部语句形状。热点路径的预算见 HotPathSqlBudgetTest。
+ *
+ * <pre>
+ * SqlBudget.assertAtMost("商品列表", 4, () -> productService.list(...));
+ * </pre>
+ *
+ * 被测代码若把查询分发到 fan-out 线程池，这些查询同样计入（线程池已配置 SqlStatementContext::propagate）。
+ */
+public final class SqlBudget {
+
+    private SqlBudget() {
+    }
+
+    /**
+     * 断言 action 执行的语句数不超过 maxStatements，返回本次统计。
+     */
+    public static SqlStatementStats assertAtMost(String label, int maxStatements, Runnable action) {
+        SqlStatementStats stats = SqlStatementContext.measure(action);
+        if (stats.statements() > maxStatements) {
+            throw new AssertionError(label + " 超出 SQL 预算 " + maxStatements + "：" + stats);
+        }
+        return stats;
+    }
+
+    /**
+     * 同时断言语句数不超过 maxStatements、且没有语句形状执行次数达到 repeatThreshold，返回本次统计。
+     * 两个断言各自调用时会分别执行一遍 action，嵌套调用时外层统计不到内层的语句，需要同时检查时用这个方法。
+     */
+    public static SqlStatementStats assertWithin(String label, int maxStatements, int repeatThreshold, Runnable action) {
+        SqlStatementStats stats = SqlStatementContext.measure(action);
+        if (stats.statements() > maxStatements) {
+            throw new AssertionError(label + " 超出 SQL 预算 " + maxStatements + "：" + stats);
+        }
+        if (!stats.repeated(repeatThreshold).isEmpty()) {
+            throw new AssertionError(label + " 存在重复执行 " + repeatThreshold + " 次以上的语句：" + stats);
+        }
+        return stats;
+    }
+
+    /**
+     * 断言 action 中没有任何语句形状执行次数达到 threshold（即没有 N+1），返回本次统计。
+     */
+    public static SqlStatementStats assertNoRepeats(String label, int threshold, Runnable action) {
+        SqlStatementStats stats = SqlStatementContext.measure(action);
+        List<Map.Entry<String, Integer>> repeated = stats.repeated(threshold);
+        if (!repeated.isEmpty()) {
+            throw new AssertionError(label + " 存在重复执行 " + threshold + " 次以上的语句：" + stats);
+        }
+        return stats;
+    }
+}
@@ -19,6 +19,11 @@ export const productApi = {
   updateStatus: (id, status) => request.patch(`/products/${id}/status`, { status }),
 };
 
+export const homeApi = {
+  // 首页聚合：latest / categories / products 首页 / 当前用户（未登录为 null）
+  get: (params) => request.get('/home', { params }),
+};
+
 export const userApi = {
   getProfile: (id) => request.get(`/users/${id}`),
   getMyProducts: (status) => request.get('/users/me/products', { params: { status } }),
@@ -63,7 +68,7 @@ export const fileApi = {
 };
 
 export const favoriteApi = {
-  listMy: () => request.get('/favorites'),
+  listMy: (params) => request.get('/favorites', { params }),
   add: (productId) => request.post(`/favorites/${productId}`),
   remove: (productId) => request.delete(`/favorites/${productId}`),
 };
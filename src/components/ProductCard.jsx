@@ -5,53 +5,14 @@ import { Link } from 'react-router-dom';
 import { favoriteApi } from '../api';
 
 // 商品卡片组件：展示商品缩略图、价格、位置、卖家信息，并支持收藏/取消收藏
-// 使用模块级缓存避免对收藏列表的重复请求
-let favoriteIdsCache = null; // Set<number>
-let favoriteIdsPromise = null;
-
-const loadFavoriteIds = async () => {
-  if (favoriteIdsCache) return favoriteIdsCache;
-  if (!favoriteIdsPromise) {
-    favoriteIdsPromise = (async () => {
-      try {
-        const res = await favoriteApi.listMy();
-        if (res.success) {
-          const ids = new Set((res.data || []).map((p) => p.id));
-          favoriteIdsCache = ids;
-          return ids;
-        }
-      } catch (e) {
-        // 静默失败，视为没有收藏
-      }
-      const empty = new Set();
-      favoriteIdsCache = empty;
-      return empty;
-    })();
-  }
-  return favoriteIdsPromise;
-};
-
-export const invalidateFavoriteIdsCache = () => {
-  favoriteIdsCache = null;
-  favoriteIdsPromise = null;
-};
-
+// 收藏状态直接取自列表接口返回的 favorited 字段，不再单独拉取收藏 ID 列表
 const ProductCard = ({ product, isSold = false }) => {
-  const [isFavorite, setIsFavorite] = useState(false);
+  const [isFavorite, setIsFavorite] = useState(!!product?.favorited);
   const [favoriteTip, setFavoriteTip] = useState('');
 
   useEffect(() => {
-    let mounted = true;
-    if (!product?.id) return;
-    (async () => {
-      const ids = await loadFavoriteIds();
-      if (!mounted) return;
-      setIsFavorite(ids.has(product.id));
-    })();
-    return () => {
-      mounted = false;
-    };
-  }, [product?.id]);
+    setIsFavorite(!!product?.favorited);
+  }, [product?.id, product?.favorited]);
 
   const handleToggleFavorite = async (e) => {
     e.preventDefault();
@@ -62,10 +23,8 @@ const ProductCard = ({ product, isSold = false }) => {
     try {
       if (next) {
         await favoriteApi.add(product.id);
-        if (favoriteIdsCache) favoriteIdsCache.add(product.id);
       } else {
         await favoriteApi.remove(product.id);
-        if (favoriteIdsCache) favoriteIdsCache.delete(product.id);
       }
       setFavoriteTip(next ? '已加入收藏' : '已取消收藏');
       setTimeout(() => {
@@ -5,7 +5,7 @@ import ProductCard from '../components/ProductCard';
 import { Zap, Shield, RefreshCw, Clock4 } from 'lucide-react';
 import { Logout } from '@icon-park/react';
 import { Link } from 'react-router-dom';
-import { productApi } from '../api';
+import { homeApi } from '../api';
 
 const FEATURES = [
   {
@@ -49,6 +49,7 @@ const mapToCardProduct = (p) => {
     image: p.thumbnail || 'https://images.unsplash.com/photo-1545239351-1141bd82e8a6?auto=format&fit=crop&q=80&w=800',
     location: p.location || '校内',
     timeAgo: formatTime(createdAt),
+    favorited: !!p.favorited,
     seller: {
       name: p.sellerName || '同学',
       avatar: p.sellerAvatar || `https://api.dicebear.com/7.x/avataaars/svg?seed=${p.sellerId || p.id}`,
@@ -66,9 +67,10 @@ const Home = () => {
       try {
         setLoading(true);
         setError('');
-        const res = await productApi.getLatest();
+        // 首页只需要最新发布，size=0 跳过商品列表
+        const res = await homeApi.get({ latestLimit: 8, size: 0 });
         if (res.success) {
-          setLatestProducts(res.data || []);
+          setLatestProducts(res.data?.latest || []);
         } else {
           setError(res.message || '加载最新商品失败');
         }
@@ -1,8 +1,8 @@
-import React, { useEffect, useState } from 'react';
+import React, { useEffect, useRef, useState } from 'react';
 import Navbar from '../components/Navbar';
 import ProductCard from '../components/ProductCard';
 import { Filter } from 'lucide-react';
-import { productApi } from '../api';
+import { homeApi, productApi } from '../api';
 import openRafiki from '../assets/open-rafiki.svg';
 import Slider from 'rc-slider';
 import 'rc-slider/assets/index.css';
@@ -32,6 +32,7 @@ const mapToCardProduct = (p) => {
     image: p.thumbnail || 'https://images.unsplash.com/photo-1545239351-1141bd82e8a6?auto=format&fit=crop&q=80&w=800',
     location: p.location || '校内',
     timeAgo: formatTime(createdAt),
+    favorited: !!p.favorited,
     seller: {
       name: p.sellerName || '同学',
       avatar: p.sellerAvatar || `https://api.dicebear.com/7.x/avataaars/svg?seed=${p.sellerId || p.id}`,
@@ -88,21 +89,37 @@ const Marketplace = () => {
     }
   };
 
+  // 首屏的分类和默认筛选下的商品列表由 /home 聚合接口一次返回，之后切换筛选再单独查询列表
+  const initialLoad = useRef(true);
+
   useEffect(() => {
     const init = async () => {
       try {
-        const res = await productApi.getCategories();
-        if (res.success && Array.isArray(res.data)) {
-          setCategories([{ id: null, name: '全部' }, ...res.data]);
+        setLoading(true);
+        setError('');
+        const res = await homeApi.get({ latestLimit: 0, size: 20 });
+        if (res.success) {
+          if (Array.isArray(res.data?.categories)) {
+            setCategories([{ id: null, name: '全部' }, ...res.data.categories]);
+          }
+          setProducts(res.data?.products?.content || []);
+        } else {
+          setError(res.message || '加载商品列表失败');
         }
       } catch (e) {
-        // 分类加载失败时忽略，仍然可以看全部商品
+        setError('加载商品列表失败，请稍后重试');
+      } finally {
+        setLoading(false);
       }
     };
     init();
   }, []);
 
   useEffect(() => {
+    if (initialLoad.current) {
+      initialLoad.current = false;
+      return undefined;
+    }
     const timer = setTimeout(() => {
       loadProducts(selectedCategoryId, sortBy, maxPrice);
     }, 300);
@@ -4,7 +4,6 @@ import { motion, AnimatePresence } from 'framer-motion';
 import { Heart, MapPin, User, ArrowRight, Trash2, ShoppingCart } from 'lucide-react';
 import { Link, useNavigate } from 'react-router-dom';
 import { favoriteApi } from '../api';
-import { invalidateFavoriteIdsCache } from '../components/ProductCard';
 
 const MyFavorites = () => {
   const navigate = useNavigate();
@@ -12,14 +11,21 @@ const MyFavorites = () => {
   const [hoveredId, setHoveredId] = useState(null);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState('');
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
 
-  const loadFavorites = async () => {
+  // 收藏列表按收藏时间倒序分页，cursor 为空时加载第一页
+  const loadFavorites = async (cursor = null) => {
     try {
-      setLoading(true);
+      if (cursor) {
+        setLoadingMore(true);
+      } else {
+        setLoading(true);
+      }
       setError('');
-      const res = await favoriteApi.listMy();
+      const res = await favoriteApi.listMy({ cursor: cursor || undefined, size: 20 });
       if (res.success) {
-        const list = res.data || [];
+        const list = res.data?.items || [];
         const mapped = list.map((p) => ({
           id: p.id,
           title: p.title,
@@ -35,7 +41,8 @@ const MyFavorites = () => {
               `https://api.dicebear.com/7.x/avataaars/svg?seed=${p.sellerId || p.id}`,
           },
         }));
-        setFavorites(mapped);
+        setFavorites((prev) => (cursor ? [...prev, ...mapped] : mapped));
+        setNextCursor(res.data?.hasMore ? res.data.nextCursor : null);
       } else {
         setError(res.message || '加载收藏列表失败');
       }
@@ -43,6 +50,7 @@ const MyFavorites = () => {
       setError('加载收藏列表失败，请稍后重试');
     } finally {
       setLoading(false);
+      setLoadingMore(false);
     }
   };
 
@@ -54,7 +62,6 @@ const MyFavorites = () => {
     try {
       await favoriteApi.remove(productId);
       setFavorites((prev) => prev.filter((item) => item.id !== productId));
-      invalidateFavoriteIdsCache();
     } catch (e) {
       console.error('取消收藏失败', e);
     }
@@ -83,7 +90,7 @@ const MyFavorites = () => {
               transition={{ delay: 0.1 }}
               className="text-slate-500 mt-2 ml-1"
             >
-              这里是你心动的宝贝，共收藏了 {favorites.length} 件商品
+              这里是你心动的宝贝，共收藏了 {favorites.length}{nextCursor ? '+' : ''} 件商品
             </motion.p>
           </div>
         </div>
@@ -97,6 +104,7 @@ const MyFavorites = () => {
             正在加载收藏的商品...
           </div>
         ) : favorites.length > 0 ? (
+          <>
           <motion.div 
             layout
             className="grid grid-cols-1 sm:grid-cols-2 lg:grid-cols-3 xl:grid-cols-4 gap-6"
@@ -168,6 +176,18 @@ const MyFavorites = () => {
               ))}
             </AnimatePresence>
           </motion.div>
+          {nextCursor && (
+            <div className="flex justify-center mt-10">
+              <button
+                onClick={() => loadFavorites(nextCursor)}
+                disabled={loadingMore}
+                className="px-8 py-3 bg-white border border-slate-200 hover:border-slate-300 text-slate-600 rounded-xl text-sm font-medium transition-all disabled:opacity-50"
+              >
+                {loadingMore ? '加载中...' : '加载更多'}
+              </button>
+            </div>
+          )}
+          </>
         ) : (
           <div className="flex flex-col items-center justify-center py-32 bg-white rounded-3xl border border-slate-100 border-dashed">
             <div className="w-24 h-24 bg-rose-50 rounded-full flex items-center justify-center mb-6 text-rose-300 animate-bounce">
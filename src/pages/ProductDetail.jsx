@@ -3,7 +3,6 @@ import Navbar from '../components/Navbar';
 import { useParams, Link, useNavigate } from 'react-router-dom';
 import { MapPin, Clock, Heart, Share2, MessageCircle, ShieldCheck, ShoppingBag, Eye } from 'lucide-react';
 import { productApi, chatApi, favoriteApi } from '../api';
-import { invalidateFavoriteIdsCache } from '../components/ProductCard';
 
 const formatTimeFromString = (timeStr) => {
   if (!timeStr) return '';
@@ -60,6 +59,8 @@ const ProductDetail = () => {
               avatar: sellerAvatar,
             },
           });
+          // 详情接口直接返回当前用户的收藏状态
+          setIsFavorite(!!p.favorited);
         } else {
           setError(res.message || '加载商品详情失败');
         }
@@ -86,28 +87,6 @@ const ProductDetail = () => {
     })();
   }, [id]);
 
-  // 根据当前用户收藏列表初始化详情页爱心状态
-  useEffect(() => {
-    let cancelled = false;
-    const loadFavoriteState = async () => {
-      if (!id) return;
-      try {
-        const res = await favoriteApi.listMy();
-        if (!res.success || cancelled) return;
-        const list = res.data || [];
-        const ids = new Set(list.map((p) => p.id));
-        setIsFavorite(ids.has(Number(id)));
-      } catch (e) {
-        // 静默失败，不影响其他逻辑
-      }
-    };
-
-    loadFavoriteState();
-    return () => {
-      cancelled = true;
-    };
-  }, [id]);
-
   const handleToggleFavorite = async () => {
     if (!product?.id) return;
     const next = !isFavorite;
@@ -118,7 +97,6 @@ const ProductDetail = () => {
       } else {
         await favoriteApi.remove(product.id);
       }
-      invalidateFavoriteIdsCache();
       setFavoriteTip(next ? '已加入收藏' : '已取消收藏');
       setTimeout(() => {
         setFavoriteTip('');
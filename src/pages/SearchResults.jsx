@@ -31,6 +31,7 @@ const mapToCardProduct = (p) => {
       'https://images.unsplash.com/photo-1545239351-1141bd82e8a6?auto=format&fit=crop&q=80&w=800',
     location: p.location || '校内',
     timeAgo: formatTime(createdAt),
+    favorited: !!p.favorited,
     seller: {
       name: p.sellerName || '同学',
       avatar:
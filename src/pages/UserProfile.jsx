@@ -53,6 +53,7 @@ const UserProfile = () => {
           image: p.thumbnail || 'https://images.unsplash.com/photo-1545239351-1141bd82e8a6?auto=format&fit=crop&q=80&w=800',
           location: p.location || '校内',
           timeAgo: formatTime(p.createdAt),
+          favorited: !!p.favorited,
           seller: {
             name: p.sellerName || (profile?.nickname || profile?.username || '同学'),
             avatar: p.sellerAvatar || profile?.avatarUrl || `https://api.dicebear.com/7.x/avataaars/svg?seed=${p.sellerId || p.id}`,